@@ -0,0 +1,47 @@
+package fr.ladybug.bench;
+
+import fr.ladybug.Graph;
+import fr.ladybug.GraphReader;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Solves a scale-free graph exactly and by epsilon-scaling. The exact solver runs a stage per augmentation, the
+ * approximate one a bounded number of passes over the edges per scale, so the gap grows with the graph.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class ApproximationBenchmark {
+
+    @Param({"2000", "20000"})
+    public int size;
+
+    @Param({"0.1", "0.01"})
+    public double epsilon;
+
+    private Graph graph;
+
+    @Setup
+    public void setUp() {
+        var input = BenchmarkGraphs.scaleFree(size, 3, 42);
+        graph = new GraphReader(null).readGraph(new ByteArrayInputStream(input));
+    }
+
+    @Benchmark
+    public double exact() {
+        graph.solve();
+        return graph.getMatchingWeight();
+    }
+
+    @Benchmark
+    public double approximate() {
+        graph.solveApproximately(epsilon);
+        return graph.getMatchingWeight();
+    }
+}
@@ -0,0 +1,52 @@
+package fr.ladybug.bench;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Random;
+
+/**
+ * Deterministic inputs for the benchmarks, in the .grph text format.
+ */
+public class BenchmarkGraphs {
+
+    private BenchmarkGraphs() {
+    }
+
+    /**
+     * Preferential attachment graph whose vertex ids are shuffled, as they come from upstream.
+     */
+    public static byte[] scaleFree(int n, int edgesPerVertex, long seed) {
+        var rnd = new Random(seed);
+        var ids = new int[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1);
+            int tmp = ids[i];
+            ids[i] = ids[j];
+            ids[j] = tmp;
+        }
+
+        // Every edge end is stored once, so a uniform pick of an end is proportional to the degree
+        var ends = new int[2 * n * edgesPerVertex];
+        int endsSize = 0;
+        var edges = new StringBuilder();
+        int m = 0;
+        for (int vertex = 1; vertex < n; vertex++) {
+            var targets = new HashSet<Integer>();
+            int attempts = Math.min(vertex, edgesPerVertex);
+            while (targets.size() < attempts) {
+                targets.add(endsSize == 0 ? 0 : ends[rnd.nextInt(endsSize)]);
+            }
+            for (var target : targets) {
+                edges.append(ids[vertex]).append(' ').append(ids[target]).append(' ')
+                        .append(1 + rnd.nextInt(100)).append('\n');
+                ends[endsSize++] = vertex;
+                ends[endsSize++] = target;
+                m++;
+            }
+        }
+        return (n + " " + m + "\n" + edges).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,64 @@
+package fr.ladybug.bench;
+
+import fr.ladybug.JgraphtMatching;
+import org.jgrapht.alg.matching.blossom.v5.KolmogorovWeightedMatching;
+import org.jgrapht.alg.matching.blossom.v5.ObjectiveSense;
+import org.jgrapht.graph.DefaultWeightedEdge;
+import org.jgrapht.graph.SimpleWeightedGraph;
+import org.jgrapht.util.SupplierUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The engine behind the jgrapht interface against Kolmogorov's algorithm of jgrapht on a random graph which is not
+ * bipartite, N vertices and about 4N edges, with the vertex positions and the edge arrays built on every call.
+ * <p>
+ * Measured on one core, best of six: the engine takes 33 ms against 55 ms for 10^3 vertices, 312 ms against
+ * 246 ms for 4 * 10^3 and 4.7 s against 1.6 s for 2 * 10^4, so it is faster on small graphs and about three times
+ * slower at 2 * 10^4 vertices, since its stages grow quadratically. On the bipartite graph of
+ * {@link JgraphtBenchmark} the gap is wider, see there.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class KolmogorovBenchmark {
+
+    @Param({"1000", "4000", "20000"})
+    public int size;
+
+    @Param({"4"})
+    public int edgesPerVertex;
+
+    private SimpleWeightedGraph<Integer, DefaultWeightedEdge> graph;
+
+    @Setup
+    public void setUp() {
+        var rnd = new Random(42);
+        graph = new SimpleWeightedGraph<>(
+                SupplierUtil.createIntegerSupplier(), SupplierUtil.DEFAULT_WEIGHTED_EDGE_SUPPLIER);
+        for (int i = 0; i < size; i++) {
+            graph.addVertex();
+        }
+        for (int i = 0; i < size * edgesPerVertex; i++) {
+            int u = rnd.nextInt(size);
+            int v = rnd.nextInt(size);
+            if (u != v && !graph.containsEdge(u, v))
+                graph.setEdgeWeight(graph.addEdge(u, v), 1 + rnd.nextInt(1000));
+        }
+    }
+
+    @Benchmark
+    public double engine() {
+        return new JgraphtMatching<>(graph).getMatching().getWeight();
+    }
+
+    @Benchmark
+    public double kolmogorov() {
+        return new KolmogorovWeightedMatching<>(graph, ObjectiveSense.MAXIMIZE).getMatching().getWeight();
+    }
+}
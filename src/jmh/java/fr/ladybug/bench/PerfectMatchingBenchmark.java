@@ -0,0 +1,78 @@
+package fr.ladybug.bench;
+
+import fr.ladybug.MinCostPerfectMatching;
+import org.jgrapht.alg.matching.blossom.v5.KolmogorovWeightedPerfectMatching;
+import org.jgrapht.alg.matching.blossom.v5.ObjectiveSense;
+import org.jgrapht.graph.DefaultWeightedEdge;
+import org.jgrapht.graph.SimpleWeightedGraph;
+import org.jgrapht.util.SupplierUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The minimum cost perfect matching of {@link fr.ladybug.PerfectMatchingEngine} against the one of jgrapht, on a
+ * random graph which contains a perfect matching, with the same edges given as arrays and as a jgrapht graph.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class PerfectMatchingBenchmark {
+
+    @Param({"1000", "4000", "20000", "50000"})
+    public int size;
+
+    @Param({"4"})
+    public int edgesPerVertex;
+
+    private SimpleWeightedGraph<Integer, DefaultWeightedEdge> graph;
+    private int[] from;
+    private int[] to;
+    private double[] cost;
+
+    @Setup
+    public void setUp() {
+        var rnd = new Random(42);
+        graph = new SimpleWeightedGraph<>(
+                SupplierUtil.createIntegerSupplier(), SupplierUtil.DEFAULT_WEIGHTED_EDGE_SUPPLIER);
+        for (int i = 0; i < size; i++) {
+            graph.addVertex();
+        }
+        // A perfect matching to begin with, then random edges
+        for (int i = 0; i < size; i += 2) {
+            graph.setEdgeWeight(graph.addEdge(i, i + 1), 1 + rnd.nextInt(1000));
+        }
+        for (int i = 0; i < size * edgesPerVertex / 2; i++) {
+            int u = rnd.nextInt(size);
+            int v = rnd.nextInt(size);
+            if (u != v && !graph.containsEdge(u, v))
+                graph.setEdgeWeight(graph.addEdge(u, v), 1 + rnd.nextInt(1000));
+        }
+        from = new int[graph.edgeSet().size()];
+        to = new int[from.length];
+        cost = new double[from.length];
+        int k = 0;
+        for (var edge : graph.edgeSet()) {
+            from[k] = graph.getEdgeSource(edge);
+            to[k] = graph.getEdgeTarget(edge);
+            cost[k++] = graph.getEdgeWeight(edge);
+        }
+    }
+
+    @Benchmark
+    public double engine() {
+        // The arrays are reused by the solver
+        return MinCostPerfectMatching.solve(size, Arrays.copyOf(from, from.length), Arrays.copyOf(to, to.length),
+                Arrays.copyOf(cost, cost.length)).getCost();
+    }
+
+    @Benchmark
+    public double kolmogorov() {
+        return new KolmogorovWeightedPerfectMatching<>(graph, ObjectiveSense.MINIMIZE).getMatching().getWeight();
+    }
+}
@@ -0,0 +1,57 @@
+package fr.ladybug.bench;
+
+import fr.ladybug.Graph;
+import fr.ladybug.GraphReader;
+import fr.ladybug.VertexReordering;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads a scale-free graph with shuffled ids in every vertex order and runs the stages of the solver on it.
+ * The small graph fits in the caches and is solved to the end. The large one has about a million edges and is far
+ * bigger than the last level cache; solving it takes too long for a benchmark, so only its first stages are timed.
+ * Run with {@code -prof perfnorm} to see the cache misses per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ReorderingBenchmark {
+
+    @Param({"AS_GIVEN", "BFS", "REVERSE_CUTHILL_MCKEE", "DEGREE"})
+    public VertexReordering.Order order;
+
+    @Param({"2000", "350000"})
+    public int size;
+
+    @Param({"3000"})
+    public int stages;
+
+    private byte[] input;
+    private Graph graph;
+
+    @Setup
+    public void setUp() {
+        input = BenchmarkGraphs.scaleFree(size, 3, 42);
+        graph = new GraphReader(null, order).readGraph(new ByteArrayInputStream(input));
+    }
+
+    @Benchmark
+    public Graph read() {
+        return new GraphReader(null, order).readGraph(new ByteArrayInputStream(input));
+    }
+
+    @Benchmark
+    public int solve() {
+        graph.initializeVertexVariables();
+        int stage = 0;
+        while (stage < stages && graph.growTree() == Graph.GrowingResult.PATH_FOUND) {
+            stage++;
+        }
+        return stage;
+    }
+}
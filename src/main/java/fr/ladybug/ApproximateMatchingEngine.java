@@ -0,0 +1,767 @@
+package fr.ladybug;
+
+import java.util.Arrays;
+
+/**
+ * The (1 - epsilon)-approximate blossom algorithm by scaling, after Duan and Pettie.
+ * <p>
+ * The variables move by fixed steps instead of the exact deltas of {@link MatchingEngine}. At a scale with the
+ * step delta the weights are rounded down to multiples of delta, an edge which is not matched is eligible when its
+ * slack for the rounded weight is at most -delta/2, and a search over the eligible edges augments along every
+ * disjoint path it meets. Only a search which finds no path moves the trees, by delta/2. A scale ends when the
+ * free vertices are down to its target; the next one halves the step and raises every vertex by the new step,
+ * which keeps every edge within one step of feasible. So a scale costs a bounded number of passes over the edges,
+ * however many augmentations it makes.
+ * <p>
+ * The blossoms are kept as in {@link MatchingEngine}: rings of children, endpoints 2k and 2k+1 of the edge k and
+ * doubled variables of the vertices. At the end the variables are made feasible for the real weights, which gives
+ * the dual bound, and more scales run until the matching is within 1 - epsilon of it.
+ */
+public class ApproximateMatchingEngine {
+    private static final int FREE = 0;
+    private static final int S_TYPE = 1;
+    private static final int T_TYPE = 2;
+    // Breadcrumb of scanBlossom, set on top of S_TYPE
+    private static final int VISITED = 4;
+    // A free vertex with zero variable which ended a path in the current search
+    private static final int USED = 8;
+    // The steps stay exact in doubles while the largest variable is at most this many steps
+    private static final double MAX_STEPS = 0x1p50;
+
+    private final int n, m;
+    private final int[] endpoint;
+    private final double[] weight;
+    private final int[] neighbourStart;
+    private final int[] neighbourEnd;
+
+    // Remote endpoint of the matched edge, or -1
+    private final int[] mate;
+    private final int[] label;
+    private final int[] labelEnd;
+    private final int[] inBlossom;
+    private final int[] blossomParent;
+    private final int[] blossomBase;
+    private final int[] firstChild;
+    private final int[] ringNext;
+    private final int[] ringPrevious;
+    private final int[] ringEndpoint;
+    private final double[] dual;
+    private final int[] blossomSize;
+    private final int[] freeBlossoms;
+    private int freeCount;
+
+    // The step of the current scale and the weights rounded down to it
+    private double delta;
+    private final double[] rounded;
+    // The root of the tree of every top-level blossom, and the trees which were augmented in the current search
+    private final int[] treeRoot;
+    private final boolean[] augmentedTree;
+    // S_TYPE vertices with edges left to scan
+    private final int[] queue;
+    private int queueSize;
+    private final int[] scratch;
+    private final int[] workStack;
+
+    // The variables made feasible for the real weights, null until the first bound
+    private double[] feasible;
+    private double bound;
+    private int scales = 0;
+    private int steps = 0;
+    private int searches = 0;
+    private long scannedEdges = 0;
+
+    public ApproximateMatchingEngine(int n, int[] from, int[] to, double[] weights) {
+        this.n = n;
+        this.m = from.length;
+        endpoint = new int[2 * m];
+        weight = Arrays.copyOf(weights, m);
+        neighbourStart = new int[n + 1];
+        neighbourEnd = new int[2 * m];
+        for (int k = 0; k < m; k++) {
+            endpoint[2 * k] = from[k];
+            endpoint[2 * k + 1] = to[k];
+            neighbourStart[from[k] + 1]++;
+            neighbourStart[to[k] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            neighbourStart[v + 1] += neighbourStart[v];
+        }
+        var fill = Arrays.copyOf(neighbourStart, n);
+        for (int k = 0; k < m; k++) {
+            neighbourEnd[fill[from[k]]++] = 2 * k + 1;
+            neighbourEnd[fill[to[k]]++] = 2 * k;
+        }
+
+        mate = new int[n];
+        label = new int[2 * n];
+        labelEnd = new int[2 * n];
+        inBlossom = new int[n];
+        blossomParent = new int[2 * n];
+        blossomBase = new int[2 * n];
+        firstChild = new int[2 * n];
+        ringNext = new int[2 * n];
+        ringPrevious = new int[2 * n];
+        ringEndpoint = new int[2 * n];
+        dual = new double[2 * n];
+        blossomSize = new int[2 * n];
+        freeBlossoms = new int[n];
+        rounded = new double[m];
+        treeRoot = new int[2 * n];
+        augmentedTree = new boolean[n];
+        queue = new int[n];
+        scratch = new int[2 * n];
+        workStack = new int[2 * n];
+
+        Arrays.fill(mate, -1);
+        Arrays.fill(labelEnd, -1);
+        Arrays.fill(blossomParent, -1);
+        Arrays.fill(firstChild, -1);
+        for (int v = 0; v < n; v++) {
+            inBlossom[v] = v;
+            blossomBase[v] = v;
+            blossomBase[n + v] = -1;
+            blossomSize[v] = 1;
+            freeBlossoms[freeCount++] = 2 * n - 1 - v;
+        }
+    }
+
+    /**
+     * Finds a matching of at least 1 - epsilon of the maximum weight, and the dual bound which shows it.
+     * <p>
+     * The first step is the largest power of two up to epsilon / 2 of the maximum weight and the variables start
+     * at half of the maximum weight rounded up to it. The first scale brings the free vertices down to a quarter of
+     * the maximum weight and the second one to zero. Every further scale halves the step and brings them to zero
+     * again, until the matching is within 1 - epsilon of the bound.
+     */
+    public void solve(double epsilon) {
+        if (!(epsilon > 0 && epsilon < 1)) {
+            throw new IllegalArgumentException("Epsilon must be between 0 and 1.");
+        }
+        double maxWeight = 0;
+        for (var value : weight) {
+            maxWeight = Math.max(maxWeight, value);
+        }
+        if (maxWeight <= 0) {
+            certify();
+            return;
+        }
+
+        delta = Math.scalb(1.0, Math.getExponent(epsilon * maxWeight / 2));
+        double top = delta * Math.ceil(maxWeight / delta);
+        // The variables are doubled, so the free vertices start at top / 2
+        Arrays.fill(dual, 0, n, top);
+        while (true) {
+            for (int k = 0; k < m; k++) {
+                rounded[k] = delta * Math.floor(weight[k] / delta);
+            }
+            if (scales > 0)
+                raise();
+            // The doubled target of the first scale is a quarter of the maximum weight
+            runScale(scales == 0 ? top / 2 : 0);
+            scales++;
+            if (scales > 1) {
+                certify();
+                if (getMatchingWeight() >= (1 - epsilon) * bound || top / delta >= MAX_STEPS)
+                    break;
+            }
+            delta /= 2;
+        }
+    }
+
+    /**
+     * Starts the next scale, on the weights rounded to its step: every vertex goes up by the step, which keeps
+     * every edge within one step of feasible for the finer weights. The matched edges between vertices outside of
+     * blossoms give the excess back where the other edges of their ends allow it.
+     */
+    private void raise() {
+        for (int v = 0; v < n; v++) {
+            dual[v] += 2 * delta;
+        }
+        for (int v = 0; v < n; v++) {
+            if (mate[v] == -1 || inBlossom[v] != v || inBlossom[endpoint[mate[v]]] != endpoint[mate[v]])
+                continue;
+            int k = mate[v] >> 1;
+            double excess = dual[v] + dual[endpoint[mate[v]]] - 2 * rounded[k];
+            double room = dual[v];
+            for (int i = neighbourStart[v]; i < neighbourStart[v + 1] && room > 0; i++) {
+                int p = neighbourEnd[i];
+                int w = endpoint[p];
+                if (p >> 1 == k || inBlossom[w] == inBlossom[v])
+                    continue;
+                room = Math.min(room, dual[v] + dual[w] - 2 * rounded[p >> 1] + 2 * delta);
+            }
+            dual[v] -= Math.max(0, Math.min(room, excess));
+        }
+    }
+
+    /**
+     * Runs the searches and the steps of the current scale until no free vertex is above the doubled target.
+     */
+    private void runScale(double target) {
+        while (true) {
+            double highest = plantForest();
+            if (highest <= target)
+                return;
+            if (search() || releaseZeros())
+                continue;
+            steps++;
+            for (int v = 0; v < n; v++) {
+                int type = label[inBlossom[v]];
+                if (type == S_TYPE)
+                    dual[v] -= delta;
+                else if (type == T_TYPE)
+                    dual[v] += delta;
+            }
+            for (int b = n; b < 2 * n; b++) {
+                if (blossomBase[b] < 0 || blossomParent[b] != -1)
+                    continue;
+                if (label[b] == S_TYPE)
+                    dual[b] += delta;
+                else if (label[b] == T_TYPE)
+                    dual[b] -= delta;
+            }
+        }
+    }
+
+    /**
+     * Labels the forest from scratch: every free vertex with positive variable is the root of a tree. The
+     * top-level blossoms without variable are expanded first, they must not become T_TYPE.
+     *
+     * @return the highest variable of a free vertex, doubled
+     */
+    private double plantForest() {
+        for (int b = n; b < 2 * n; b++) {
+            if (blossomBase[b] >= 0 && blossomParent[b] == -1 && dual[b] <= 0)
+                expandBlossom(b);
+        }
+        Arrays.fill(label, FREE);
+        Arrays.fill(augmentedTree, false);
+        queueSize = 0;
+        double highest = 0;
+        for (int v = 0; v < n; v++) {
+            if (mate[v] != -1 || blossomBase[inBlossom[v]] != v || dual[v] <= 0)
+                continue;
+            highest = Math.max(highest, dual[v]);
+            assignLabel(v, S_TYPE, -1);
+        }
+        return highest;
+    }
+
+    /**
+     * Grows the trees over the eligible edges, and augments along every path between two trees, or from a tree
+     * to a free vertex with zero variable, whose trees were not augmented yet.
+     *
+     * @return whether the matching was augmented
+     */
+    private boolean search() {
+        searches++;
+        boolean augmented = false;
+        while (queueSize > 0) {
+            int v = queue[--queueSize];
+            for (int i = neighbourStart[v]; i < neighbourStart[v + 1]; i++) {
+                if (augmentedTree[treeRoot[inBlossom[v]]])
+                    break;
+                augmented |= examine(v, neighbourEnd[i]);
+            }
+        }
+        return augmented;
+    }
+
+    /**
+     * Examines the edge from the S_TYPE vertex v to the endpoint p: an eligible edge grows the tree, makes a
+     * blossom or ends an augmenting path.
+     *
+     * @return whether the matching was augmented
+     */
+    private boolean examine(int v, int p) {
+        scannedEdges++;
+        int k = p >> 1;
+        int w = endpoint[p];
+        int bv = inBlossom[v];
+        int bw = inBlossom[w];
+        if (bv == bw || dual[v] + dual[w] - 2 * rounded[k] > -delta)
+            return false;
+        int type = label[bw];
+        if (type == USED || type != FREE && augmentedTree[treeRoot[bw]])
+            return false;
+
+        if (type == FREE && mate[blossomBase[bw]] == -1) {
+            // A free vertex with zero variable ends the path
+            augmentedTree[treeRoot[bv]] = true;
+            label[bw] = USED;
+            augmentMatching(k);
+            return true;
+        } else if (type == FREE) {
+            // Married: w becomes T_TYPE and its pair S_TYPE
+            assignLabel(w, T_TYPE, p ^ 1);
+        } else if (type == S_TYPE) {
+            int base = scanBlossom(v, w);
+            if (base < 0) {
+                augmentedTree[treeRoot[bv]] = true;
+                augmentedTree[treeRoot[bw]] = true;
+                augmentMatching(k);
+                return true;
+            }
+            addBlossom(base, k);
+        }
+        return false;
+    }
+
+    /**
+     * Frees the S_TYPE vertices which reached zero, one in every tree, as {@link MatchingEngine} does when the
+     * delta of a vertex is the least: the path to the root is swapped and the root is matched instead.
+     *
+     * @return whether a vertex was freed
+     */
+    private boolean releaseZeros() {
+        boolean released = false;
+        for (int v = 0; v < n; v++) {
+            int b = inBlossom[v];
+            if (label[b] == S_TYPE && dual[v] <= 0 && !augmentedTree[treeRoot[b]]) {
+                augmentedTree[treeRoot[b]] = true;
+                augmentToRoot(v, -1);
+                released = true;
+            }
+        }
+        return released;
+    }
+
+    private void assignLabel(int w, int type, int p) {
+        int b = inBlossom[w];
+        label[w] = label[b] = type;
+        labelEnd[w] = labelEnd[b] = p;
+        treeRoot[b] = p == -1 ? blossomBase[b] : treeRoot[inBlossom[endpoint[p]]];
+        if (type == S_TYPE) {
+            int leaves = collectLeaves(b, scratch, 0);
+            for (int i = 0; i < leaves; i++) {
+                queue[queueSize++] = scratch[i];
+            }
+        } else {
+            // Mark the pair of the newborn T_TYPE with S_TYPE
+            int base = blossomBase[b];
+            if (mate[base] == -1) {
+                throw new IllegalStateException("Unmarked means married.");
+            }
+            assignLabel(endpoint[mate[base]], S_TYPE, mate[base] ^ 1);
+        }
+    }
+
+    /**
+     * Walks from two S_TYPE blossoms to their roots at once.
+     *
+     * @return the base of the new blossom, or -1 if the roots differ and the path is augmenting
+     */
+    private int scanBlossom(int v, int w) {
+        int pathSize = 0;
+        int base = -1;
+        while (v != -1 || w != -1) {
+            int b = inBlossom[v];
+            if ((label[b] & VISITED) != 0) {
+                base = blossomBase[b];
+                break;
+            }
+            scratch[pathSize++] = b;
+            label[b] = S_TYPE | VISITED;
+            if (labelEnd[b] == -1) {
+                // Reached the root
+                v = -1;
+            } else {
+                // Jump back via pair edge and then via parent edge
+                v = endpoint[labelEnd[b]];
+                b = inBlossom[v];
+                v = endpoint[labelEnd[b]];
+            }
+            if (w != -1) {
+                int tmp = v;
+                v = w;
+                w = tmp;
+            }
+        }
+        for (int i = 0; i < pathSize; i++) {
+            label[scratch[i]] = S_TYPE;
+        }
+        return base;
+    }
+
+    /**
+     * Shrinks the cycle closed by the edge k into a new S_TYPE blossom.
+     */
+    private void addBlossom(int base, int k) {
+        int v = endpoint[2 * k];
+        int w = endpoint[2 * k + 1];
+        int baseBlossom = inBlossom[base];
+        int b = freeBlossoms[--freeCount];
+        blossomBase[b] = base;
+        blossomParent[b] = -1;
+        blossomParent[baseBlossom] = b;
+        firstChild[b] = baseBlossom;
+
+        // Backtrack from v to the base, the children come in the reverse order
+        int count = 0;
+        for (int bv = inBlossom[v]; bv != baseBlossom; bv = inBlossom[endpoint[labelEnd[bv]]]) {
+            blossomParent[bv] = b;
+            scratch[count++] = bv;
+        }
+        int previous = baseBlossom;
+        for (int i = count - 1; i >= 0; i--) {
+            link(previous, scratch[i], labelEnd[scratch[i]]);
+            previous = scratch[i];
+        }
+        // The triggering edge closes the first branch
+        int closing = 2 * k;
+        // Backtrack from w to the base, the children come in the right order
+        for (int bw = inBlossom[w]; bw != baseBlossom; bw = inBlossom[endpoint[labelEnd[bw]]]) {
+            blossomParent[bw] = b;
+            link(previous, bw, closing);
+            previous = bw;
+            closing = labelEnd[bw] ^ 1;
+        }
+        link(previous, baseBlossom, closing);
+
+        label[b] = S_TYPE;
+        labelEnd[b] = labelEnd[baseBlossom];
+        treeRoot[b] = treeRoot[baseBlossom];
+        dual[b] = 0;
+
+        // Former T_TYPE vertices become S_TYPE and have to be scanned
+        int leaves = collectLeaves(b, scratch, 0);
+        blossomSize[b] = leaves;
+        for (int i = 0; i < leaves; i++) {
+            int leaf = scratch[i];
+            if (label[inBlossom[leaf]] == T_TYPE)
+                queue[queueSize++] = leaf;
+            inBlossom[leaf] = b;
+        }
+    }
+
+    private void link(int child, int next, int childEndpoint) {
+        ringNext[child] = next;
+        ringPrevious[next] = child;
+        ringEndpoint[child] = childEndpoint;
+    }
+
+    /**
+     * Turns the children of the top-level blossom b into top-level blossoms and recycles b, and so on down for
+     * the children without variable.
+     */
+    private void expandBlossom(int b) {
+        int stackSize = 0;
+        workStack[stackSize++] = b;
+        while (stackSize > 0) {
+            int current = workStack[--stackSize];
+            int first = firstChild[current];
+            int child = first;
+            do {
+                int next = ringNext[child];
+                blossomParent[child] = -1;
+                if (child < n) {
+                    inBlossom[child] = child;
+                } else if (dual[child] <= 0) {
+                    workStack[stackSize++] = child;
+                } else {
+                    int leaves = collectLeaves(child, scratch, 0);
+                    for (int i = 0; i < leaves; i++) {
+                        inBlossom[scratch[i]] = child;
+                    }
+                }
+                child = next;
+            } while (child != first);
+            recycle(current);
+        }
+    }
+
+    private void recycle(int b) {
+        label[b] = FREE;
+        labelEnd[b] = -1;
+        firstChild[b] = -1;
+        blossomBase[b] = -1;
+        dual[b] = 0;
+        freeBlossoms[freeCount++] = b;
+    }
+
+    /**
+     * Swaps matched and unmatched edges inside the blossom b, so that v becomes its base.
+     * The sub-blossoms on the path are augmented in turn from an explicit stack.
+     */
+    private void augmentBlossom(int b, int v) {
+        int stackSize = 0;
+        workStack[stackSize++] = b;
+        workStack[stackSize++] = v;
+        while (stackSize > 0) {
+            v = workStack[--stackSize];
+            b = workStack[--stackSize];
+            // Bubble up from v to an immediate child of b
+            int t = v;
+            while (blossomParent[t] != b) {
+                t = blossomParent[t];
+            }
+            if (t >= n) {
+                workStack[stackSize++] = t;
+                workStack[stackSize++] = v;
+            }
+
+            int first = firstChild[b];
+            boolean forward = (position(b, t) & 1) != 0;
+            int child = t;
+            while (child != first) {
+                child = step(child, forward);
+                int p = directedEndpoint(child, forward);
+                if (child >= n) {
+                    workStack[stackSize++] = child;
+                    workStack[stackSize++] = endpoint[p];
+                }
+                child = step(child, forward);
+                if (child >= n) {
+                    workStack[stackSize++] = child;
+                    workStack[stackSize++] = endpoint[p ^ 1];
+                }
+                // Match the edge connecting those children
+                mate[endpoint[p]] = p ^ 1;
+                mate[endpoint[p ^ 1]] = p;
+            }
+            // Rotate the ring to put the new base first, v becomes the base of t as well
+            firstChild[b] = t;
+            blossomBase[b] = v;
+        }
+    }
+
+    /**
+     * Augments the matching along the path through the edge k, which connects two different trees
+     * (or a tree and a free vertex of zero variable).
+     */
+    private void augmentMatching(int k) {
+        augmentToRoot(endpoint[2 * k], 2 * k + 1);
+        augmentToRoot(endpoint[2 * k + 1], 2 * k);
+    }
+
+    /**
+     * Swaps matched and unmatched edges on the path from the S_TYPE vertex s to its root
+     * and matches s by the endpoint p, or leaves it free if p is -1.
+     */
+    private void augmentToRoot(int s, int p) {
+        while (true) {
+            int bs = inBlossom[s];
+            if (bs >= n)
+                augmentBlossom(bs, s);
+            mate[s] = p;
+            // Reached the root, or the free vertex at the end of the path
+            if (labelEnd[bs] == -1 || label[bs] == USED)
+                break;
+            int t = endpoint[labelEnd[bs]];
+            int bt = inBlossom[t];
+            s = endpoint[labelEnd[bt]];
+            int j = endpoint[labelEnd[bt] ^ 1];
+            if (bt >= n)
+                augmentBlossom(bt, j);
+            mate[j] = labelEnd[bt];
+            p = labelEnd[bt] ^ 1;
+        }
+    }
+
+    /**
+     * @return the number of steps from the base child to the given child of b
+     */
+    private int position(int b, int child) {
+        int result = 0;
+        for (int current = firstChild[b]; current != child; current = ringNext[current]) {
+            result++;
+        }
+        return result;
+    }
+
+    private int step(int child, boolean forward) {
+        return forward ? ringNext[child] : ringPrevious[child];
+    }
+
+    /**
+     * @return the endpoint of the child on the edge to its neighbour in the given direction
+     */
+    private int directedEndpoint(int child, boolean forward) {
+        return forward ? ringEndpoint[child] : ringEndpoint[ringPrevious[child]] ^ 1;
+    }
+
+    /**
+     * Writes all vertices of the blossom b into the buffer, without recursion.
+     *
+     * @return the new size of the buffer
+     */
+    private int collectLeaves(int b, int[] buffer, int size) {
+        if (b < n) {
+            buffer[size++] = b;
+            return size;
+        }
+        int current = firstChild[b];
+        while (true) {
+            // Descend to the first vertex
+            while (current >= n) {
+                current = firstChild[current];
+            }
+            buffer[size++] = current;
+            // Go to the next sibling, or up if the ring is done
+            while (true) {
+                int parent = blossomParent[current];
+                int next = ringNext[current];
+                if (next != firstChild[parent]) {
+                    current = next;
+                    break;
+                }
+                if (parent == b)
+                    return size;
+                current = parent;
+            }
+        }
+    }
+
+    /**
+     * Makes the variables feasible for the real weights and computes the dual bound of them. Every end of an
+     * edge which is short of its weight goes up by half of the shortage, then every vertex goes down as far as
+     * its edges allow, which takes back the excess of the matched edges where it is free.
+     */
+    private void certify() {
+        feasible = new double[n];
+        for (int v = 0; v < n; v++) {
+            feasible[v] = Math.max(0, dual[v] / 2);
+        }
+        var shared = new double[m];
+        var raised = new double[n];
+        for (int k = 0; k < m; k++) {
+            int u = endpoint[2 * k];
+            int v = endpoint[2 * k + 1];
+            shared[k] = sharedVariables(u, v);
+            double shortage = weight[k] - feasible[u] - feasible[v] - shared[k];
+            if (shortage > 0) {
+                raised[u] = Math.max(raised[u], shortage / 2);
+                raised[v] = Math.max(raised[v], shortage / 2);
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            feasible[v] += raised[v];
+        }
+        for (int v = 0; v < n; v++) {
+            double room = feasible[v];
+            for (int i = neighbourStart[v]; i < neighbourStart[v + 1]; i++) {
+                int p = neighbourEnd[i];
+                room = Math.min(room, feasible[v] + feasible[endpoint[p]] + shared[p >> 1] - weight[p >> 1]);
+            }
+            feasible[v] -= Math.max(0, room);
+        }
+
+        bound = 0;
+        for (int v = 0; v < n; v++) {
+            bound += feasible[v];
+        }
+        for (int b = n; b < 2 * n; b++) {
+            if (blossomBase[b] >= 0)
+                bound += dual[b] * (blossomSize[b] / 2);
+        }
+    }
+
+    /**
+     * @return the sum of the variables of the blossoms which contain both u and v
+     */
+    private double sharedVariables(int u, int v) {
+        if (inBlossom[u] != inBlossom[v])
+            return 0;
+        int depthU = depth(u);
+        int depthV = depth(v);
+        for (; depthU > depthV; depthU--) {
+            u = blossomParent[u];
+        }
+        for (; depthV > depthU; depthV--) {
+            v = blossomParent[v];
+        }
+        while (u != v) {
+            u = blossomParent[u];
+            v = blossomParent[v];
+        }
+        double result = 0;
+        for (int b = u; b != -1; b = blossomParent[b]) {
+            if (b >= n)
+                result += dual[b];
+        }
+        return result;
+    }
+
+    private int depth(int v) {
+        int result = 0;
+        for (int b = blossomParent[v]; b != -1; b = blossomParent[b]) {
+            result++;
+        }
+        return result;
+    }
+
+    /**
+     * @return the weight of the current matching
+     */
+    public double getMatchingWeight() {
+        double result = 0;
+        for (int v = 0; v < n; v++) {
+            if (mate[v] != -1 && v < endpoint[mate[v]])
+                result += weight[mate[v] >> 1];
+        }
+        return result;
+    }
+
+    /**
+     * @return the dual objective of the variables made feasible for the real weights, which bounds the weight of
+     * every matching
+     */
+    public double getDualBound() {
+        if (feasible == null) {
+            throw new IllegalStateException("The matching must be solved first.");
+        }
+        return bound;
+    }
+
+    /**
+     * @return the vertex matched with v, or -1
+     */
+    public int getMate(int v) {
+        return mate[v] == -1 ? -1 : endpoint[mate[v]];
+    }
+
+    /**
+     * @return the edge matched at v, or -1
+     */
+    public int getMatchedEdge(int v) {
+        return mate[v] == -1 ? -1 : mate[v] >> 1;
+    }
+
+    /**
+     * @return the feasible variable of the vertex behind the dual bound
+     */
+    public double getVariable(int v) {
+        if (feasible == null) {
+            throw new IllegalStateException("The matching must be solved first.");
+        }
+        return feasible[v];
+    }
+
+    /**
+     * @return the number of scales run
+     */
+    public int getScales() {
+        return scales;
+    }
+
+    /**
+     * @return the number of steps of the variables over all scales
+     */
+    public int getSteps() {
+        return steps;
+    }
+
+    /**
+     * @return the number of searches over the eligible edges, each of them one pass at most
+     */
+    public int getSearches() {
+        return searches;
+    }
+
+    /**
+     * @return the number of edges examined from S_TYPE vertices
+     */
+    public long getScannedEdges() {
+        return scannedEdges;
+    }
+}
@@ -0,0 +1,324 @@
+package fr.ladybug;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Solves the components which are trees or have exactly one cycle without the blossom algorithm.
+ * <p>
+ * A tree is solved bottom-up with two values per rooted subtree: the best matching of the subtree when its root
+ * stays free for the parent ({@code free}) and the best matching of the subtree at all ({@code best}).
+ * The hanging trees of a unicyclic component are solved the same way towards the cycle, then the cycle is
+ * broken at one edge: either the edge is not used and the cycle is a path, or both of its ends are taken by it
+ * and the rest of the cycle is a path. A path is a simple linear dynamic program.
+ * <p>
+ * Only edges of positive weight between different vertices count, the others are never needed.
+ * The graph is modified in place: the other components stay in the graph for the blossom algorithm,
+ * {@link #restore()} brings the solved vertices back.
+ */
+public class ComponentSolver {
+    private final Graph graph;
+    private final List<RealVertex> originalVertices;
+    private final List<RealVertex> coreVertices = new ArrayList<>();
+    private final List<List<Edge>> coreEdges = new ArrayList<>();
+
+    private final int[] component;
+    private final int[] degree;
+    private final boolean[] peeled;
+    private final boolean[] solved;
+    private final double[] free;
+    private final double[] best;
+    private final double[] bestGain;
+    private final Edge[] bestChildEdge;
+    private final boolean[] matched;
+
+    private final Stats stats = new Stats();
+
+    private ComponentSolver(Graph graph) {
+        this.graph = graph;
+        this.originalVertices = graph.getVertices();
+
+        int n = 0;
+        for (var vertex : originalVertices) {
+            n = Math.max(n, vertex.index + 1);
+        }
+        component = new int[n];
+        degree = new int[n];
+        peeled = new boolean[n];
+        solved = new boolean[n];
+        free = new double[n];
+        best = new double[n];
+        bestGain = new double[n];
+        bestChildEdge = new Edge[n];
+        matched = new boolean[n];
+    }
+
+    /**
+     * Solves the tree and unicyclic components and leaves the others in the graph.
+     * Must be called before {@link Graph#initializeVertexVariables()}.
+     */
+    public static ComponentSolver split(Graph graph) {
+        var solver = new ComponentSolver(graph);
+        solver.run();
+        return solver;
+    }
+
+    private static boolean counts(Edge edge) {
+        return edge.from != edge.to && edge.weight > 0;
+    }
+
+    private void run() {
+        Arrays.fill(component, -1);
+        var members = new ArrayList<RealVertex>();
+        int components = 0;
+        for (var start : originalVertices) {
+            if (component[start.index] != -1)
+                continue;
+
+            // Collect the component, the list doubles as the queue of the search
+            members.clear();
+            members.add(start);
+            component[start.index] = components;
+            int endpoints = 0;
+            for (int head = 0; head < members.size(); head++) {
+                var vertex = members.get(head);
+                for (var edge : vertex.getEdges()) {
+                    if (!counts(edge))
+                        continue;
+                    endpoints++;
+                    degree[vertex.index]++;
+                    if (component[edge.to.index] == -1) {
+                        component[edge.to.index] = components;
+                        members.add(edge.to);
+                    }
+                }
+            }
+            components++;
+
+            int edges = endpoints / 2;
+            if (edges == members.size() - 1) {
+                stats.treeComponents++;
+                stats.solvedVertices += members.size();
+                solveComponent(members, false);
+            } else if (edges == members.size()) {
+                stats.cycleComponents++;
+                stats.solvedVertices += members.size();
+                solveComponent(members, true);
+            } else {
+                coreVertices.addAll(members);
+            }
+        }
+
+        // The core must not see its non-positive edges to the solved vertices
+        for (var vertex : coreVertices) {
+            var edges = vertex.getEdges();
+            coreEdges.add(edges);
+            var kept = new ArrayList<Edge>();
+            for (var edge : edges) {
+                if (!solved[edge.to.index])
+                    kept.add(edge);
+            }
+            vertex.setEdges(kept);
+        }
+        stats.coreVertices = coreVertices.size();
+        graph.setVertices(coreVertices);
+    }
+
+    private void solveComponent(List<RealVertex> members, boolean unicyclic) {
+        // Peel the leaves: every vertex is finished when its only unpeeled neighbour is its parent
+        var order = new ArrayList<RealVertex>();
+        int head = 0;
+        var queue = new ArrayList<RealVertex>();
+        for (var vertex : members) {
+            vertex.setPair(null);
+            solved[vertex.index] = true;
+            if (degree[vertex.index] <= 1)
+                queue.add(vertex);
+        }
+        while (head < queue.size()) {
+            var vertex = queue.get(head++);
+            int index = vertex.index;
+            peeled[index] = true;
+            best[index] = free[index] + Math.max(0, bestGain[index]);
+            Edge toParent = null;
+            for (var edge : vertex.getEdges()) {
+                if (counts(edge) && !peeled[edge.to.index]) {
+                    toParent = edge;
+                    break;
+                }
+            }
+            order.add(vertex);
+            // The last vertex of a tree is its root
+            if (toParent == null)
+                continue;
+
+            int parent = toParent.to.index;
+            free[parent] += best[index];
+            double gain = free[index] + toParent.weight - best[index];
+            if (bestChildEdge[parent] == null || gain > bestGain[parent]) {
+                bestGain[parent] = gain;
+                bestChildEdge[parent] = toParent.rev();
+            }
+            if (--degree[parent] == 1)
+                queue.add(toParent.to);
+        }
+
+        // Top-down: a vertex which is still free takes its best child if it gains anything
+        if (unicyclic) {
+            for (var cycleVertex : solveCycle(members)) {
+                takeBestChild(cycleVertex);
+            }
+        }
+        for (int i = order.size() - 1; i >= 0; i--) {
+            takeBestChild(order.get(i));
+        }
+    }
+
+    private void takeBestChild(RealVertex vertex) {
+        int index = vertex.index;
+        if (matched[index] || bestChildEdge[index] == null || bestGain[index] <= 0)
+            return;
+        match(bestChildEdge[index]);
+    }
+
+    /**
+     * Matches the edges of the cycle which is left after peeling.
+     *
+     * @return the vertices of the cycle
+     */
+    private List<RealVertex> solveCycle(List<RealVertex> members) {
+        // The cycle is what is left after peeling, walk around it
+        RealVertex start = null;
+        for (var vertex : members) {
+            if (!peeled[vertex.index]) {
+                start = vertex;
+                break;
+            }
+        }
+        var cycle = new ArrayList<RealVertex>();
+        var cycleEdges = new ArrayList<Edge>();
+        Edge cameBy = null;
+        var vertex = start;
+        do {
+            Edge next = null;
+            for (var edge : vertex.getEdges()) {
+                if (counts(edge) && !peeled[edge.to.index] && (cameBy == null || edge != cameBy.rev())) {
+                    next = edge;
+                    break;
+                }
+            }
+            cycle.add(vertex);
+            cycleEdges.add(next);
+            cameBy = next;
+            vertex = next.to;
+        } while (vertex != start);
+
+        int k = cycle.size();
+        var freeValue = new double[k];
+        var bestValue = new double[k];
+        for (int i = 0; i < k; i++) {
+            int index = cycle.get(i).index;
+            freeValue[i] = free[index];
+            bestValue[i] = free[index] + Math.max(0, bestGain[index]);
+        }
+
+        // Either the closing edge is unused, or it takes both of its ends
+        var withoutClosing = new boolean[k];
+        double without = path(freeValue, bestValue, cycleEdges, 0, k - 1, withoutClosing);
+        // Parallel edges make the shortest cycle, so there are always two vertices
+        var withClosing = new boolean[k];
+        double with = freeValue[0] + freeValue[k - 1] + cycleEdges.get(k - 1).weight +
+                path(freeValue, bestValue, cycleEdges, 1, k - 2, withClosing);
+
+        var matchedWithNext = with > without ? withClosing : withoutClosing;
+        if (with > without) {
+            matchedWithNext[k - 1] = true;
+        }
+        for (int i = 0; i < k; i++) {
+            if (matchedWithNext[i])
+                match(cycleEdges.get(i));
+        }
+        return cycle;
+    }
+
+    /**
+     * Solves the path of cycle vertices from..to, where a vertex is either matched along the path
+     * (and contributes its free value) or not (and contributes its best value).
+     *
+     * @return the weight of the best matching, the chosen path edges are marked in matchedWithNext
+     */
+    private static double path(double[] freeValue, double[] bestValue, List<Edge> edges, int from, int to,
+                               boolean[] matchedWithNext) {
+        if (from > to)
+            return 0;
+        int length = to - from + 1;
+        // value[i] is the best for the first i vertices of the path
+        var value = new double[length + 1];
+        var takesEdge = new boolean[length + 1];
+        value[1] = bestValue[from];
+        for (int i = 2; i <= length; i++) {
+            int vertex = from + i - 1;
+            double alone = value[i - 1] + bestValue[vertex];
+            double paired = value[i - 2] + freeValue[vertex - 1] + freeValue[vertex] + edges.get(vertex - 1).weight;
+            takesEdge[i] = paired > alone;
+            value[i] = Math.max(alone, paired);
+        }
+        for (int i = length; i >= 1; ) {
+            if (i >= 2 && takesEdge[i]) {
+                matchedWithNext[from + i - 2] = true;
+                i -= 2;
+            } else {
+                i--;
+            }
+        }
+        return value[length];
+    }
+
+    private void match(Edge edge) {
+        edge.from.setPair(edge.to);
+        edge.to.setPair(edge.from);
+        matched[edge.from.index] = true;
+        matched[edge.to.index] = true;
+    }
+
+    /**
+     * Brings the solved components back into the graph, their matching stays.
+     */
+    public void restore() {
+        for (int i = 0; i < coreVertices.size(); i++) {
+            coreVertices.get(i).setEdges(coreEdges.get(i));
+        }
+        graph.setVertices(originalVertices);
+    }
+
+    public Stats getStats() {
+        return stats;
+    }
+
+    public static class Stats {
+        private int treeComponents, cycleComponents, solvedVertices, coreVertices;
+
+        public int getTreeComponents() {
+            return treeComponents;
+        }
+
+        public int getCycleComponents() {
+            return cycleComponents;
+        }
+
+        public int getSolvedVertices() {
+            return solvedVertices;
+        }
+
+        public int getCoreVertices() {
+            return coreVertices;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Components: %d trees and %d unicyclic solved directly (%d vertices), " +
+                    "%d vertices left", treeComponents, cycleComponents, solvedVertices, coreVertices);
+        }
+    }
+}
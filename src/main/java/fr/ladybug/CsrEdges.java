@@ -0,0 +1,178 @@
+package fr.ladybug;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Edge list grouped by the source vertex: the edges of vertex v are {@code offsets[v]..offsets[v + 1] - 1},
+ * in the order of the input. Every edge is kept once, with the source as it was given.
+ * <p>
+ * The binary file, big-endian: the 8 bytes {@code GRPHCSR1}, n and m as int32, the n + 1 offsets as int32,
+ * the m targets as int32 and the m weights as float64.
+ */
+public class CsrEdges {
+    private static final byte[] MAGIC = {'G', 'R', 'P', 'H', 'C', 'S', 'R', '1'};
+    private static final int BUFFER_SIZE = 1 << 20;
+    private final int n;
+    private final int[] offsets;
+    private final int[] targets;
+    private final double[] weights;
+    private final GraphHash hash;
+
+    CsrEdges(int n, int[] offsets, int[] targets, double[] weights, GraphHash hash) {
+        this.n = n;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.hash = hash;
+    }
+
+    public int getVertexCount() {
+        return n;
+    }
+
+    public int getEdgeCount() {
+        return targets.length;
+    }
+
+    public int[] getOffsets() {
+        return offsets;
+    }
+
+    public int[] getTargets() {
+        return targets;
+    }
+
+    public double[] getWeights() {
+        return weights;
+    }
+
+    /**
+     * @return the sources of the edges, i.e. the source of every position of the targets
+     */
+    public int[] getSources() {
+        var sources = new int[targets.length];
+        for (int v = 0; v < n; v++) {
+            for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                sources[i] = v;
+            }
+        }
+        return sources;
+    }
+
+    public GraphHash getHash() {
+        return hash;
+    }
+
+    /**
+     * @return whether the stream starts with the magic bytes of the binary file, the stream must support marks
+     */
+    public static boolean isCsr(InputStream stream) throws IOException {
+        stream.mark(MAGIC.length);
+        var start = stream.readNBytes(MAGIC.length);
+        stream.reset();
+        return Arrays.equals(start, MAGIC);
+    }
+
+    /**
+     * Writes the binary file, the stream is not closed.
+     */
+    public void write(OutputStream out) throws IOException {
+        var buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        buffer.put(MAGIC).putInt(n).putInt(targets.length);
+        for (var offset : offsets) {
+            if (buffer.remaining() < Integer.BYTES)
+                flush(buffer, out);
+            buffer.putInt(offset);
+        }
+        for (var target : targets) {
+            if (buffer.remaining() < Integer.BYTES)
+                flush(buffer, out);
+            buffer.putInt(target);
+        }
+        for (var weight : weights) {
+            if (buffer.remaining() < Double.BYTES)
+                flush(buffer, out);
+            buffer.putDouble(weight);
+        }
+        flush(buffer, out);
+        out.flush();
+    }
+
+    private static void flush(ByteBuffer buffer, OutputStream out) throws IOException {
+        out.write(buffer.array(), 0, buffer.position());
+        buffer.clear();
+    }
+
+    /**
+     * Reads the binary file written by {@link #write(OutputStream)}.
+     *
+     * @throws IllegalArgumentException if the file is not a valid one
+     */
+    public static CsrEdges read(InputStream in) throws IOException {
+        var buffer = ByteBuffer.allocate(BUFFER_SIZE).limit(0);
+        fill(buffer, in, MAGIC.length + 2 * Integer.BYTES);
+        var magic = new byte[MAGIC.length];
+        buffer.get(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IllegalArgumentException("The file is not a CSR graph.");
+        }
+        int n = buffer.getInt();
+        int m = buffer.getInt();
+        if (n < 0 || m < 0) {
+            throw new IllegalArgumentException("The numbers of vertices and edges must not be negative.");
+        }
+        var offsets = new int[n + 1];
+        for (int v = 0; v <= n; v++) {
+            fill(buffer, in, Integer.BYTES);
+            offsets[v] = buffer.getInt();
+            if (v > 0 ? offsets[v] < offsets[v - 1] : offsets[v] != 0) {
+                throw new IllegalArgumentException("The offsets of the CSR graph are not increasing from 0.");
+            }
+        }
+        if (offsets[n] != m) {
+            throw new IllegalArgumentException("The offsets of the CSR graph end at " + offsets[n] +
+                    " instead of " + m + ".");
+        }
+        var targets = new int[m];
+        for (int i = 0; i < m; i++) {
+            fill(buffer, in, Integer.BYTES);
+            targets[i] = buffer.getInt();
+            if (targets[i] < 0 || targets[i] >= n) {
+                throw new IllegalArgumentException("The edge target " + targets[i] + " is out of range.");
+            }
+        }
+        var weights = new double[m];
+        var hash = new GraphHash(n);
+        int source = 0;
+        for (int i = 0; i < m; i++) {
+            fill(buffer, in, Double.BYTES);
+            weights[i] = buffer.getDouble();
+            while (offsets[source + 1] <= i) {
+                source++;
+            }
+            hash.add(source, targets[i], weights[i]);
+        }
+        return new CsrEdges(n, offsets, targets, weights, hash);
+    }
+
+    /**
+     * Makes at least the given number of bytes available in the buffer.
+     */
+    private static void fill(ByteBuffer buffer, InputStream in, int bytes) throws IOException {
+        if (buffer.remaining() >= bytes)
+            return;
+        buffer.compact();
+        while (buffer.position() < bytes) {
+            int read = in.read(buffer.array(), buffer.position(), buffer.remaining());
+            if (read < 0)
+                throw new EOFException("The CSR graph ends too early.");
+            buffer.position(buffer.position() + read);
+        }
+        buffer.flip();
+    }
+}
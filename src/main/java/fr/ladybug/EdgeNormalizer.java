@@ -0,0 +1,124 @@
+package fr.ladybug;
+
+import java.util.Arrays;
+
+/**
+ * Drops the loops of an edge list and collapses its parallel edges into the heaviest one, in place.
+ * The edges are grouped by their lesser end with a counting sort, and in every group an array over the greater
+ * ends finds the repeated pairs, so no object is made per edge and no table has to be sized for them. The kept
+ * edges stay in the order of their first occurrence.
+ */
+public class EdgeNormalizer {
+    private int[] from;
+    private int[] to;
+    private double[] weight;
+    private int loops = 0;
+    private int parallelEdges = 0;
+
+    private EdgeNormalizer() {
+    }
+
+    /**
+     * The arrays are reused, the result arrays are copies only if some edge is dropped.
+     *
+     * @throws IllegalArgumentException if an end is negative or is the largest int, which leaves no room for the
+     * number of vertices
+     */
+    public static EdgeNormalizer normalize(int[] from, int[] to, double[] weight) {
+        var result = new EdgeNormalizer();
+        int m = from.length;
+        long vertexCount = 0;
+        for (int i = 0; i < m; i++) {
+            if (from[i] < 0 || to[i] < 0) {
+                throw new IllegalArgumentException("The edge " + from[i] + " " + to[i] + " has a negative end.");
+            }
+            vertexCount = Math.max(vertexCount, Math.max(from[i], to[i]) + 1L);
+        }
+        if (vertexCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The vertex " + Integer.MAX_VALUE + " is out of range.");
+        }
+        int n = (int) vertexCount;
+
+        // The edges by their lesser end, stably; groupEnd[u] is the end of the group of u
+        var groupEnd = new int[n + 1];
+        for (int i = 0; i < m; i++) {
+            if (from[i] == to[i])
+                result.loops++;
+            else
+                groupEnd[Math.min(from[i], to[i]) + 1]++;
+        }
+        for (int u = 0; u < n; u++) {
+            groupEnd[u + 1] += groupEnd[u];
+        }
+        var sorted = new int[m - result.loops];
+        for (int i = 0; i < m; i++) {
+            if (from[i] != to[i])
+                sorted[groupEnd[Math.min(from[i], to[i])]++] = i;
+        }
+
+        // The position of the first edge to every greater end, it belongs to the group if it is past its start
+        var first = new int[n];
+        Arrays.fill(first, -1);
+        var dropped = new boolean[m];
+        int start = 0;
+        for (int u = 0; u < n; u++) {
+            for (int position = start; position < groupEnd[u]; position++) {
+                int i = sorted[position];
+                int v = Math.max(from[i], to[i]);
+                if (first[v] < start) {
+                    first[v] = position;
+                    continue;
+                }
+                int kept = sorted[first[v]];
+                weight[kept] = Math.max(weight[kept], weight[i]);
+                dropped[i] = true;
+                result.parallelEdges++;
+            }
+            start = groupEnd[u];
+        }
+
+        int kept = 0;
+        for (int i = 0; i < m; i++) {
+            if (from[i] == to[i] || dropped[i])
+                continue;
+            from[kept] = from[i];
+            to[kept] = to[i];
+            weight[kept] = weight[i];
+            kept++;
+        }
+
+        result.from = kept == m ? from : Arrays.copyOf(from, kept);
+        result.to = kept == m ? to : Arrays.copyOf(to, kept);
+        result.weight = kept == m && weight.length == m ? weight : Arrays.copyOf(weight, kept);
+        return result;
+    }
+
+    public int[] getFrom() {
+        return from;
+    }
+
+    public int[] getTo() {
+        return to;
+    }
+
+    public double[] getWeights() {
+        return weight;
+    }
+
+    public int getLoops() {
+        return loops;
+    }
+
+    public int getParallelEdges() {
+        return parallelEdges;
+    }
+
+    public int getDroppedEdges() {
+        return loops + parallelEdges;
+    }
+
+    public String getStats() {
+        return String.format("Normalization: %d edges kept, %d loops and %d parallel edges dropped",
+                from.length, loops, parallelEdges);
+    }
+}
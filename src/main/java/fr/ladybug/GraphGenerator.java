@@ -0,0 +1,612 @@
+package fr.ladybug;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Generates large graphs for the benchmarks, in the text format or as a binary {@link CsrEdges} file.
+ * <p>
+ * The work is split into chunks of a fixed number of edges or vertices, and every chunk draws from its own
+ * {@link SplittableRandom}, split from the seed in the order of the chunks. The threads only decide which chunk
+ * is done when, so the output is the same bit for bit for any number of threads. The weights are integers and
+ * {@link StrictMath} is used, so it is the same on any machine too.
+ */
+public class GraphGenerator {
+    private static final int CHUNK = 1 << 16;
+    // Three numbers of ten digits, two spaces and a line feed
+    private static final int EDGE_BYTES = 3 * 10 + 3;
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final int MAX_CYCLE = 9;
+    // The quadrants of R-MAT, as in Graph500; the fourth one takes the rest
+    private static final double RMAT_A = 0.57;
+    private static final double RMAT_B = 0.19;
+    private static final double RMAT_C = 0.19;
+
+    public enum Family {
+        // M distinct pairs of distinct vertices
+        GNM,
+        // Recursive matrix: every edge picks a quadrant of the adjacency matrix bit by bit, the degrees are skewed;
+        // parallel edges are possible, as in Graph500
+        RMAT,
+        // Points in the unit torus, joined when closer than the radius at which M edges are expected
+        GEOMETRIC,
+        // M distinct pairs across the sides of n / 2 and n - n / 2 vertices
+        BIPARTITE,
+        // Disjoint odd cycles of 3 to 9 vertices, heavier than all other edges, and uniform pairs up to M edges:
+        // every cycle becomes a blossom and the pairs nest them; parallel edges are possible
+        BLOSSOM
+    }
+
+    public enum Weights {
+        // 1 to W
+        UNIFORM,
+        // All ones
+        UNIT,
+        // 1 to W, uniform in the logarithm, so the small weights are common
+        LOG_UNIFORM
+    }
+
+    private final int n;
+    private final Part[] parts;
+    private final int edgeCount;
+
+    private GraphGenerator(int n, Part[] parts) {
+        this.n = n;
+        this.parts = parts;
+        long total = 0;
+        for (var part : parts) {
+            total += part.size;
+        }
+        if (total > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The graph has more than " + Integer.MAX_VALUE + " edges.");
+        }
+        edgeCount = (int)total;
+    }
+
+    public static void main(String[] args) throws IOException {
+        var family = Family.GNM;
+        var weights = Weights.UNIFORM;
+        int n = 1000;
+        long m = 3000;
+        int maxWeight = 1_000_000;
+        long seed = 0;
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean csr = false;
+        Path output = null;
+        for (var arg : args) {
+            if (arg.startsWith("--family=")) {
+                family = parse(Family.class, arg.substring("--family=".length()));
+            } else if (arg.startsWith("--weights=")) {
+                weights = parse(Weights.class, arg.substring("--weights=".length()));
+            } else if (arg.startsWith("--vertices=")) {
+                n = Integer.parseInt(arg.substring("--vertices=".length()));
+            } else if (arg.startsWith("--edges=")) {
+                m = Long.parseLong(arg.substring("--edges=".length()));
+            } else if (arg.startsWith("--max-weight=")) {
+                maxWeight = Integer.parseInt(arg.substring("--max-weight=".length()));
+            } else if (arg.startsWith("--seed=")) {
+                seed = Long.parseLong(arg.substring("--seed=".length()));
+            } else if (arg.startsWith("--threads=")) {
+                threads = Integer.parseInt(arg.substring("--threads=".length()));
+            } else if (arg.equals("--csr")) {
+                csr = true;
+            } else if (arg.startsWith("--output=")) {
+                output = Path.of(arg.substring("--output=".length()));
+            } else {
+                throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+
+        long start = System.nanoTime();
+        var graph = generate(family, weights, n, m, maxWeight, seed, threads);
+        try (var out = output == null ? System.out : new BufferedOutputStream(Files.newOutputStream(output))) {
+            if (csr) {
+                graph.toCsr().write(out);
+            } else {
+                graph.writeText(out, threads);
+            }
+        }
+        System.err.println(String.format("%s: %d vertices, %d edges in %.1f s", family, n, graph.getEdgeCount(),
+                (System.nanoTime() - start) / 1e9));
+    }
+
+    /**
+     * @return the constant of the name in lower case, with dashes for underscores
+     */
+    private static <T extends Enum<T>> T parse(Class<T> type, String name) {
+        try {
+            return Enum.valueOf(type, name.toUpperCase().replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown " + type.getSimpleName().toLowerCase() + ": " + name);
+        }
+    }
+
+    /**
+     * @param m the number of edges, expected rather than exact for {@link Family#GEOMETRIC}, and including the
+     *          cycles for {@link Family#BLOSSOM}
+     */
+    public static GraphGenerator generate(Family family, Weights weights, int n, long m, int maxWeight, long seed,
+                                          int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("At least one thread is required.");
+        }
+        if (n < 2 || m < 0 || m > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The graph needs two vertices and at most " + Integer.MAX_VALUE +
+                    " edges.");
+        }
+        // The cycles of a blossom-heavy graph weigh up to twice as much
+        if (maxWeight < 1 || maxWeight > Integer.MAX_VALUE / 2) {
+            throw new IllegalArgumentException("The maximum weight must be from 1 to " + Integer.MAX_VALUE / 2 + ".");
+        }
+        var root = new SplittableRandom(seed);
+        var pool = new ForkJoinPool(threads);
+        try {
+            switch (family) {
+                case GNM: {
+                    // Row u holds the pairs of u with the greater vertices, n - 1 - u of them
+                    long pairCount = (long)n * (n - 1) / 2;
+                    return new GraphGenerator(n, distinctPairs(pool, root, m, pairCount, (part, index, rnd) -> {
+                        int u = triangularRow(n, index);
+                        int v = (int)(u + 1 + index - triangularRowStart(n, u));
+                        part.add(u, v, weight(weights, maxWeight, rnd));
+                    }));
+                }
+                case RMAT:
+                    return new GraphGenerator(n, pairs(pool, root, m, (part, rnd) -> rmat(part, n, rnd,
+                            weights, maxWeight)));
+                case BIPARTITE: {
+                    int left = n / 2;
+                    long pairCount = (long)left * (n - left);
+                    return new GraphGenerator(n, distinctPairs(pool, root, m, pairCount, (part, index, rnd) -> {
+                        part.add((int)(index / (n - left)), left + (int)(index % (n - left)),
+                                weight(weights, maxWeight, rnd));
+                    }));
+                }
+                case GEOMETRIC:
+                    return new GraphGenerator(n, geometric(pool, root, n, m, weights, maxWeight));
+                case BLOSSOM:
+                    return new GraphGenerator(n, blossoms(pool, root, n, m, weights, maxWeight));
+                default:
+                    throw new IllegalArgumentException("Unknown family: " + family);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private interface PairSampler {
+        void sample(Part part, SplittableRandom rnd);
+    }
+
+    private interface IndexedPairSampler {
+        void sample(Part part, long index, SplittableRandom rnd);
+    }
+
+    /**
+     * M distinct pairs out of the pairs numbered 0..pairCount-1. The numbers are split into as many ranges as there
+     * are chunks, and every range gets its share of the edges, rounded so that they add up to M; so a pair can only
+     * be drawn by the chunk of its range. A chunk draws its numbers by Floyd's algorithm, a uniform sample without
+     * repetition in as many steps as there are edges, and the sampler turns every number into its pair.
+     */
+    private static Part[] distinctPairs(ForkJoinPool pool, SplittableRandom root, long m, long pairCount,
+                                        IndexedPairSampler sampler) {
+        if (m > pairCount) {
+            throw new IllegalArgumentException("The graph has only " + pairCount + " pairs of vertices for " + m +
+                    " edges.");
+        }
+        int chunks = (int)((m + CHUNK - 1) / CHUNK);
+        var rangeStart = new long[chunks + 1];
+        var edgeStart = new long[chunks + 1];
+        for (int c = 0; c <= chunks; c++) {
+            rangeStart[c] = multiplyDivide(pairCount, c, chunks);
+            edgeStart[c] = multiplyDivide(m, rangeStart[c], pairCount);
+        }
+        var streams = split(root, chunks);
+        var parts = new Part[chunks];
+        ParallelLoops.forEach(pool, chunks, c -> {
+            var rnd = streams[c];
+            long range = rangeStart[c + 1] - rangeStart[c];
+            int size = (int)(edgeStart[c + 1] - edgeStart[c]);
+            var part = new Part(size);
+            var drawn = new PairSet(size);
+            for (long j = range - size; j < range; j++) {
+                long index = rnd.nextLong(j + 1);
+                if (!drawn.add(index)) {
+                    index = j;
+                    drawn.add(index);
+                }
+                sampler.sample(part, rangeStart[c] + index, rnd);
+            }
+            parts[c] = part;
+        });
+        return parts;
+    }
+
+    /**
+     * @return floor(a b / c), exactly
+     */
+    private static long multiplyDivide(long a, long b, long c) {
+        return c == 0 ? 0 : BigInteger.valueOf(a).multiply(BigInteger.valueOf(b))
+                .divide(BigInteger.valueOf(c)).longValueExact();
+    }
+
+    /**
+     * @return the number of the pairs before the row of u, where the row of u holds the pairs of u with the
+     * greater vertices
+     */
+    private static long triangularRowStart(int n, int u) {
+        return (long)u * (2L * n - u - 1) / 2;
+    }
+
+    /**
+     * @return the row of the pair of the given number
+     */
+    private static int triangularRow(int n, long index) {
+        // The root of the quadratic, then exact steps for the rounding
+        double b = 2. * n - 1;
+        int u = (int)Math.max(0, Math.min(n - 2, (b - Math.sqrt(b * b - 8. * index)) / 2));
+        while (u > 0 && triangularRowStart(n, u) > index) {
+            u--;
+        }
+        while (u < n - 2 && triangularRowStart(n, u + 1) <= index) {
+            u++;
+        }
+        return u;
+    }
+
+    /**
+     * Independent edges, {@link #CHUNK} of them per chunk.
+     */
+    private static Part[] pairs(ForkJoinPool pool, SplittableRandom root, long m, PairSampler sampler) {
+        int chunks = (int)((m + CHUNK - 1) / CHUNK);
+        var streams = split(root, chunks);
+        var parts = new Part[chunks];
+        ParallelLoops.forEach(pool, chunks, c -> {
+            int size = (int)Math.min(CHUNK, m - (long)c * CHUNK);
+            var part = new Part(size);
+            while (part.size < size) {
+                sampler.sample(part, streams[c]);
+            }
+            parts[c] = part;
+        });
+        return parts;
+    }
+
+    /**
+     * Draws an edge of R-MAT on the least power of two of at least n vertices, an edge out of range or a loop is
+     * drawn again. The heavy vertices have the least ids.
+     */
+    private static void rmat(Part part, int n, SplittableRandom rnd, Weights weights, int maxWeight) {
+        int bits = 32 - Integer.numberOfLeadingZeros(n - 1);
+        int u;
+        int v;
+        do {
+            u = 0;
+            v = 0;
+            for (int bit = 0; bit < bits; bit++) {
+                double r = rnd.nextDouble();
+                if (r >= RMAT_A + RMAT_B + RMAT_C) {
+                    u |= 1 << bit;
+                    v |= 1 << bit;
+                } else if (r >= RMAT_A + RMAT_B) {
+                    u |= 1 << bit;
+                } else if (r >= RMAT_A) {
+                    v |= 1 << bit;
+                }
+            }
+        } while (u >= n || v >= n || u == v);
+        part.add(u, v, weight(weights, maxWeight, rnd));
+    }
+
+    /**
+     * The points are bucketed into square cells of at least the radius, every vertex looks for greater neighbours
+     * in the 3 x 3 cells around its own. The edges come out by the lesser end.
+     */
+    private static Part[] geometric(ForkJoinPool pool, SplittableRandom root, int n, long m, Weights weights,
+                                    int maxWeight) {
+        // n (n - 1) / 2 pairs, each one closer than r with the probability pi r^2
+        double squaredRadius = Math.min(0.25, m / (Math.PI * n * (n - 1.) / 2));
+        int cells = (int)Math.max(1, Math.min(Math.sqrt(n), 1 / Math.sqrt(squaredRadius)));
+
+        int chunks = (n + CHUNK - 1) / CHUNK;
+        var pointStreams = split(root, chunks);
+        var edgeStreams = split(root, chunks);
+        var x = new double[n];
+        var y = new double[n];
+        ParallelLoops.forEach(pool, chunks, c -> {
+            for (int v = c * CHUNK; v < Math.min(n, (c + 1) * CHUNK); v++) {
+                x[v] = pointStreams[c].nextDouble();
+                y[v] = pointStreams[c].nextDouble();
+            }
+        });
+
+        // The vertices of every cell, by id
+        var cellStart = new int[cells * cells + 1];
+        var cell = new int[n];
+        for (int v = 0; v < n; v++) {
+            // The product may round up to the number of cells
+            cell[v] = Math.min(cells - 1, (int)(y[v] * cells)) * cells + Math.min(cells - 1, (int)(x[v] * cells));
+            cellStart[cell[v] + 1]++;
+        }
+        for (int i = 0; i < cells * cells; i++) {
+            cellStart[i + 1] += cellStart[i];
+        }
+        var fill = Arrays.copyOf(cellStart, cells * cells);
+        var byCell = new int[n];
+        for (int v = 0; v < n; v++) {
+            byCell[fill[cell[v]]++] = v;
+        }
+
+        var parts = new Part[chunks];
+        int span = Math.min(3, cells);
+        ParallelLoops.forEach(pool, chunks, c -> {
+            var part = new Part(CHUNK);
+            for (int u = c * CHUNK; u < Math.min(n, (c + 1) * CHUNK); u++) {
+                int cellX = cell[u] % cells;
+                int cellY = cell[u] / cells;
+                for (int i = 0; i < span; i++) {
+                    int nearY = cells < 3 ? i : (cellY + i - 1 + cells) % cells;
+                    for (int j = 0; j < span; j++) {
+                        int nearX = cells < 3 ? j : (cellX + j - 1 + cells) % cells;
+                        int near = nearY * cells + nearX;
+                        for (int k = cellStart[near]; k < cellStart[near + 1]; k++) {
+                            int v = byCell[k];
+                            if (v <= u)
+                                continue;
+                            double dx = Math.abs(x[u] - x[v]);
+                            double dy = Math.abs(y[u] - y[v]);
+                            dx = Math.min(dx, 1 - dx);
+                            dy = Math.min(dy, 1 - dy);
+                            if (dx * dx + dy * dy < squaredRadius)
+                                part.add(u, v, weight(weights, maxWeight, edgeStreams[c]));
+                        }
+                    }
+                }
+            }
+            parts[c] = part;
+        });
+        return parts;
+    }
+
+    /**
+     * Odd cycles within every chunk of vertices, a vertex left over hangs on the previous one, then uniform pairs.
+     */
+    private static Part[] blossoms(ForkJoinPool pool, SplittableRandom root, int n, long m, Weights weights,
+                                   int maxWeight) {
+        int chunks = (n + CHUNK - 1) / CHUNK;
+        var streams = split(root, chunks);
+        var cycles = new Part[chunks];
+        ParallelLoops.forEach(pool, chunks, c -> {
+            var rnd = streams[c];
+            var part = new Part(CHUNK + 1);
+            int first = c * CHUNK;
+            int last = Math.min(n, (c + 1) * CHUNK);
+            for (int v = first; v < last; ) {
+                int rest = last - v;
+                int length = 3 + 2 * rnd.nextInt((MAX_CYCLE - 1) / 2);
+                if (length > rest)
+                    length = rest % 2 == 1 ? rest : rest - 1;
+                if (length >= 3) {
+                    for (int i = 0; i < length; i++) {
+                        part.add(v + i, v + (i + 1) % length, maxWeight + weight(weights, maxWeight, rnd));
+                    }
+                } else if (v > first) {
+                    part.add(v - 1, v, maxWeight + weight(weights, maxWeight, rnd));
+                }
+                v += length;
+            }
+            cycles[c] = part;
+        });
+        long cycleEdges = 0;
+        for (var part : cycles) {
+            cycleEdges += part.size;
+        }
+        var pairs = pairs(pool, root, Math.max(0, m - cycleEdges), (part, rnd) -> {
+            int u = rnd.nextInt(n);
+            int v = rnd.nextInt(n - 1);
+            part.add(u, v < u ? v : v + 1, weight(weights, maxWeight, rnd));
+        });
+        var parts = Arrays.copyOf(cycles, chunks + pairs.length);
+        System.arraycopy(pairs, 0, parts, chunks, pairs.length);
+        return parts;
+    }
+
+    private static int weight(Weights weights, int maxWeight, SplittableRandom rnd) {
+        switch (weights) {
+            case UNIFORM:
+                return 1 + rnd.nextInt(maxWeight);
+            case UNIT:
+                return 1;
+            case LOG_UNIFORM:
+                return (int)Math.min(maxWeight, StrictMath.exp(rnd.nextDouble() * StrictMath.log(maxWeight + 1.)));
+            default:
+                throw new IllegalArgumentException("Unknown weights: " + weights);
+        }
+    }
+
+    /**
+     * @return the streams of the chunks, split one after another
+     */
+    private static SplittableRandom[] split(SplittableRandom root, int count) {
+        var streams = new SplittableRandom[count];
+        for (int i = 0; i < count; i++) {
+            streams[i] = root.split();
+        }
+        return streams;
+    }
+
+    public int getVertexCount() {
+        return n;
+    }
+
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Writes the text format, the edges in the order in which they were generated. The chunks are cut into slices
+     * of at most {@link #CHUNK} edges, so a slice always fits in its buffer; batches of slices are formatted on the
+     * threads and written in their order. The stream is not closed.
+     */
+    public void writeText(OutputStream out, int threads) throws IOException {
+        out.write((n + " " + edgeCount + "\n").getBytes(StandardCharsets.US_ASCII));
+        int sliceCount = 0;
+        for (var part : parts) {
+            sliceCount += (part.size + CHUNK - 1) / CHUNK;
+        }
+        var slicePart = new int[sliceCount];
+        var sliceStart = new int[sliceCount];
+        for (int p = 0, slice = 0; p < parts.length; p++) {
+            for (int start = 0; start < parts[p].size; start += CHUNK, slice++) {
+                slicePart[slice] = p;
+                sliceStart[slice] = start;
+            }
+        }
+        var pool = new ForkJoinPool(threads);
+        try {
+            int batch = threads * CHUNKS_PER_THREAD;
+            var text = new byte[batch][];
+            var sizes = new int[batch];
+            for (int first = 0; first < sliceCount; first += batch) {
+                int start = first;
+                int count = Math.min(batch, sliceCount - first);
+                ParallelLoops.forEach(pool, count, i -> {
+                    var part = parts[slicePart[start + i]];
+                    int from = sliceStart[start + i];
+                    if (text[i] == null)
+                        text[i] = new byte[CHUNK * EDGE_BYTES];
+                    sizes[i] = part.format(text[i], from, Math.min(part.size, from + CHUNK));
+                });
+                for (int i = 0; i < count; i++) {
+                    out.write(text[i], 0, sizes[i]);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+        out.flush();
+    }
+
+    /**
+     * @return the edges by their first end, in the order in which they were generated
+     */
+    public CsrEdges toCsr() {
+        var offsets = new int[n + 1];
+        for (var part : parts) {
+            for (int i = 0; i < part.size; i++) {
+                offsets[part.from[i] + 1]++;
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        var fill = Arrays.copyOf(offsets, n);
+        var targets = new int[edgeCount];
+        var weights = new double[edgeCount];
+        var hash = new GraphHash(n);
+        for (var part : parts) {
+            for (int i = 0; i < part.size; i++) {
+                int position = fill[part.from[i]]++;
+                targets[position] = part.to[i];
+                weights[position] = part.weight[i];
+                hash.add(part.from[i], part.to[i], part.weight[i]);
+            }
+        }
+        return new CsrEdges(n, offsets, targets, weights, hash);
+    }
+
+    /**
+     * The edges of one chunk, in the order of generation.
+     */
+    private static class Part {
+        private int size = 0;
+        private int[] from;
+        private int[] to;
+        private int[] weight;
+
+        Part(int capacity) {
+            from = new int[capacity];
+            to = new int[capacity];
+            weight = new int[capacity];
+        }
+
+        void add(int u, int v, int w) {
+            if (size == from.length) {
+                from = Arrays.copyOf(from, 2 * size);
+                to = Arrays.copyOf(to, 2 * size);
+                weight = Arrays.copyOf(weight, 2 * size);
+            }
+            from[size] = u;
+            to[size] = v;
+            weight[size] = w;
+            size++;
+        }
+
+        /**
+         * @return the number of bytes of the lines of the edges from..to-1
+         */
+        int format(byte[] text, int from, int to) {
+            int position = 0;
+            for (int i = from; i < to; i++) {
+                position = writeInt(text, position, this.from[i]);
+                text[position++] = ' ';
+                position = writeInt(text, position, this.to[i]);
+                text[position++] = ' ';
+                position = writeInt(text, position, weight[i]);
+                text[position++] = '\n';
+            }
+            return position;
+        }
+
+        private static int writeInt(byte[] text, int position, int value) {
+            int digits = 1;
+            for (int rest = value / 10; rest > 0; rest /= 10) {
+                digits++;
+            }
+            for (int i = position + digits - 1; i >= position; i--) {
+                text[i] = (byte)('0' + value % 10);
+                value /= 10;
+            }
+            return position + digits;
+        }
+    }
+
+    /**
+     * The numbers of the pairs drawn by a chunk, in an open-addressing table at most half full.
+     */
+    private static class PairSet {
+        private static final long EMPTY = -1;
+
+        private final long[] keys;
+        private final int mask;
+
+        PairSet(int size) {
+            keys = new long[Integer.highestOneBit(Math.max(1, size)) << 2];
+            Arrays.fill(keys, EMPTY);
+            mask = keys.length - 1;
+        }
+
+        /**
+         * @return whether the number was not in the set
+         */
+        boolean add(long key) {
+            long mixed = key * 0x9E3779B97F4A7C15L;
+            int slot = (int)(mixed ^ mixed >>> 32) & mask;
+            while (keys[slot] != EMPTY) {
+                if (keys[slot] == key)
+                    return false;
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            return true;
+        }
+    }
+}
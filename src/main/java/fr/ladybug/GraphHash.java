@@ -0,0 +1,76 @@
+package fr.ladybug;
+
+/**
+ * Canonical 128-bit hash of a graph: the number of vertices, the number of edges and the edges with their weights.
+ * The edges are hashed one by one and added up, so neither their order nor their direction matters, and the hash
+ * is computed while the edges are read. Must not be changed after it is used as a key.
+ */
+public class GraphHash {
+    private final int n;
+    private int edges = 0;
+    private long first = 0;
+    private long second = 0;
+
+    public GraphHash(int n) {
+        this.n = n;
+    }
+
+    public void add(int from, int to, double weight) {
+        long ends = (long)Math.min(from, to) << 32 | Math.max(from, to);
+        // Plus zero turns -0.0 into 0.0
+        long bits = Double.doubleToLongBits(weight + 0.0);
+        first += mix(ends ^ mix(bits));
+        second += mix(ends * 0xC2B2AE3D27D4EB4FL + mix(bits ^ 0x165667B19E3779F9L));
+        edges++;
+    }
+
+    /**
+     * Adds the edges of another part of the same graph, as if they were added here.
+     */
+    void addAll(GraphHash other) {
+        first += other.first;
+        second += other.second;
+        edges += other.edges;
+    }
+
+    /**
+     * The finalizer of SplitMix64.
+     */
+    private static long mix(long x) {
+        x += 0x9E3779B97F4A7C15L;
+        x = (x ^ (x >>> 30)) * 0xBF58476D1CE4E5B9L;
+        x = (x ^ (x >>> 27)) * 0x94D049BB133111EBL;
+        return x ^ (x >>> 31);
+    }
+
+    public int getVertexCount() {
+        return n;
+    }
+
+    public int getEdgeCount() {
+        return edges;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof GraphHash))
+            return false;
+        var other = (GraphHash)o;
+        return n == other.n && edges == other.edges && first == other.first && second == other.second;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int)(first ^ first >>> 32);
+    }
+
+    /**
+     * @return the hash as a file name
+     */
+    @Override
+    public String toString() {
+        return String.format("%x-%x-%016x%016x", n, edges, first, second);
+    }
+}
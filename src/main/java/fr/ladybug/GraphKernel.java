@@ -0,0 +1,291 @@
+package fr.ladybug;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reduces a graph to its core before the blossom algorithm runs.
+ * The rules are safe for maximum weight matching:
+ * <ul>
+ *     <li>an isolated vertex is dropped;</li>
+ *     <li>a pendant vertex whose only edge is at least as heavy as every other edge of its neighbour
+ *     is matched to the neighbour, and both are dropped;</li>
+ *     <li>a pendant vertex hanging on a degree-2 vertex is folded into it: the remaining edge of the
+ *     degree-2 vertex loses the weight of the pendant edge, so the chain gets shorter by one vertex.</li>
+ * </ul>
+ * Edges of non-positive weight never belong to a maximum matching and are dropped as well.
+ * The graph is modified in place, {@link #restore()} brings it back and completes the matching.
+ */
+public class GraphKernel {
+    private final Graph graph;
+    private final List<RealVertex> originalVertices;
+    private final RealVertex[] realVertices;
+    private final List<List<Edge>> adjacency = new ArrayList<>();
+    private final int[] degree;
+    private final boolean[] removed;
+
+    // Conservative (never lower than the truth) maximum of the live edges, computed once per vertex
+    private final double[] bestWeight;
+    private final double[] secondWeight;
+    private final Edge[] bestEdge;
+
+    private final ArrayDeque<RealVertex> worklist = new ArrayDeque<>();
+    private final List<Reduction> reductions = new ArrayList<>();
+    private final List<Edge> changedEdges = new ArrayList<>();
+    private final List<Double> changedWeights = new ArrayList<>();
+    private final Stats stats = new Stats();
+
+    private GraphKernel(Graph graph) {
+        this.graph = graph;
+        this.originalVertices = graph.getVertices();
+
+        int n = originalVertices.size();
+        realVertices = new RealVertex[n];
+        degree = new int[n];
+        removed = new boolean[n];
+        bestWeight = new double[n];
+        secondWeight = new double[n];
+        bestEdge = new Edge[n];
+
+        for (var vertex : originalVertices) {
+            realVertices[vertex.index] = vertex;
+            adjacency.add(null);
+        }
+        for (var vertex : realVertices) {
+            var edges = new ArrayList<>(vertex.getEdges());
+            adjacency.set(vertex.index, edges);
+            stats.originalEdges += edges.size();
+            for (var edge : edges) {
+                if (edge.weight <= 0)
+                    stats.droppedEdges++;
+                else
+                    degree[vertex.index]++;
+            }
+        }
+        stats.originalVertices = n;
+        stats.originalEdges /= 2;
+        stats.droppedEdges /= 2;
+        Arrays.fill(bestWeight, Double.NaN);
+    }
+
+    /**
+     * Reduces the graph in place. Must be called before {@link Graph#initializeVertexVariables()}.
+     */
+    public static GraphKernel reduce(Graph graph) {
+        var kernel = new GraphKernel(graph);
+        kernel.run();
+        return kernel;
+    }
+
+    private void run() {
+        for (var vertex : realVertices) {
+            worklist.add(vertex);
+        }
+        while (!worklist.isEmpty()) {
+            process(worklist.poll());
+        }
+
+        // Install the core into the graph, the original lists are kept in adjacency's place
+        var core = new ArrayList<RealVertex>();
+        for (var vertex : realVertices) {
+            var original = vertex.getEdges();
+            if (!removed[vertex.index]) {
+                var edges = compact(vertex);
+                core.add(vertex);
+                stats.coreEdges += edges.size();
+                vertex.setEdges(edges);
+            }
+            adjacency.set(vertex.index, original);
+        }
+        stats.coreVertices = core.size();
+        stats.coreEdges /= 2;
+        graph.setVertices(core);
+    }
+
+    private void process(RealVertex vertex) {
+        if (removed[vertex.index])
+            return;
+        var edges = compact(vertex);
+        if (edges.size() == 0) {
+            removed[vertex.index] = true;
+            stats.isolatedVertices++;
+        } else if (edges.size() == 1) {
+            reducePendant(vertex, edges.get(0));
+        } else if (edges.size() == 2) {
+            // A pendant neighbour could not be folded while we had a higher degree, retry it
+            for (var edge : edges) {
+                if (degree[edge.to.index] == 1)
+                    worklist.add(edge.to);
+            }
+        }
+    }
+
+    private void reducePendant(RealVertex pendant, Edge edge) {
+        var neighbour = edge.to;
+        if (edge.weight >= otherEdgesMaximum(neighbour, edge)) {
+            // Whatever the neighbour is matched with, the pendant edge is not worse
+            reductions.add(new Reduction(pendant, neighbour, true));
+            removeVertex(pendant);
+            removeVertex(neighbour);
+            stats.pendantVertices += 2;
+            return;
+        }
+        if (degree[neighbour.index] != 2)
+            return;
+
+        var neighbourEdges = compact(neighbour);
+        var other = neighbourEdges.get(0) == edge.rev() ? neighbourEdges.get(1) : neighbourEdges.get(0);
+        reductions.add(new Reduction(pendant, neighbour, false));
+        removed[pendant.index] = true;
+        degree[neighbour.index]--;
+        stats.foldedVertices++;
+
+        setWeight(other, other.weight - edge.weight);
+        if (other.weight <= 0) {
+            degree[neighbour.index]--;
+            degree[other.to.index]--;
+            stats.droppedEdges++;
+            worklist.add(other.to);
+        }
+        worklist.add(neighbour);
+    }
+
+    private double otherEdgesMaximum(RealVertex vertex, Edge edge) {
+        int index = vertex.index;
+        if (degree[index] <= 2 || Double.isNaN(bestWeight[index])) {
+            bestWeight[index] = Double.NEGATIVE_INFINITY;
+            secondWeight[index] = Double.NEGATIVE_INFINITY;
+            bestEdge[index] = null;
+            for (var current : compact(vertex)) {
+                if (current.weight > bestWeight[index]) {
+                    secondWeight[index] = bestWeight[index];
+                    bestWeight[index] = current.weight;
+                    bestEdge[index] = current;
+                } else if (current.weight > secondWeight[index]) {
+                    secondWeight[index] = current.weight;
+                }
+            }
+        }
+        // Weights only decrease and edges only disappear, so the cached values are upper bounds
+        return bestEdge[index] == edge.rev() ? secondWeight[index] : bestWeight[index];
+    }
+
+    private void removeVertex(RealVertex vertex) {
+        removed[vertex.index] = true;
+        for (var edge : adjacency.get(vertex.index)) {
+            if (!isLive(edge))
+                continue;
+            int index = edge.to.index;
+            degree[index]--;
+            if (degree[index] <= 2)
+                worklist.add(edge.to);
+        }
+    }
+
+    private boolean isLive(Edge edge) {
+        // The owner of the edge is always alive when we look at it
+        return !removed[edge.to.index] && edge.weight > 0;
+    }
+
+    private List<Edge> compact(RealVertex vertex) {
+        var edges = adjacency.get(vertex.index);
+        edges.removeIf(edge -> !isLive(edge));
+        degree[vertex.index] = edges.size();
+        return edges;
+    }
+
+    private void setWeight(Edge edge, double weight) {
+        changedEdges.add(edge);
+        changedWeights.add(edge.weight);
+        edge.weight = weight;
+        edge.rev().weight = weight;
+    }
+
+    /**
+     * Brings the original graph back and extends the matching found on the core to the whole graph.
+     */
+    public void restore() {
+        for (int i = reductions.size() - 1; i >= 0; i--) {
+            var reduction = reductions.get(i);
+            // A folded pendant takes its neighbour only if the neighbour was left alone
+            if (reduction.dominant || reduction.neighbour.getPairOrNull() == null) {
+                reduction.pendant.setPair(reduction.neighbour);
+                reduction.neighbour.setPair(reduction.pendant);
+            }
+        }
+        for (int i = changedEdges.size() - 1; i >= 0; i--) {
+            var edge = changedEdges.get(i);
+            edge.weight = changedWeights.get(i);
+            edge.rev().weight = edge.weight;
+        }
+        for (var vertex : realVertices) {
+            vertex.setEdges(adjacency.get(vertex.index));
+        }
+        graph.setVertices(originalVertices);
+    }
+
+    public Stats getStats() {
+        return stats;
+    }
+
+    private static class Reduction {
+        final RealVertex pendant, neighbour;
+        final boolean dominant;
+
+        Reduction(RealVertex pendant, RealVertex neighbour, boolean dominant) {
+            this.pendant = pendant;
+            this.neighbour = neighbour;
+            this.dominant = dominant;
+        }
+    }
+
+    public static class Stats {
+        private int originalVertices, originalEdges;
+        private int isolatedVertices, pendantVertices, foldedVertices, droppedEdges;
+        private int coreVertices, coreEdges;
+
+        public int getOriginalVertices() {
+            return originalVertices;
+        }
+
+        public int getOriginalEdges() {
+            return originalEdges;
+        }
+
+        public int getIsolatedVertices() {
+            return isolatedVertices;
+        }
+
+        public int getPendantVertices() {
+            return pendantVertices;
+        }
+
+        public int getFoldedVertices() {
+            return foldedVertices;
+        }
+
+        public int getDroppedEdges() {
+            return droppedEdges;
+        }
+
+        public int getCoreVertices() {
+            return coreVertices;
+        }
+
+        public int getCoreEdges() {
+            return coreEdges;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Kernel: %d/%d vertices, %d/%d edges left%n", coreVertices, originalVertices,
+                    coreEdges, originalEdges) +
+                    String.format("  isolated: %d vertices%n", isolatedVertices) +
+                    String.format("  dominant pendant: %d vertices%n", pendantVertices) +
+                    String.format("  folded chains: %d vertices%n", foldedVertices) +
+                    String.format("  non-positive: %d edges", droppedEdges);
+        }
+    }
+}
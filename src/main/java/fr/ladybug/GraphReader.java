@@ -1,57 +1,210 @@
 package fr.ladybug;
 
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Scanner;
 
 public class GraphReader {
 
     private final String graphPath;
+    private final VertexReordering.Order order;
+    private GraphHash hash = null;
+    private EdgeNormalizer normalization = null;
 
     public GraphReader(String graphPath) {
+        this(graphPath, VertexReordering.Order.AS_GIVEN);
+    }
+
+    public GraphReader(String graphPath, VertexReordering.Order order) {
         this.graphPath = graphPath;
+        this.order = order;
     }
 
     public Graph readGraph(boolean fromFile) {
-        File file = null;
-        if (fromFile)
-            file = new File(getClass().getClassLoader().getResource(graphPath).getFile());
-        Scanner in = null;
-        try {
-            if (fromFile)
-                in = new Scanner(file);
-            else
-                in = new Scanner(System.in);
+        if (!fromFile)
+            return readGraph(System.in);
+        var file = new File(getClass().getClassLoader().getResource(graphPath).getFile());
+        try (var stream = new FileInputStream(file)) {
+            return readGraph(stream);
         } catch (FileNotFoundException e) {
             e.printStackTrace();
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
+    }
+
+    /**
+     * Reads a graph in the text format, plain or gzip-compressed, see {@link #decompressed(InputStream)}.
+     * A compressed stream is closed when the graph is read.
+     */
+    public Graph readGraph(InputStream stream) {
+        try {
+            var input = decompressed(stream);
+            if (!(input instanceof GzipPipe))
+                return readGraph(new Scanner(input));
+            try (input) {
+                return readGraph(new Scanner(input));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return the stream itself, or a {@link GzipPipe} which decompresses it if it starts with the magic bytes
+     * of gzip
+     */
+    public static InputStream decompressed(InputStream stream) throws IOException {
+        var buffered = stream.markSupported() ? stream : new BufferedInputStream(stream);
+        return GzipPipe.isGzip(buffered) ? new GzipPipe(buffered) : buffered;
+    }
+
+    private Graph readGraph(Scanner in) {
+        try {
+            return parse(in);
+        } catch (NoSuchElementException e) {
+            // The scanner hides the errors of the stream, a broken archive looks like a short file
+            if (in.ioException() != null)
+                throw new UncheckedIOException(in.ioException());
+            throw e;
+        }
+    }
+
+    private Graph parse(Scanner in) {
         // Number of vertices
         int n = in.nextInt();
-        List<RealVertex> vertices = new ArrayList<>();
-        for (int i = 0; i < n; i++) {
-            vertices.add(new RealVertex());
-        }
         // Number of edges
         int m = in.nextInt();
         // m edges in format: from, to, weight
+        int[] from = new int[m];
+        int[] to = new int[m];
+        double[] weight = new double[m];
+        hash = new GraphHash(n);
         for (int i = 0; i < m; i++) {
-            int from = in.nextInt();
-            int to = in.nextInt();
-            // All edges heading from the lesser one to greater one
-            // UPD: No more
-            double weight = in.nextDouble();
-            var edgeA = new Edge(vertices.get(from), vertices.get(to), weight);
-            var edgeB = new Edge(vertices.get(to), vertices.get(from), weight);
+            from[i] = in.nextInt();
+            to[i] = in.nextInt();
+            weight[i] = in.nextDouble();
+            hash.add(from[i], to[i], weight[i]);
+        }
+        return buildGraph(n, from, to, weight);
+    }
+
+    /**
+     * Reads a graph file on several threads, see {@link ParallelGraphParser}.
+     * The adjacency lists come out in the order of the sources, so ties may be broken differently than by the
+     * other readers.
+     * A gzip-compressed file cannot be split into ranges, it is decompressed and read as a stream instead.
+     * A binary file of {@link CsrEdges} is read as it is.
+     */
+    public Graph readGraph(Path file, int threads) throws IOException {
+        CsrEdges edges = null;
+        try (var stream = new BufferedInputStream(Files.newInputStream(file))) {
+            if (GzipPipe.isGzip(stream))
+                return readGraph(stream);
+            if (CsrEdges.isCsr(stream))
+                edges = CsrEdges.read(stream);
+        }
+        if (edges == null)
+            edges = ParallelGraphParser.parse(file, threads);
+        hash = edges.getHash();
+        return buildGraph(edges.getVertexCount(), edges.getSources(), edges.getTargets(), edges.getWeights());
+    }
+
+    /**
+     * @return the hash of the last graph read, see {@link ResultCache}
+     */
+    public GraphHash getHash() {
+        return hash;
+    }
+
+    /**
+     * @return the loops and the parallel edges dropped from the last graph read, see {@link EdgeNormalizer}
+     */
+    public EdgeNormalizer getNormalization() {
+        return normalization;
+    }
 
-            edgeA.setRev(edgeB);
-            edgeB.setRev(edgeA);
+    private Graph buildGraph(int n, int[] originalFrom, int[] originalTo, double[] originalWeight) {
+        normalization = EdgeNormalizer.normalize(originalFrom, originalTo, originalWeight);
+        var from = normalization.getFrom();
+        var to = normalization.getTo();
+        var weight = normalization.getWeights();
+        if (order == VertexReordering.Order.AS_GIVEN) {
+            List<RealVertex> vertices = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                vertices.add(new RealVertex(i));
+            }
+            for (int i = 0; i < from.length; i++) {
+                // All edges heading from the lesser one to greater one
+                // UPD: No more
+                addEdge(vertices.get(from[i]), vertices.get(to[i]), weight[i]);
+            }
+            return new Graph(vertices);
+        }
+
+        // Vertices are created in the new order, so they lie close in the memory as well
+        var newOrder = VertexReordering.order(order, n, from, to);
+        var position = new int[n];
+        List<RealVertex> vertices = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            position[newOrder[i]] = i;
+            vertices.add(new RealVertex(newOrder[i]));
+        }
 
-            vertices.get(from).addEdge(edgeA);
-            vertices.get(to).addEdge(edgeB);
+        // Edges are sorted by their lesser end and then by the greater one, so every adjacency list comes out
+        // sorted by the new positions: by the greater end first, then stably by the lesser one
+        var lesser = new int[from.length];
+        var greater = new int[from.length];
+        for (int i = 0; i < from.length; i++) {
+            lesser[i] = Math.min(position[from[i]], position[to[i]]);
+            greater[i] = Math.max(position[from[i]], position[to[i]]);
         }
-        return new Graph(vertices);
+        var byGreater = countingSort(n, greater, null);
+        for (var edge : countingSort(n, lesser, byGreater)) {
+            addEdge(vertices.get(position[from[edge]]), vertices.get(position[to[edge]]), weight[edge]);
+        }
+        return new Graph(vertices, newOrder);
+    }
+
+    /**
+     * @return the items, in the given order or by their index if it is null, stably sorted by their keys
+     * 0..n-1
+     */
+    private static int[] countingSort(int n, int[] key, int[] items) {
+        var offsets = new int[n + 1];
+        for (var value : key) {
+            offsets[value + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        var result = new int[key.length];
+        for (int i = 0; i < key.length; i++) {
+            int item = items == null ? i : items[i];
+            result[offsets[key[item]]++] = item;
+        }
+        return result;
     }
 
+    private static void addEdge(RealVertex from, RealVertex to, double weight) {
+        var edgeA = new Edge(from, to, weight);
+        var edgeB = new Edge(to, from, weight);
+
+        edgeA.setRev(edgeB);
+        edgeB.setRev(edgeA);
+
+        from.addEdge(edgeA);
+        to.addEdge(edgeB);
+    }
 }
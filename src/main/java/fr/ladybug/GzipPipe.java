@@ -0,0 +1,144 @@
+package fr.ladybug;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Decompresses a gzip stream on its own thread, so the decompression and the parsing overlap.
+ * The decompressed blocks are handed over through a bounded queue: when the parser falls behind, the decompressor
+ * waits, so at most {@code capacity} blocks are held at once.
+ * <p>
+ * Closing the pipe stops the decompressor, closes the compressed stream and waits for the decompressor to end.
+ */
+public class GzipPipe extends InputStream {
+    public static final int DEFAULT_BLOCK_SIZE = 1 << 16;
+    public static final int DEFAULT_CAPACITY = 16;
+
+    // Marks the end of the stream in the queue, also after a failure
+    private static final byte[] END = new byte[0];
+
+    private final InputStream compressed;
+    private final BlockingQueue<byte[]> blocks;
+    private final Thread decompressor;
+    private volatile IOException failure = null;
+
+    private byte[] current = new byte[0];
+    private int position = 0;
+    private boolean finished = false;
+
+    public GzipPipe(InputStream compressed) {
+        this(compressed, DEFAULT_BLOCK_SIZE, DEFAULT_CAPACITY);
+    }
+
+    public GzipPipe(InputStream compressed, int blockSize, int capacity) {
+        if (blockSize <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("The blocks and the queue must not be empty.");
+        }
+        this.compressed = compressed;
+        blocks = new ArrayBlockingQueue<>(capacity);
+        decompressor = new Thread(() -> decompress(compressed, blockSize), "gzip-decompressor");
+        decompressor.setDaemon(true);
+        decompressor.start();
+    }
+
+    /**
+     * @return whether the stream starts with the magic bytes of gzip, the stream must support marks
+     */
+    public static boolean isGzip(InputStream stream) throws IOException {
+        stream.mark(2);
+        int first = stream.read();
+        int second = stream.read();
+        stream.reset();
+        return first == 0x1f && second == 0x8b;
+    }
+
+    private void decompress(InputStream compressed, int blockSize) {
+        try (var in = new GZIPInputStream(compressed, blockSize)) {
+            while (true) {
+                var block = new byte[blockSize];
+                int size = in.readNBytes(block, 0, blockSize);
+                if (size == 0)
+                    break;
+                blocks.put(size == blockSize ? block : Arrays.copyOf(block, size));
+            }
+        } catch (IOException e) {
+            failure = e;
+        } catch (InterruptedException e) {
+            // The pipe is closed, nobody reads anymore
+            return;
+        }
+        try {
+            blocks.put(END);
+        } catch (InterruptedException e) {
+            // Closed as well
+        }
+    }
+
+    /**
+     * @return false at the end of the stream
+     */
+    private boolean fill() throws IOException {
+        while (position == current.length) {
+            if (finished)
+                return false;
+            try {
+                current = blocks.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for the decompressor.");
+            }
+            position = 0;
+            if (current == END) {
+                finished = true;
+                if (failure != null)
+                    throw failure;
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill())
+            return -1;
+        return current[position++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (length == 0)
+            return 0;
+        if (!fill())
+            return -1;
+        int size = Math.min(length, current.length - position);
+        System.arraycopy(current, position, buffer, offset, size);
+        position += size;
+        return size;
+    }
+
+    @Override
+    public int available() {
+        return current.length - position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        finished = true;
+        // The interrupt wakes the decompressor when it waits on the queue, the close when it waits on the stream
+        decompressor.interrupt();
+        try {
+            compressed.close();
+        } finally {
+            try {
+                decompressor.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
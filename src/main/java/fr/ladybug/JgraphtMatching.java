@@ -0,0 +1,105 @@
+package fr.ladybug;
+
+import org.jgrapht.alg.interfaces.MatchingAlgorithm;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+
+/**
+ * The maximum weight matching of a jgrapht graph, by {@link MatchingEngine}.
+ * <p>
+ * The vertices get their positions in one pass over the vertex set, then the ends and the weights of the edges go
+ * straight into the arrays of the engine, {@link Edge} objects are never made. The positions are found in an open
+ * addressing table over the list of the vertices, so neither a boxed position nor an entry is made per vertex. The weights are read by
+ * {@link org.jgrapht.Graph#getEdgeWeight(Object)}, loops are skipped, parallel edges are allowed.
+ */
+public class JgraphtMatching<V, E> implements MatchingAlgorithm<V, E> {
+    private final org.jgrapht.Graph<V, E> graph;
+
+    public JgraphtMatching(org.jgrapht.Graph<V, E> graph) {
+        if (!graph.getType().isUndirected()) {
+            throw new IllegalArgumentException("The graph must be undirected.");
+        }
+        this.graph = graph;
+    }
+
+    @Override
+    public Matching<V, E> getMatching() {
+        var vertexSet = graph.vertexSet();
+        var position = new VertexIndex<>(vertexSet);
+
+        var edgeSet = graph.edgeSet();
+        int m = 0;
+        var from = new int[edgeSet.size()];
+        var to = new int[edgeSet.size()];
+        var weight = new double[edgeSet.size()];
+        @SuppressWarnings("unchecked")
+        var edges = (E[])new Object[edgeSet.size()];
+        for (var edge : edgeSet) {
+            int u = position.of(graph.getEdgeSource(edge));
+            int v = position.of(graph.getEdgeTarget(edge));
+            if (u == v)
+                continue;
+            from[m] = u;
+            to[m] = v;
+            weight[m] = graph.getEdgeWeight(edge);
+            edges[m] = edge;
+            m++;
+        }
+        if (m < edgeSet.size()) {
+            from = Arrays.copyOf(from, m);
+            to = Arrays.copyOf(to, m);
+            weight = Arrays.copyOf(weight, m);
+        }
+
+        var engine = new MatchingEngine(vertexSet.size(), from, to, weight);
+        engine.initializeVariables();
+        while (engine.stage()) {
+        }
+
+        var matched = new HashSet<E>();
+        for (int v = 0; v < vertexSet.size(); v++) {
+            if (engine.getMate(v) > v)
+                matched.add(edges[engine.getMatchedEdge(v)]);
+        }
+        return new MatchingImpl<>(graph, matched, engine.getMatchingWeight());
+    }
+
+    /**
+     * The positions of the vertices in the order of the set: the vertices are kept in a list, and a table of a power
+     * of two size holds one plus the position of a vertex in the slot of its hash or in one of the next ones.
+     */
+    private static class VertexIndex<V> {
+        private final Object[] vertices;
+        private final int[] slots;
+        private final int mask;
+
+        VertexIndex(Collection<V> vertexSet) {
+            vertices = vertexSet.toArray();
+            int size = Integer.highestOneBit(Math.max(1, 2 * vertices.length - 1)) << 1;
+            slots = new int[size];
+            mask = size - 1;
+            for (int i = 0; i < vertices.length; i++) {
+                int slot = hash(vertices[i]);
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = i + 1;
+            }
+        }
+
+        private int hash(Object vertex) {
+            int h = vertex.hashCode() * 0x9e3779b9;
+            return (h ^ (h >>> 16)) & mask;
+        }
+
+        int of(V vertex) {
+            for (int slot = hash(vertex); slots[slot] != 0; slot = (slot + 1) & mask) {
+                if (vertices[slots[slot] - 1].equals(vertex))
+                    return slots[slot] - 1;
+            }
+            throw new IllegalArgumentException("The vertex " + vertex + " is not in the graph.");
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package fr.ladybug;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Solves the graph on a sparse set of candidate edges first and adds the rest only when they are needed.
+ * An edge is a candidate if it is among the {@code candidatesPerVertex} heaviest edges of one of its ends.
+ * After every solve the remaining edges are priced against the variables of the solution, and the edges of
+ * negative slack are added to the solved graph, which goes on from its matching and variables. When no edge is
+ * violated, the variables are feasible for the whole graph, so the matching is optimal for it as well.
+ */
+public class LazyPricing {
+    private static final double EPS = 1e-6;
+
+    private final Graph graph;
+    private final int candidatesPerVertex;
+
+    private RealVertex[] vertices;
+    private double[] threshold;
+    // The edges of vertex i are numbered from edgeStart[i]; an edge is solved on from its lesser end
+    private int[] edgeStart;
+    private boolean[] solvedOn;
+
+    private int rounds = 0;
+    private int candidateEdges = 0;
+    private int addedEdges = 0;
+
+    public LazyPricing(Graph graph, int candidatesPerVertex) {
+        if (candidatesPerVertex <= 0) {
+            throw new IllegalArgumentException("At least one candidate per vertex is required.");
+        }
+        this.graph = graph;
+        this.candidatesPerVertex = candidatesPerVertex;
+    }
+
+    /**
+     * Finds the maximum weight matching of the whole graph. The graph must not have been solved before.
+     */
+    public void solve() {
+        vertices = graph.getVertices().toArray(RealVertex[]::new);
+        threshold = new double[vertices.length];
+        edgeStart = new int[vertices.length + 1];
+        for (int i = 0; i < vertices.length; i++) {
+            threshold[i] = heaviestWeight(vertices[i].getEdges(), candidatesPerVertex);
+            edgeStart[i + 1] = edgeStart[i] + vertices[i].getEdges().size();
+        }
+        solvedOn = new boolean[edgeStart[vertices.length]];
+        // Positions in the graph may differ from the indices when the graph is a kernel
+        var position = new int[vertices.length];
+        for (int i = 0; i < vertices.length; i++) {
+            position[i] = vertices[i].index;
+            vertices[i].index = i;
+        }
+
+        try {
+            var candidates = new ArrayList<Edge>();
+            for (int i = 0; i < vertices.length; i++) {
+                var edges = vertices[i].getEdges();
+                for (int j = 0; j < edges.size(); j++) {
+                    var edge = edges.get(j);
+                    if (edge.to.index > i && (edge.weight >= threshold[i] || edge.weight >= threshold[edge.to.index])) {
+                        solvedOn[edgeStart[i] + j] = true;
+                        candidates.add(edge);
+                    }
+                }
+            }
+            candidateEdges = candidates.size();
+            rounds = 1;
+            graph.solve(candidates);
+
+            while (true) {
+                var violated = IntStream.range(0, vertices.length).parallel()
+                        .mapToObj(this::violatedEdges)
+                        .flatMap(List::stream)
+                        .collect(Collectors.toList());
+                if (violated.isEmpty())
+                    break;
+                rounds++;
+                addedEdges += violated.size();
+                candidateEdges += violated.size();
+                graph.addEdges(violated);
+            }
+        } finally {
+            for (int i = 0; i < vertices.length; i++) {
+                vertices[i].index = position[i];
+            }
+        }
+    }
+
+    /**
+     * Prices the edges of the vertex which are not solved on yet, from their lesser end, and marks the violated ones
+     * as solved on. Only this vertex marks its edges, so the vertices are priced in parallel.
+     */
+    private List<Edge> violatedEdges(int index) {
+        var violated = new ArrayList<Edge>();
+        var edges = vertices[index].getEdges();
+        for (int j = 0; j < edges.size(); j++) {
+            var edge = edges.get(j);
+            if (edge.to.index < index || solvedOn[edgeStart[index] + j])
+                continue;
+            if (graph.slack(edge) < -EPS) {
+                solvedOn[edgeStart[index] + j] = true;
+                violated.add(edge);
+            }
+        }
+        return violated;
+    }
+
+    private static double heaviestWeight(List<Edge> edges, int k) {
+        if (edges.size() <= k)
+            return Double.NEGATIVE_INFINITY;
+        var weights = edges.stream().mapToDouble(Edge::getWeight).toArray();
+        Arrays.sort(weights);
+        return weights[weights.length - k];
+    }
+
+    public int getRounds() {
+        return rounds;
+    }
+
+    /**
+     * @return the number of edges the last round was solved on
+     */
+    public int getCandidateEdges() {
+        return candidateEdges;
+    }
+
+    public int getAddedEdges() {
+        return addedEdges;
+    }
+}
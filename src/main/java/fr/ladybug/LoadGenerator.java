@@ -0,0 +1,185 @@
+package fr.ladybug;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+
+/**
+ * Sends random graphs to a {@link SolverServer} from several connections at once and reports the latencies
+ * and the throughput. Without a port it starts a local server in the same JVM. Every client repeats a few graphs,
+ * so a cache of the server hits most of the time.
+ */
+public class LoadGenerator {
+    private static final int GRAPHS_PER_CLIENT = 16;
+
+    private LoadGenerator() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = 0;
+        int clients = 4;
+        int requests = 1000;
+        int warmup = 100;
+        int n = 100;
+        int m = 300;
+        int workers = Runtime.getRuntime().availableProcessors();
+        boolean text = false;
+        long cacheBytes = 0;
+        for (var arg : args) {
+            if (arg.startsWith("--port=")) {
+                port = Integer.parseInt(arg.substring("--port=".length()));
+            } else if (arg.startsWith("--clients=")) {
+                clients = Integer.parseInt(arg.substring("--clients=".length()));
+            } else if (arg.startsWith("--requests=")) {
+                requests = Integer.parseInt(arg.substring("--requests=".length()));
+            } else if (arg.startsWith("--warmup=")) {
+                warmup = Integer.parseInt(arg.substring("--warmup=".length()));
+            } else if (arg.startsWith("--vertices=")) {
+                n = Integer.parseInt(arg.substring("--vertices=".length()));
+            } else if (arg.startsWith("--edges=")) {
+                m = Integer.parseInt(arg.substring("--edges=".length()));
+            } else if (arg.startsWith("--workers=")) {
+                workers = Integer.parseInt(arg.substring("--workers=".length()));
+            } else if (arg.startsWith("--cache=")) {
+                cacheBytes = Long.parseLong(arg.substring("--cache=".length()));
+            } else if (arg.equals("--text")) {
+                text = true;
+            } else {
+                throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+
+        if (n < 2 || m < 0 || clients <= 0) {
+            throw new IllegalArgumentException("The graphs need two vertices and at least one client is required.");
+        }
+
+        SolverServer server = null;
+        if (port == 0) {
+            var cache = cacheBytes > 0 ? new ResultCache(cacheBytes, null) : null;
+            server = new SolverServer(0, workers, clients, cache);
+            server.start();
+            port = server.getPort();
+        }
+        try {
+            if (warmup > 0) {
+                run(port, clients, warmup, n, m, text, 1);
+            }
+            System.out.println(run(port, clients, requests, n, m, text, 0));
+            if (server != null) {
+                System.out.println(server);
+            }
+        } finally {
+            if (server != null) {
+                server.close();
+            }
+        }
+    }
+
+    /**
+     * Every client sends its requests one after another over its own connection.
+     */
+    public static Report run(int port, int clients, int requests, int n, int m, boolean text, long seed)
+            throws Exception {
+        var pool = Executors.newFixedThreadPool(clients);
+        try {
+            var tasks = new ArrayList<Callable<long[]>>();
+            for (int c = 0; c < clients; c++) {
+                var random = new Random(seed * clients + c);
+                tasks.add(() -> runClient(port, requests, n, m, text, random));
+            }
+            long start = System.nanoTime();
+            var futures = pool.invokeAll(tasks);
+            long elapsed = System.nanoTime() - start;
+
+            var latencies = new long[clients * requests];
+            for (int c = 0; c < clients; c++) {
+                System.arraycopy(futures.get(c).get(), 0, latencies, c * requests, requests);
+            }
+            return new Report(latencies, elapsed);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static long[] runClient(int port, int requests, int n, int m, boolean text, Random random)
+            throws IOException {
+        // The graphs are made in advance, so only the solver is measured
+        var graphs = new ArrayList<EdgeList>();
+        for (int i = 0; i < GRAPHS_PER_CLIENT; i++) {
+            graphs.add(new EdgeList(n, m, random));
+        }
+
+        var latencies = new long[requests];
+        try (var client = new SolverClient(port)) {
+            for (int i = 0; i < requests; i++) {
+                var graph = graphs.get(i % GRAPHS_PER_CLIENT);
+                long start = System.nanoTime();
+                if (text) {
+                    client.solve(graph.text);
+                } else {
+                    client.solve(n, graph.from, graph.to, graph.weight);
+                }
+                latencies[i] = System.nanoTime() - start;
+            }
+        }
+        return latencies;
+    }
+
+    private static class EdgeList {
+        private final int[] from;
+        private final int[] to;
+        private final double[] weight;
+        private final String text;
+
+        EdgeList(int n, int m, Random random) {
+            from = new int[m];
+            to = new int[m];
+            weight = new double[m];
+            var builder = new StringBuilder(n + " " + m + "\n");
+            for (int i = 0; i < m; i++) {
+                from[i] = random.nextInt(n);
+                do {
+                    to[i] = random.nextInt(n);
+                } while (to[i] == from[i]);
+                weight[i] = 1 + random.nextInt(1000);
+                builder.append(from[i]).append(' ').append(to[i]).append(' ').append((int)weight[i]).append('\n');
+            }
+            text = builder.toString();
+        }
+    }
+
+    public static class Report {
+        private final long[] latencies;
+        private final long elapsed;
+
+        Report(long[] latencies, long elapsed) {
+            this.latencies = latencies.clone();
+            Arrays.sort(this.latencies);
+            this.elapsed = elapsed;
+        }
+
+        /**
+         * @return the latency in milliseconds which the given part of the requests did not exceed
+         */
+        public double getPercentile(double part) {
+            int position = (int)Math.ceil(part * latencies.length) - 1;
+            return latencies[Math.max(0, position)] / 1e6;
+        }
+
+        /**
+         * @return the requests per second
+         */
+        public double getThroughput() {
+            return latencies.length / (elapsed / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d requests: p50 %.3f ms, p99 %.3f ms, max %.3f ms, %.1f requests/s",
+                    latencies.length, getPercentile(0.5), getPercentile(0.99), getPercentile(1), getThroughput());
+        }
+    }
+}
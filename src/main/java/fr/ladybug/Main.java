@@ -1,22 +1,243 @@
 package fr.ladybug;
 
-import java.util.List;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 public class Main {
 
-    public static void main(String[] args) {
-        var graph = new GraphReader(null).readGraph(false);
+    public static void main(String[] args) throws IOException {
+        boolean kernelize = false;
+        boolean components = false;
+        boolean suitor = false;
+        boolean scaling = false;
+        int candidatesPerVertex = 0;
+        double epsilon = 0;
+        double streamEpsilon = -1;
+        boolean resolve = false;
+        boolean perfect = false;
+        int port = -1;
+        int workers = Runtime.getRuntime().availableProcessors();
+        int connectionLimit = -1;
+        int maxVertices = SolverServer.DEFAULT_MAX_VERTICES;
+        int maxEdges = SolverServer.DEFAULT_MAX_EDGES;
+        long cacheBytes = 0;
+        Path cacheDirectory = null;
+        Path input = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        var order = VertexReordering.Order.AS_GIVEN;
+        var format = MatchingWriter.Format.WEIGHT;
+        Path output = null;
+        for (var arg : args) {
+            if (arg.equals("--kernelize")) {
+                kernelize = true;
+            } else if (arg.equals("--scaling")) {
+                scaling = true;
+            } else if (arg.equals("--suitor")) {
+                suitor = true;
+            } else if (arg.equals("--components")) {
+                components = true;
+            } else if (arg.startsWith("--lazy=")) {
+                candidatesPerVertex = Integer.parseInt(arg.substring("--lazy=".length()));
+            } else if (arg.startsWith("--approximate=")) {
+                epsilon = Double.parseDouble(arg.substring("--approximate=".length()));
+                if (!(epsilon > 0 && epsilon < 1)) {
+                    throw new IllegalArgumentException("Epsilon must be between 0 and 1.");
+                }
+            } else if (arg.equals("--stream")) {
+                streamEpsilon = StreamingMatching.DEFAULT_EPSILON;
+            } else if (arg.startsWith("--stream=")) {
+                streamEpsilon = Double.parseDouble(arg.substring("--stream=".length()));
+            } else if (arg.equals("--resolve")) {
+                resolve = true;
+            } else if (arg.equals("--perfect")) {
+                perfect = true;
+            } else if (arg.startsWith("--serve=")) {
+                port = Integer.parseInt(arg.substring("--serve=".length()));
+            } else if (arg.startsWith("--workers=")) {
+                workers = Integer.parseInt(arg.substring("--workers=".length()));
+            } else if (arg.startsWith("--connections=")) {
+                connectionLimit = Integer.parseInt(arg.substring("--connections=".length()));
+            } else if (arg.startsWith("--max-vertices=")) {
+                maxVertices = Integer.parseInt(arg.substring("--max-vertices=".length()));
+            } else if (arg.startsWith("--max-edges=")) {
+                maxEdges = Integer.parseInt(arg.substring("--max-edges=".length()));
+            } else if (arg.startsWith("--cache=")) {
+                cacheBytes = Long.parseLong(arg.substring("--cache=".length()));
+            } else if (arg.startsWith("--cache-dir=")) {
+                cacheDirectory = Path.of(arg.substring("--cache-dir=".length()));
+            } else if (arg.startsWith("--input=")) {
+                input = Path.of(arg.substring("--input=".length()));
+            } else if (arg.startsWith("--threads=")) {
+                threads = Integer.parseInt(arg.substring("--threads=".length()));
+            } else if (arg.startsWith("--order=")) {
+                order = parseOrder(arg.substring("--order=".length()));
+            } else if (arg.startsWith("--output=")) {
+                format = parseFormat(arg.substring("--output=".length()));
+            } else if (arg.startsWith("--output-file=")) {
+                output = Path.of(arg.substring("--output-file=".length()));
+            } else {
+                throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+
+        if (candidatesPerVertex > 0 && epsilon > 0) {
+            throw new IllegalArgumentException("Lazy pricing needs the exact variables.");
+        }
+        if ((suitor || scaling) && (candidatesPerVertex > 0 || epsilon > 0) || suitor && scaling) {
+            throw new IllegalArgumentException("Only one of the solvers can be chosen.");
+        }
+        ResultCache cache = null;
+        if (cacheBytes > 0 || cacheDirectory != null) {
+            if (suitor || epsilon > 0 || streamEpsilon >= 0) {
+                throw new IllegalArgumentException("Only the exact results are cached.");
+            }
+            cache = new ResultCache(cacheBytes, cacheDirectory);
+        }
+        if (resolve && streamEpsilon < 0) {
+            throw new IllegalArgumentException("Only the streaming mode can re-solve its edges.");
+        }
+
+        if (perfect) {
+            if (port >= 0 || kernelize || components || suitor || scaling || candidatesPerVertex > 0 ||
+                    epsilon > 0 || streamEpsilon >= 0 || cache != null || order != VertexReordering.Order.AS_GIVEN) {
+                throw new IllegalArgumentException("The perfect matching mode does not combine with other options.");
+            }
+            MinCostPerfectMatching matching;
+            try (var stream = input == null ? System.in : Files.newInputStream(input)) {
+                matching = MinCostPerfectMatching.read(stream);
+            }
+            printResult(matching.getCost(), matching.getMates(), format, output);
+            return;
+        }
+        if (port >= 0) {
+            if (input != null || kernelize || components || suitor || scaling || candidatesPerVertex > 0 ||
+                    epsilon > 0 || streamEpsilon >= 0 || order != VertexReordering.Order.AS_GIVEN ||
+                    format != MatchingWriter.Format.WEIGHT || output != null) {
+                throw new IllegalArgumentException(
+                        "The server solves every graph exactly, other options do not apply.");
+            }
+            try (var server = new SolverServer(port, workers, connectionLimit < 0 ? 4 * workers : connectionLimit,
+                    cache, maxVertices, maxEdges)) {
+                System.err.println("Listening on port " + server.getPort());
+                server.serve();
+            }
+            return;
+        }
+        if (streamEpsilon >= 0) {
+            if (kernelize || components || suitor || scaling || candidatesPerVertex > 0 || epsilon > 0 ||
+                    order != VertexReordering.Order.AS_GIVEN) {
+                throw new IllegalArgumentException("The streaming mode does not keep the graph for other options.");
+            }
+            StreamingMatching streaming;
+            try (var stream = input == null ? System.in : Files.newInputStream(input)) {
+                streaming = StreamingMatching.read(stream, streamEpsilon, resolve);
+            }
+            System.err.println(streaming);
+            printResult(streaming.getMatchingWeight(), streaming.getMates(), format, output);
+            return;
+        }
 
-        graph.initializeVertexVariables();
+        var reader = new GraphReader(null, order);
+        var graph = input == null ? reader.readGraph(false) : reader.readGraph(input, threads);
+        if (reader.getNormalization().getDroppedEdges() > 0)
+            System.err.println(reader.getNormalization().getStats());
+        var cached = cache == null ? null : cache.get(reader.getHash());
+        if (cached != null) {
+            // Nothing is solved, the matching is the same as the last time
+            cached.applyTo(graph);
+        } else {
+            GraphKernel kernel = null;
+            if (kernelize) {
+                kernel = GraphKernel.reduce(graph);
+                System.err.println(kernel.getStats());
+            }
+            ComponentSolver componentSolver = null;
+            if (components) {
+                componentSolver = ComponentSolver.split(graph);
+                System.err.println(componentSolver.getStats());
+            }
 
-        while (true) {
-            Graph.GrowingResult result = graph.growTree();
-            if (result == Graph.GrowingResult.OPTIMAL_TREE)
-                break;
+            if (suitor) {
+                SuitorMatching.solve(graph);
+            } else if (candidatesPerVertex > 0) {
+                var pricing = new LazyPricing(graph, candidatesPerVertex);
+                pricing.solve();
+                System.err.println(String.format("Lazy pricing: %d rounds, %d candidate edges, %d added",
+                        pricing.getRounds(), pricing.getCandidateEdges(), pricing.getAddedEdges()));
+            } else if (scaling) {
+                graph.solveByScaling();
+            } else if (epsilon > 0) {
+                graph.solveApproximately(epsilon);
+                var engine = graph.getApproximation();
+                // The reduced parts are exact, so the gap of the core is the gap of the whole graph
+                System.err.println(String.format("Approximation: weight %f, dual bound %f, %d scales, %d searches",
+                        graph.getMatchingWeight(), graph.getDualBound(), engine.getScales(), engine.getSearches()));
+            } else {
+                graph.solve();
+            }
+
+            if (componentSolver != null) {
+                componentSolver.restore();
+            }
+            if (kernel != null) {
+                kernel.restore();
+            }
+            if (cache != null) {
+                cache.put(reader.getHash(), ResultCache.Result.of(graph));
+            }
+        }
+        if (cache != null) {
+            cache.flush();
+            System.err.println(cache);
+        }
+        double weight = graph.getMatchingWeight();
+        printResult(weight, graph.getMates(), format, output);
+    }
+
+    /**
+     * Writes the result to the file, or to the standard output past the buffer of {@link System#out}.
+     * The binary pairs carry no weight, it goes to stderr then.
+     */
+    private static void printResult(double weight, int[] mate, MatchingWriter.Format format, Path output)
+            throws IOException {
+        if (format == MatchingWriter.Format.BINARY)
+            System.err.println("Weight: " + MatchingWriter.formatWeight(weight));
+        if (output != null) {
+            try (var out = Files.newOutputStream(output)) {
+                MatchingWriter.write(format, weight, mate, out);
+            }
+            return;
         }
-        double weight = graph.getCurrentMatching().stream()
-                .reduce(0., (acc, edge) -> acc + edge.getWeight(), Double::sum);
+        System.out.flush();
+        MatchingWriter.write(format, weight, mate, new FileOutputStream(FileDescriptor.out));
+    }
 
-        System.out.println((int)weight);
+    private static MatchingWriter.Format parseFormat(String name) {
+        switch (name) {
+            case "weight":
+                return MatchingWriter.Format.WEIGHT;
+            case "pairs":
+                return MatchingWriter.Format.PAIRS;
+            case "binary":
+                return MatchingWriter.Format.BINARY;
+            default:
+                throw new IllegalArgumentException("Unknown output format: " + name);
+        }
+    }
+
+    private static VertexReordering.Order parseOrder(String name) {
+        switch (name) {
+            case "bfs":
+                return VertexReordering.Order.BFS;
+            case "rcm":
+                return VertexReordering.Order.REVERSE_CUTHILL_MCKEE;
+            case "degree":
+                return VertexReordering.Order.DEGREE;
+            default:
+                throw new IllegalArgumentException("Unknown vertex order: " + name);
+        }
     }
 }
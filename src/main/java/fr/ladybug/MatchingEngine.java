@@ -0,0 +1,1416 @@
+package fr.ladybug;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The primal-dual blossom algorithm over flat arrays.
+ * <p>
+ * Vertices have ids 0..n-1, blossoms have ids n..2n-1 which are recycled through a free list.
+ * Every blossom keeps its sub-blossoms (children) in a ring: {@code ringNext}/{@code ringPrevious} link the
+ * children, {@code firstChild} is the child holding the base and {@code ringEndpoint[c]} is the endpoint of c
+ * on the edge which connects c to the next child. So shrinking, expanding and moving the base only touch
+ * the cycle itself and never allocate.
+ * <p>
+ * An edge k has endpoints 2k and 2k+1, {@code endpoint[p]} is the vertex of the endpoint p.
+ * The variables are kept doubled, so the slack of an edge is {@code dual[u] + dual[v] - 2 * weight}
+ * and every step of the duals stays exact for integer weights.
+ */
+public class MatchingEngine {
+    // Tolerance on the doubled slack, the real variables had 1e-6
+    static final double EPS = 2e-6;
+    // Forests with at least this many vertices and blossoms compute deltas on all cores
+    static final int PARALLEL_THRESHOLD = 1 << 14;
+
+    private static final int FREE = 0;
+    private static final int S_TYPE = 1;
+    private static final int T_TYPE = 2;
+    // Breadcrumb of scanBlossom, set on top of S_TYPE
+    private static final int VISITED = 4;
+
+    private final int n, m;
+    private final int[] endpoint;
+    private double[] weight;
+    private final int[] neighbourStart;
+    private final int[] neighbourEnd;
+    // The weights and the solution are shared with the forks until either side changes them, see fork()
+    private boolean weightShared = false;
+    private boolean stateShared = false;
+
+    // Remote endpoint of the matched edge, or -1
+    private int[] mate;
+    private int[] label;
+    private int[] labelEnd;
+    private int[] inBlossom;
+    private int[] blossomParent;
+    private int[] blossomBase;
+    private int[] firstChild;
+    private int[] ringNext;
+    private int[] ringPrevious;
+    private int[] ringEndpoint;
+    private double[] dual;
+    private int[] blossomSize;
+    private int[] freeBlossoms;
+    private int freeCount;
+
+    private boolean[] allowEdge;
+    // S_TYPE vertices with edges left to scan, each one at most once
+    private int[] queue;
+    private int queueSize;
+    private boolean[] queued;
+    // The next edge of every S_TYPE vertex to scan: the edges before it were examined since the vertex became
+    // S_TYPE, those which were not tight then are left to the deltas
+    private int[] scanPosition;
+    private long scannedEdges = 0;
+    private int[] scratch;
+    // Blossoms still to expand or to augment, so that deep nesting needs no recursion
+    private int[] workStack;
+    // The minima of the sequential delta scan, reused so that a stage allocates nothing
+    private final Deltas deltas = new Deltas();
+
+    // The alternating trees outlive the stages: only the trees of an augmentation are taken apart.
+    // Every tree is a doubly linked list of its top-level blossoms, headed by its root vertex.
+    private boolean forestValid = false;
+    private int treeCount;
+    // The roots of the trees, and the position of every root among them
+    private int[] roots;
+    private int[] rootPosition;
+    // The vertices and the top-level blossoms of the forest, the only ones whose variables change
+    private int[] forest;
+    // The least slack edges of every S_TYPE vertex to a free blossom and to another S_TYPE blossom, or -1.
+    // A step of the variables changes the slacks of all such edges of a vertex by the same amount, so they stay
+    // the least until a label or a blossom around the vertex changes; then they are updated or made stale.
+    private int[] bestFreeEdge;
+    private int[] bestSEdge;
+    private boolean[] bestStale;
+    private int[] around;
+    private int[] treeRoot;
+    private int[] treeFirst;
+    private int[] treeNext;
+    private int[] treePrevious;
+    // Roots of the trees changed by the augmentation of the stage
+    private final int[] augmentedTrees = new int[2];
+    private int augmentedTreeCount;
+    // Vertices of the dissolved trees
+    private int[] touched;
+
+    public MatchingEngine(int n, int[] from, int[] to, double[] weights) {
+        this.n = n;
+        this.m = from.length;
+        endpoint = new int[2 * m];
+        weight = Arrays.copyOf(weights, m);
+        neighbourStart = new int[n + 1];
+        neighbourEnd = new int[2 * m];
+        for (int k = 0; k < m; k++) {
+            endpoint[2 * k] = from[k];
+            endpoint[2 * k + 1] = to[k];
+            neighbourStart[from[k] + 1]++;
+            neighbourStart[to[k] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            neighbourStart[v + 1] += neighbourStart[v];
+        }
+        var fill = Arrays.copyOf(neighbourStart, n);
+        for (int k = 0; k < m; k++) {
+            neighbourEnd[fill[from[k]]++] = 2 * k + 1;
+            neighbourEnd[fill[to[k]]++] = 2 * k;
+        }
+
+        mate = new int[n];
+        label = new int[2 * n];
+        labelEnd = new int[2 * n];
+        inBlossom = new int[n];
+        blossomParent = new int[2 * n];
+        blossomBase = new int[2 * n];
+        firstChild = new int[2 * n];
+        ringNext = new int[2 * n];
+        ringPrevious = new int[2 * n];
+        ringEndpoint = new int[2 * n];
+        dual = new double[2 * n];
+        blossomSize = new int[2 * n];
+        freeBlossoms = new int[n];
+        allocateWork();
+
+        Arrays.fill(mate, -1);
+        Arrays.fill(labelEnd, -1);
+        Arrays.fill(blossomParent, -1);
+        Arrays.fill(firstChild, -1);
+        for (int v = 0; v < n; v++) {
+            inBlossom[v] = v;
+            blossomBase[v] = v;
+            blossomBase[n + v] = -1;
+            blossomSize[v] = 1;
+            freeBlossoms[freeCount++] = 2 * n - 1 - v;
+        }
+    }
+
+    /**
+     * A copy of the engine in the same state. The edges are shared for good, the weights and the solution (the
+     * matching, the variables and the blossoms) are shared until this engine or the fork changes them, and the work
+     * arrays of the stages are allocated by the fork when it runs one. So a fork costs nothing until it changes
+     * something, and a change to the weights alone copies only the weights.
+     * <p>
+     * Forks may run on different threads, but they must be made on one thread while no engine of them runs.
+     */
+    public MatchingEngine fork() {
+        weightShared = true;
+        stateShared = true;
+        return new MatchingEngine(this);
+    }
+
+    private MatchingEngine(MatchingEngine base) {
+        n = base.n;
+        m = base.m;
+        endpoint = base.endpoint;
+        neighbourStart = base.neighbourStart;
+        neighbourEnd = base.neighbourEnd;
+        weight = base.weight;
+        weightShared = true;
+        mate = base.mate;
+        label = base.label;
+        labelEnd = base.labelEnd;
+        inBlossom = base.inBlossom;
+        blossomParent = base.blossomParent;
+        blossomBase = base.blossomBase;
+        firstChild = base.firstChild;
+        ringNext = base.ringNext;
+        ringPrevious = base.ringPrevious;
+        ringEndpoint = base.ringEndpoint;
+        dual = base.dual;
+        blossomSize = base.blossomSize;
+        freeBlossoms = base.freeBlossoms;
+        freeCount = base.freeCount;
+        stateShared = true;
+        // An optimal forest has no trees and needs no arrays, any other one is planted again
+        forestValid = base.forestValid && base.treeCount == 0;
+    }
+
+    private void allocateWork() {
+        allowEdge = new boolean[m];
+        queue = new int[2 * n + 1];
+        scratch = new int[2 * n];
+        workStack = new int[2 * n];
+        treeRoot = new int[2 * n];
+        treeFirst = new int[n];
+        treeNext = new int[2 * n];
+        treePrevious = new int[2 * n];
+        roots = new int[n];
+        rootPosition = new int[n];
+        forest = new int[2 * n];
+        bestFreeEdge = new int[n];
+        bestSEdge = new int[n];
+        bestStale = new boolean[n];
+        around = new int[n];
+        touched = new int[n];
+        queued = new boolean[n];
+        scanPosition = new int[n];
+    }
+
+    /**
+     * Copies the solution if it is shared with a fork, and allocates the work arrays of a fork; before any change.
+     */
+    private void ownState() {
+        if (allowEdge == null)
+            allocateWork();
+        if (!stateShared)
+            return;
+        mate = mate.clone();
+        label = label.clone();
+        labelEnd = labelEnd.clone();
+        inBlossom = inBlossom.clone();
+        blossomParent = blossomParent.clone();
+        blossomBase = blossomBase.clone();
+        firstChild = firstChild.clone();
+        ringNext = ringNext.clone();
+        ringPrevious = ringPrevious.clone();
+        ringEndpoint = ringEndpoint.clone();
+        dual = dual.clone();
+        blossomSize = blossomSize.clone();
+        freeBlossoms = freeBlossoms.clone();
+        stateShared = false;
+    }
+
+    private void ownWeights() {
+        if (!weightShared)
+            return;
+        weight = weight.clone();
+        weightShared = false;
+    }
+
+    /**
+     * Sets every vertex variable to half of the maximum weight, which makes all edges feasible.
+     */
+    public void initializeVariables() {
+        ownState();
+        double maxWeight = 0;
+        for (var value : weight) {
+            maxWeight = Math.max(maxWeight, value);
+        }
+        // The variables are doubled
+        Arrays.fill(dual, 0, n, maxWeight);
+        forestValid = false;
+    }
+
+    /**
+     * Runs one stage: grows the alternating forest from the free vertices with positive variables and adjusts
+     * the variables until either an augmenting path is found and applied, or a vertex of a tree reaches zero and
+     * becomes free instead of the root.
+     * Free vertices with zero variable already satisfy the optimality conditions, they are not roots, but an
+     * augmenting path may end in them.
+     * <p>
+     * The forest is kept from one stage to the next: only the trees of the augmentation are unlabeled, their free
+     * vertices become new roots, and the other trees keep growing where they stopped.
+     *
+     * @return false if there was nothing to do, i.e. the matching is optimal
+     */
+    public boolean stage() {
+        if (!forestValid) {
+            ownState();
+            plantForest();
+        }
+        if (treeCount == 0)
+            return false;
+        ownState();
+        augmentedTreeCount = 0;
+
+        boolean augmented = false;
+        while (true) {
+            while (queueSize > 0 && !augmented) {
+                int v = queue[--queueSize];
+                queued[v] = false;
+                // Left behind by a dissolved tree
+                if (label[inBlossom[v]] != S_TYPE)
+                    continue;
+                int end = neighbourStart[v + 1];
+                while (scanPosition[v] < end && !augmented) {
+                    augmented = examine(v, neighbourEnd[scanPosition[v]++]);
+                }
+            }
+            if (augmented)
+                break;
+
+            // Now we adjust the variables, of the forest only
+            int forestSize = collectForest();
+            Deltas deltas;
+            if (forestSize >= PARALLEL_THRESHOLD) {
+                deltas = ForkJoinPool.commonPool().invoke(new DeltaScan(this, 0, forestSize));
+            } else {
+                deltas = this.deltas;
+                deltas.clear();
+                DeltaScan.scan(this, 0, forestSize, deltas);
+            }
+            int type = deltas.type();
+            if (type == -1)
+                break;
+            double delta = Math.max(deltas.values[type], 0);
+
+            for (int i = 0; i < forestSize; i++) {
+                int u = forest[i];
+                if (u < n) {
+                    if (label[inBlossom[u]] == S_TYPE)
+                        dual[u] -= delta;
+                    else
+                        dual[u] += delta;
+                } else {
+                    if (label[u] == S_TYPE)
+                        dual[u] += delta;
+                    else
+                        dual[u] -= delta;
+                }
+            }
+
+            int argument = deltas.arguments[type];
+            if (type == 0) {
+                // The vertex reached zero, it becomes free instead of the root of its tree
+                augmentToRoot(argument, -1);
+                augmented = true;
+                break;
+            } else if (type == 1 || type == 2) {
+                // Only the edge which became tight is examined, the other edges of its end stay scanned
+                allowEdge[argument] = true;
+                int p = 2 * argument + 1;
+                if (label[inBlossom[endpoint[p ^ 1]]] == FREE)
+                    p ^= 1;
+                if (examine(endpoint[p ^ 1], p)) {
+                    augmented = true;
+                    break;
+                }
+            } else {
+                expandBlossom(argument, false);
+            }
+        }
+
+        if (augmented)
+            replant();
+        return augmented;
+    }
+
+    /**
+     * Examines the edge from the S_TYPE vertex v to the endpoint p: a tight edge grows the tree, makes a blossom
+     * or ends an augmenting path.
+     *
+     * @return whether the matching was augmented
+     */
+    private boolean examine(int v, int p) {
+        scannedEdges++;
+        int k = p >> 1;
+        int w = endpoint[p];
+        // If they're in the same blossom, skip the edge
+        if (inBlossom[v] == inBlossom[w])
+            return false;
+        if (!allowEdge[k] && slack(k) <= EPS)
+            allowEdge[k] = true;
+        if (!allowEdge[k])
+            return false;
+
+        if (label[inBlossom[w]] == FREE && mate[blossomBase[inBlossom[w]]] == -1) {
+            // A free vertex with zero variable ends the path
+            augmentMatching(k);
+            return true;
+        } else if (label[inBlossom[w]] == FREE) {
+            // Married: w becomes T_TYPE and its pair S_TYPE
+            assignLabel(w, T_TYPE, p ^ 1);
+        } else if (label[inBlossom[w]] == S_TYPE) {
+            int base = scanBlossom(v, w);
+            if (base < 0) {
+                augmentMatching(k);
+                return true;
+            }
+            addBlossom(base, k);
+        } else if (label[w] == FREE) {
+            // w is inside a T_TYPE blossom, remember how it was reached for the expansion
+            label[w] = T_TYPE;
+            labelEnd[w] = p ^ 1;
+        }
+        return false;
+    }
+
+    /**
+     * Queues the vertex which has just become S_TYPE, to scan all of its edges.
+     */
+    private void startScan(int v) {
+        scanPosition[v] = neighbourStart[v];
+        if (!queued[v]) {
+            queued[v] = true;
+            queue[queueSize++] = v;
+        }
+    }
+
+    /**
+     * Lists the vertices of the forest and its top-level blossoms, tree by tree.
+     *
+     * @return the size of the list
+     */
+    private int collectForest() {
+        int size = 0;
+        for (int i = 0; i < treeCount; i++) {
+            for (int b = treeFirst[roots[i]]; b != -1; b = treeNext[b]) {
+                size = collectLeaves(b, forest, size);
+                if (b >= n)
+                    forest[size++] = b;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Labels the whole forest from scratch: every free vertex with positive variable is the root of a tree.
+     */
+    private void plantForest() {
+        Arrays.fill(label, FREE);
+        Arrays.fill(allowEdge, false);
+        Arrays.fill(bestStale, true);
+        Arrays.fill(treeFirst, -1);
+        Arrays.fill(queued, false);
+        treeCount = 0;
+        queueSize = 0;
+        for (int v = 0; v < n; v++) {
+            plantRoot(v);
+        }
+        forestValid = true;
+    }
+
+    /**
+     * Makes the free vertex v the root of a new tree if it is the base of its blossom.
+     */
+    private void plantRoot(int v) {
+        int b = inBlossom[v];
+        if (mate[v] != -1 || label[b] != FREE || blossomBase[b] != v)
+            return;
+        if (dual[v] > 0)
+            assignLabel(v, S_TYPE, -1);
+        else
+            labelEnd[b] = -1;
+    }
+
+    /**
+     * Takes apart the trees of the augmentation and expands their S_TYPE blossoms which have zero variable.
+     * The edges from their vertices lose the tightness found so far, the S_TYPE vertices of the other trees next
+     * to them are scanned again, and their free vertices become new roots. Costs the size of these trees and
+     * their edges, not the whole graph.
+     */
+    private void replant() {
+        int touchedSize = 0;
+        for (int i = 0; i < augmentedTreeCount; i++) {
+            int root = augmentedTrees[i];
+            int b = treeFirst[root];
+            while (b != -1) {
+                int next = treeNext[b];
+                touchedSize = collectLeaves(b, touched, touchedSize);
+                boolean expand = b >= n && label[b] == S_TYPE && dual[b] <= 0;
+                clearLabels(b);
+                if (expand)
+                    expandBlossom(b, true);
+                b = next;
+            }
+            treeFirst[root] = -1;
+            // The last root takes the place of this one
+            int last = roots[--treeCount];
+            roots[rootPosition[root]] = last;
+            rootPosition[last] = rootPosition[root];
+        }
+
+        // The queue keeps the vertices of the other trees which still have edges to scan
+        int kept = 0;
+        for (int i = 0; i < queueSize; i++) {
+            int v = queue[i];
+            if (label[inBlossom[v]] == S_TYPE)
+                queue[kept++] = v;
+            else
+                queued[v] = false;
+        }
+        queueSize = kept;
+
+        for (int i = 0; i < touchedSize; i++) {
+            int v = touched[i];
+            for (int j = neighbourStart[v]; j < neighbourStart[v + 1]; j++) {
+                int p = neighbourEnd[j];
+                int w = endpoint[p];
+                int bw = inBlossom[w];
+                allowEdge[p >> 1] = false;
+                edgeChanged(w, p >> 1, v);
+                // A tight edge to v is scanned again, a loose one is left to the deltas
+                if (label[bw] == S_TYPE && slack(p >> 1) <= EPS) {
+                    startScan(w);
+                } else if (label[bw] == T_TYPE && bw != w && labelEnd[w] == (p ^ 1)) {
+                    // w was reached inside its T_TYPE blossom from v, which is not in a tree any more
+                    label[w] = FREE;
+                }
+            }
+        }
+        for (int i = 0; i < touchedSize; i++) {
+            bestStale[touched[i]] = true;
+            plantRoot(touched[i]);
+        }
+    }
+
+    /**
+     * Unlabels the blossom b and all of its sub-blossoms and vertices, without recursion.
+     */
+    private void clearLabels(int b) {
+        label[b] = FREE;
+        if (b < n)
+            return;
+        int current = firstChild[b];
+        while (true) {
+            label[current] = FREE;
+            while (current >= n) {
+                current = firstChild[current];
+                label[current] = FREE;
+            }
+            while (true) {
+                int parent = blossomParent[current];
+                int next = ringNext[current];
+                if (next != firstChild[parent]) {
+                    current = next;
+                    break;
+                }
+                if (parent == b)
+                    return;
+                current = parent;
+            }
+        }
+    }
+
+    /**
+     * Makes the best edges of the vertices of the blossom b and of their neighbours stale, before the blossom is
+     * expanded.
+     */
+    private void markAround(int b) {
+        int leaves = collectLeaves(b, around, 0);
+        for (int i = 0; i < leaves; i++) {
+            int v = around[i];
+            bestStale[v] = true;
+            for (int j = neighbourStart[v]; j < neighbourStart[v + 1]; j++) {
+                bestStale[endpoint[neighbourEnd[j]]] = true;
+            }
+        }
+    }
+
+    /**
+     * Updates the best edges around the vertex v, whose top-level blossom has just got a new label.
+     */
+    private void relabelled(int v) {
+        bestStale[v] = true;
+        for (int i = neighbourStart[v]; i < neighbourStart[v + 1]; i++) {
+            int p = neighbourEnd[i];
+            edgeChanged(endpoint[p], p >> 1, v);
+        }
+    }
+
+    /**
+     * Updates the best edges of u after the label of the other end v of the edge k changed: the best edge itself
+     * makes them stale, any other edge is compared with the best of its kind.
+     */
+    private void edgeChanged(int u, int k, int v) {
+        int bu = inBlossom[u];
+        if (bestStale[u] || label[bu] != S_TYPE)
+            return;
+        if (bestFreeEdge[u] == k || bestSEdge[u] == k) {
+            bestStale[u] = true;
+            return;
+        }
+        int bv = inBlossom[v];
+        if (label[bv] == FREE) {
+            if (better(k, bestFreeEdge[u]))
+                bestFreeEdge[u] = k;
+        } else if (label[bv] == S_TYPE && bv != bu) {
+            if (better(k, bestSEdge[u]))
+                bestSEdge[u] = k;
+        }
+    }
+
+    private boolean better(int k, int best) {
+        if (best == -1)
+            return true;
+        double value = slack(k);
+        double bestValue = slack(best);
+        return value < bestValue || (value == bestValue && k < best);
+    }
+
+    /**
+     * Finds the best edges of the S_TYPE vertex u again, the ties go to the least edge as in {@link Deltas}.
+     */
+    private void findBestEdges(int u) {
+        int rootU = inBlossom[u];
+        int bestFree = -1;
+        int bestS = -1;
+        double freeSlack = Double.POSITIVE_INFINITY;
+        double sSlack = Double.POSITIVE_INFINITY;
+        for (int i = neighbourStart[u]; i < neighbourStart[u + 1]; i++) {
+            int p = neighbourEnd[i];
+            int k = p >> 1;
+            int rootV = inBlossom[endpoint[p]];
+            if (label[rootV] == FREE) {
+                double value = slack(k);
+                if (value < freeSlack || (value == freeSlack && k < bestFree)) {
+                    freeSlack = value;
+                    bestFree = k;
+                }
+            } else if (label[rootV] == S_TYPE && rootV != rootU) {
+                double value = slack(k);
+                if (value < sSlack || (value == sSlack && k < bestS)) {
+                    sSlack = value;
+                    bestS = k;
+                }
+            }
+        }
+        bestFreeEdge[u] = bestFree;
+        bestSEdge[u] = bestS;
+        bestStale[u] = false;
+    }
+
+    private void joinTree(int b, int root) {
+        treeRoot[b] = root;
+        treePrevious[b] = -1;
+        treeNext[b] = treeFirst[root];
+        if (treeFirst[root] != -1)
+            treePrevious[treeFirst[root]] = b;
+        treeFirst[root] = b;
+    }
+
+    private void leaveTree(int b) {
+        if (treePrevious[b] != -1)
+            treeNext[treePrevious[b]] = treeNext[b];
+        else
+            treeFirst[treeRoot[b]] = treeNext[b];
+        if (treeNext[b] != -1)
+            treePrevious[treeNext[b]] = treePrevious[b];
+    }
+
+    /**
+     * Solves integer weights bit by bit, on a fresh engine. Every scale adds the next bit of the weights, doubles
+     * the variables of the previous scale and keeps its matched edges which are still tight, so each scale starts
+     * close to its optimum. After the last bit the engine runs once more on the real weights, as the exact check.
+     */
+    public void solveByScaling() {
+        ownState();
+        ownWeights();
+        var original = weight.clone();
+        double maxWeight = 0;
+        for (var value : original) {
+            if (value != Math.rint(value)) {
+                throw new IllegalArgumentException("Scaling needs integer weights.");
+            }
+            maxWeight = Math.max(maxWeight, value);
+        }
+        if (maxWeight >= 0x1p52) {
+            throw new IllegalArgumentException("The weights are too large for scaling.");
+        }
+
+        int bits = 0;
+        while ((1L << bits) <= (long) maxWeight) {
+            bits++;
+        }
+        Arrays.fill(dual, 0);
+        for (int shift = bits - 1; shift >= 0; shift--) {
+            for (int k = 0; k < m; k++) {
+                weight[k] = Math.max(0, (long) original[k] >> shift);
+            }
+            rescale(2);
+            while (stage()) {
+            }
+        }
+
+        System.arraycopy(original, 0, weight, 0, m);
+        rescale(1);
+        while (stage()) {
+        }
+    }
+
+    /**
+     * Multiplies the variables by the factor and makes them feasible for the current weights again.
+     * The blossoms are dissolved first: their variables move to their vertices, which keeps every slack the same
+     * or larger. Then an end of every violated edge is raised, and the matched edges which are not tight any more
+     * are given up.
+     */
+    private void rescale(double factor) {
+        forestValid = false;
+        for (int v = 0; v < n; v++) {
+            for (int b = blossomParent[v]; b != -1; b = blossomParent[b]) {
+                dual[v] += dual[b];
+            }
+        }
+        freeCount = 0;
+        for (int v = 0; v < n; v++) {
+            inBlossom[v] = v;
+            blossomParent[v] = -1;
+            blossomParent[n + v] = -1;
+            blossomBase[n + v] = -1;
+            firstChild[n + v] = -1;
+            dual[n + v] = 0;
+            freeBlossoms[freeCount++] = 2 * n - 1 - v;
+        }
+
+        for (int v = 0; v < n; v++) {
+            dual[v] *= factor;
+        }
+        for (int k = 0; k < m; k++) {
+            double edgeSlack = slack(k);
+            if (edgeSlack >= 0)
+                continue;
+            int u = endpoint[2 * k];
+            int v = endpoint[2 * k + 1];
+            // Raising a free end or the ends of the edge itself doesn't break any matched edge
+            boolean raiseU = mate[u] == -1 || mate[u] >> 1 == k || mate[v] != -1 && mate[v] >> 1 != k;
+            dual[raiseU ? u : v] -= edgeSlack;
+        }
+        for (int v = 0; v < n; v++) {
+            if (mate[v] != -1 && slack(mate[v] >> 1) > EPS) {
+                mate[endpoint[mate[v]]] = -1;
+                mate[v] = -1;
+            }
+        }
+    }
+
+    /**
+     * A new engine on the edges of this one followed by the given edges, which starts from the matching and the
+     * variables of this engine. The old edges keep their numbers; the blossoms are dissolved into their vertices
+     * and the violated new edges are made feasible as in {@link #rescale(double)}, so the next stages only repair
+     * the solution around the new edges.
+     */
+    public MatchingEngine withEdges(int[] from, int[] to, double[] weights) {
+        int total = m + from.length;
+        var allFrom = Arrays.copyOf(from, total);
+        var allTo = Arrays.copyOf(to, total);
+        var allWeights = Arrays.copyOf(weights, total);
+        // The old edges go first
+        System.arraycopy(from, 0, allFrom, m, from.length);
+        System.arraycopy(to, 0, allTo, m, to.length);
+        System.arraycopy(weights, 0, allWeights, m, weights.length);
+        for (int k = 0; k < m; k++) {
+            allFrom[k] = endpoint[2 * k];
+            allTo[k] = endpoint[2 * k + 1];
+            allWeights[k] = weight[k];
+        }
+
+        var result = new MatchingEngine(n, allFrom, allTo, allWeights);
+        System.arraycopy(mate, 0, result.mate, 0, n);
+        for (int v = 0; v < n; v++) {
+            result.dual[v] = dual[v];
+            for (int b = blossomParent[v]; b != -1; b = blossomParent[b]) {
+                result.dual[v] += dual[b];
+            }
+        }
+        result.rescale(1);
+        return result;
+    }
+
+    /**
+     * Changes the weight of the edge k and keeps the variables feasible, like {@link #rescale(double)} but only
+     * around the edge: a top-level blossom which contains both ends, or an end whose variable is raised, is
+     * dissolved, an end of the edge is raised if it is violated, and the matched edges at the ends which are not
+     * tight any more are given up. The next stages find the new optimum from there. An edge which is not matched
+     * and stays feasible leaves the solution as it is, so a fork copies only its weights then.
+     */
+    public void setWeight(int k, double newWeight) {
+        ownWeights();
+        weight[k] = newWeight;
+        int u = endpoint[2 * k];
+        int v = endpoint[2 * k + 1];
+        boolean inside = inBlossom[u] == inBlossom[v] && inBlossom[u] >= n;
+        if (!inside && mate[u] >> 1 != k && slack(k) >= 0)
+            return;
+
+        ownState();
+        forestValid = false;
+        if (inside)
+            dissolve(inBlossom[u]);
+        double edgeSlack = slack(k);
+        if (edgeSlack < 0) {
+            // Raising a free end or the ends of the edge itself doesn't break any matched edge
+            boolean raiseU = mate[u] == -1 || mate[u] >> 1 == k || mate[v] != -1 && mate[v] >> 1 != k;
+            int raised = raiseU ? u : v;
+            // The edges of the blossom around the raised end would not be tight any more
+            if (inBlossom[raised] >= n)
+                dissolve(inBlossom[raised]);
+            dual[raised] -= edgeSlack;
+        }
+        unmatchIfLoose(u);
+        unmatchIfLoose(v);
+    }
+
+    /**
+     * Gives up the matched edge of v if it is not tight any more, both ends become free.
+     */
+    private void unmatchIfLoose(int v) {
+        if (mate[v] == -1)
+            return;
+        int k = mate[v] >> 1;
+        if (slack(k) > EPS) {
+            mate[endpoint[mate[v]]] = -1;
+            mate[v] = -1;
+        }
+    }
+
+    /**
+     * @return the edge between u and v, or -1
+     */
+    public int findEdge(int u, int v) {
+        for (int i = neighbourStart[u]; i < neighbourStart[u + 1]; i++) {
+            if (endpoint[neighbourEnd[i]] == v)
+                return neighbourEnd[i] >> 1;
+        }
+        return -1;
+    }
+
+    /**
+     * Dissolves the top-level blossom b and all of its sub-blossoms: every vertex takes the variables of the
+     * blossoms around it, which keeps every slack the same or larger. The matched edges which are not tight any
+     * more are given up.
+     */
+    private void dissolve(int b) {
+        int leaves = collectLeaves(b, scratch, 0);
+        for (int i = 0; i < leaves; i++) {
+            int v = scratch[i];
+            for (int c = blossomParent[v]; c != -1; c = blossomParent[c]) {
+                dual[v] += dual[c];
+            }
+        }
+        for (int i = 0; i < leaves; i++) {
+            int v = scratch[i];
+            int c = blossomParent[v];
+            inBlossom[v] = v;
+            blossomParent[v] = -1;
+            // The blossoms above a recycled one are recycled already
+            while (c != -1 && blossomBase[c] != -1) {
+                int parent = blossomParent[c];
+                blossomParent[c] = -1;
+                dual[c] = 0;
+                recycle(c);
+                c = parent;
+            }
+        }
+        for (int i = 0; i < leaves; i++) {
+            unmatchIfLoose(scratch[i]);
+        }
+    }
+
+    private double slack(int k) {
+        return dual[endpoint[2 * k]] + dual[endpoint[2 * k + 1]] - 2 * weight[k];
+    }
+
+    private void assignLabel(int w, int type, int p) {
+        int b = inBlossom[w];
+        label[w] = label[b] = type;
+        labelEnd[w] = labelEnd[b] = p;
+        int leaves = collectLeaves(b, around, 0);
+        for (int i = 0; i < leaves; i++) {
+            relabelled(around[i]);
+        }
+        if (p == -1) {
+            int root = blossomBase[b];
+            treeFirst[root] = -1;
+            joinTree(b, root);
+            rootPosition[root] = treeCount;
+            roots[treeCount++] = root;
+        } else {
+            joinTree(b, treeRoot[inBlossom[endpoint[p]]]);
+        }
+        if (type == S_TYPE) {
+            // Add the S_TYPE (as its subvertices) to Q
+            for (int i = 0; i < leaves; i++) {
+                startScan(around[i]);
+            }
+        } else {
+            // Mark the pair of the newborn T_TYPE with S_TYPE
+            int base = blossomBase[b];
+            if (mate[base] == -1) {
+                throw new IllegalStateException("Unmarked means married.");
+            }
+            assignLabel(endpoint[mate[base]], S_TYPE, mate[base] ^ 1);
+        }
+    }
+
+    /**
+     * Walks from two S_TYPE blossoms to their roots at once.
+     *
+     * @return the base of the new blossom, or -1 if the roots differ and the path is augmenting
+     */
+    private int scanBlossom(int v, int w) {
+        int pathSize = 0;
+        int base = -1;
+        while (v != -1 || w != -1) {
+            int b = inBlossom[v];
+            if ((label[b] & VISITED) != 0) {
+                base = blossomBase[b];
+                break;
+            }
+            scratch[pathSize++] = b;
+            label[b] = S_TYPE | VISITED;
+            if (labelEnd[b] == -1) {
+                // Reached the root
+                v = -1;
+            } else {
+                // Jump back via pair edge and then via parent edge
+                v = endpoint[labelEnd[b]];
+                b = inBlossom[v];
+                v = endpoint[labelEnd[b]];
+            }
+            if (w != -1) {
+                int tmp = v;
+                v = w;
+                w = tmp;
+            }
+        }
+        for (int i = 0; i < pathSize; i++) {
+            label[scratch[i]] = S_TYPE;
+        }
+        return base;
+    }
+
+    /**
+     * Shrinks the cycle closed by the edge k into a new S_TYPE blossom.
+     */
+    private void addBlossom(int base, int k) {
+        int v = endpoint[2 * k];
+        int w = endpoint[2 * k + 1];
+        int baseBlossom = inBlossom[base];
+        int b = freeBlossoms[--freeCount];
+        int root = treeRoot[baseBlossom];
+        leaveTree(baseBlossom);
+        blossomBase[b] = base;
+        blossomParent[b] = -1;
+        blossomParent[baseBlossom] = b;
+        firstChild[b] = baseBlossom;
+
+        // Backtrack from v to the base, the children come in the reverse order
+        int count = 0;
+        for (int bv = inBlossom[v]; bv != baseBlossom; bv = inBlossom[endpoint[labelEnd[bv]]]) {
+            blossomParent[bv] = b;
+            leaveTree(bv);
+            scratch[count++] = bv;
+        }
+        int previous = baseBlossom;
+        for (int i = count - 1; i >= 0; i--) {
+            link(previous, scratch[i], labelEnd[scratch[i]]);
+            previous = scratch[i];
+        }
+        // The triggering edge closes the first branch
+        int closing = 2 * k;
+        // Backtrack from w to the base, the children come in the right order
+        for (int bw = inBlossom[w]; bw != baseBlossom; bw = inBlossom[endpoint[labelEnd[bw]]]) {
+            blossomParent[bw] = b;
+            leaveTree(bw);
+            link(previous, bw, closing);
+            previous = bw;
+            closing = labelEnd[bw] ^ 1;
+        }
+        link(previous, baseBlossom, closing);
+
+        label[b] = S_TYPE;
+        labelEnd[b] = labelEnd[baseBlossom];
+        dual[b] = 0;
+        joinTree(b, root);
+
+        // Former T_TYPE vertices become S_TYPE and have to be scanned
+        int leaves = collectLeaves(b, scratch, 0);
+        blossomSize[b] = leaves;
+        int formerT = 0;
+        for (int i = 0; i < leaves; i++) {
+            int leaf = scratch[i];
+            if (label[inBlossom[leaf]] == T_TYPE) {
+                startScan(leaf);
+                scratch[formerT++] = leaf;
+            }
+            // Its edges inside the blossom are not between S_TYPE blossoms any more
+            bestStale[leaf] = true;
+            inBlossom[leaf] = b;
+        }
+        for (int i = 0; i < formerT; i++) {
+            relabelled(scratch[i]);
+        }
+    }
+
+    private void link(int child, int next, int childEndpoint) {
+        ringNext[child] = next;
+        ringPrevious[next] = child;
+        ringEndpoint[child] = childEndpoint;
+    }
+
+    /**
+     * Turns the children of the blossom b into top-level blossoms and recycles b.
+     * In the middle of a stage b is a T_TYPE blossom and the children on its even path get the labels.
+     */
+    private void expandBlossom(int b, boolean endStage) {
+        if (!endStage) {
+            leaveTree(b);
+            markAround(b);
+        }
+        // At the end of a stage the children with zero variable are expanded as well, and so on down
+        int stackSize = 0;
+        workStack[stackSize++] = b;
+        while (stackSize > 0) {
+            int current = workStack[--stackSize];
+            int first = firstChild[current];
+            int child = first;
+            do {
+                int next = ringNext[child];
+                blossomParent[child] = -1;
+                if (child < n) {
+                    inBlossom[child] = child;
+                } else if (endStage && dual[child] <= 0) {
+                    workStack[stackSize++] = child;
+                } else {
+                    int leaves = collectLeaves(child, scratch, 0);
+                    for (int i = 0; i < leaves; i++) {
+                        inBlossom[scratch[i]] = child;
+                    }
+                }
+                child = next;
+            } while (child != first);
+            if (current != b)
+                recycle(current);
+        }
+
+        if (!endStage && label[b] == T_TYPE) {
+            int first = firstChild[b];
+            int entryChild = inBlossom[endpoint[labelEnd[b] ^ 1]];
+            // Go round the blossom in the direction which gives an even path to the base
+            boolean forward = (position(b, entryChild) & 1) != 0;
+            int p = labelEnd[b];
+            int child = entryChild;
+            while (child != first) {
+                // Relabel the T_TYPE sub-blossom
+                int q = directedEndpoint(child, forward);
+                label[endpoint[p ^ 1]] = FREE;
+                label[endpoint[q ^ 1]] = FREE;
+                assignLabel(endpoint[p ^ 1], T_TYPE, p);
+                // Step to the next S_TYPE sub-blossom and note its forward endpoint
+                allowEdge[q >> 1] = true;
+                child = step(child, forward);
+                p = directedEndpoint(child, forward);
+                // Step to the next T_TYPE sub-blossom
+                allowEdge[p >> 1] = true;
+                child = step(child, forward);
+            }
+            // Relabel the base T_TYPE sub-blossom without stepping through to its pair
+            label[endpoint[p ^ 1]] = label[child] = T_TYPE;
+            labelEnd[endpoint[p ^ 1]] = labelEnd[child] = p;
+            joinTree(child, treeRoot[b]);
+
+            // The children on the odd path become T_TYPE only if they are reachable from outside
+            for (child = step(child, forward); child != entryChild; child = step(child, forward)) {
+                if (label[child] == S_TYPE)
+                    continue;
+                int leaves = collectLeaves(child, scratch, 0);
+                for (int i = 0; i < leaves; i++) {
+                    int leaf = scratch[i];
+                    if (label[leaf] != FREE) {
+                        label[leaf] = FREE;
+                        label[endpoint[mate[blossomBase[child]]]] = FREE;
+                        assignLabel(leaf, T_TYPE, labelEnd[leaf]);
+                        break;
+                    }
+                }
+            }
+        }
+
+        recycle(b);
+    }
+
+    private void recycle(int b) {
+        label[b] = FREE;
+        labelEnd[b] = -1;
+        firstChild[b] = -1;
+        blossomBase[b] = -1;
+        freeBlossoms[freeCount++] = b;
+    }
+
+    /**
+     * Swaps matched and unmatched edges inside the blossom b, so that v becomes its base.
+     * The sub-blossoms on the path are augmented in turn from an explicit stack. Every blossom touches only its
+     * own ring and the mates of its path, so the order does not matter.
+     */
+    private void augmentBlossom(int b, int v) {
+        int stackSize = 0;
+        workStack[stackSize++] = b;
+        workStack[stackSize++] = v;
+        while (stackSize > 0) {
+            v = workStack[--stackSize];
+            b = workStack[--stackSize];
+            // Bubble up from v to an immediate child of b
+            int t = v;
+            while (blossomParent[t] != b) {
+                t = blossomParent[t];
+            }
+            if (t >= n) {
+                workStack[stackSize++] = t;
+                workStack[stackSize++] = v;
+            }
+
+            int first = firstChild[b];
+            boolean forward = (position(b, t) & 1) != 0;
+            int child = t;
+            while (child != first) {
+                child = step(child, forward);
+                int p = directedEndpoint(child, forward);
+                if (child >= n) {
+                    workStack[stackSize++] = child;
+                    workStack[stackSize++] = endpoint[p];
+                }
+                child = step(child, forward);
+                if (child >= n) {
+                    workStack[stackSize++] = child;
+                    workStack[stackSize++] = endpoint[p ^ 1];
+                }
+                // Match the edge connecting those children
+                mate[endpoint[p]] = p ^ 1;
+                mate[endpoint[p ^ 1]] = p;
+            }
+            // Rotate the ring to put the new base first, v becomes the base of t as well
+            firstChild[b] = t;
+            blossomBase[b] = v;
+        }
+    }
+
+    /**
+     * Augments the matching along the path through the edge k, which connects two different trees
+     * (or a tree and a free vertex of zero variable).
+     */
+    private void augmentMatching(int k) {
+        augmentToRoot(endpoint[2 * k], 2 * k + 1);
+        augmentToRoot(endpoint[2 * k + 1], 2 * k);
+    }
+
+    /**
+     * Swaps matched and unmatched edges on the path from the S_TYPE vertex s to its root
+     * and matches s by the endpoint p, or leaves it free if p is -1.
+     */
+    private void augmentToRoot(int s, int p) {
+        if (label[inBlossom[s]] != FREE)
+            augmentedTrees[augmentedTreeCount++] = treeRoot[inBlossom[s]];
+        while (true) {
+            int bs = inBlossom[s];
+            if (bs >= n)
+                augmentBlossom(bs, s);
+            mate[s] = p;
+            // Reached the root
+            if (labelEnd[bs] == -1)
+                break;
+            int t = endpoint[labelEnd[bs]];
+            int bt = inBlossom[t];
+            s = endpoint[labelEnd[bt]];
+            int j = endpoint[labelEnd[bt] ^ 1];
+            if (bt >= n)
+                augmentBlossom(bt, j);
+            mate[j] = labelEnd[bt];
+            p = labelEnd[bt] ^ 1;
+        }
+    }
+
+    /**
+     * @return the number of steps from the base child to the given child of b
+     */
+    private int position(int b, int child) {
+        int result = 0;
+        for (int current = firstChild[b]; current != child; current = ringNext[current]) {
+            result++;
+        }
+        return result;
+    }
+
+    private int step(int child, boolean forward) {
+        return forward ? ringNext[child] : ringPrevious[child];
+    }
+
+    /**
+     * @return the endpoint of the child on the edge to its neighbour in the given direction
+     */
+    private int directedEndpoint(int child, boolean forward) {
+        return forward ? ringEndpoint[child] : ringEndpoint[ringPrevious[child]] ^ 1;
+    }
+
+    /**
+     * Writes all vertices of the blossom b into the buffer, without recursion.
+     *
+     * @return the new size of the buffer
+     */
+    private int collectLeaves(int b, int[] buffer, int size) {
+        if (b < n) {
+            buffer[size++] = b;
+            return size;
+        }
+        int current = firstChild[b];
+        while (true) {
+            // Descend to the first vertex
+            while (current >= n) {
+                current = firstChild[current];
+            }
+            buffer[size++] = current;
+            // Go to the next sibling, or up if the ring is done
+            while (true) {
+                int parent = blossomParent[current];
+                int next = ringNext[current];
+                if (next != firstChild[parent]) {
+                    current = next;
+                    break;
+                }
+                if (parent == b)
+                    return size;
+                current = parent;
+            }
+        }
+    }
+
+    /**
+     * @return the weight of the current matching
+     */
+    public double getMatchingWeight() {
+        double result = 0;
+        for (int v = 0; v < n; v++) {
+            if (mate[v] != -1 && v < endpoint[mate[v]])
+                result += weight[mate[v] >> 1];
+        }
+        return result;
+    }
+
+    /**
+     * @return the dual objective, which bounds the weight of every matching since the variables are feasible
+     */
+    public double getDualBound() {
+        double result = 0;
+        for (int v = 0; v < n; v++) {
+            result += dual[v] / 2;
+        }
+        for (int b = n; b < 2 * n; b++) {
+            if (blossomBase[b] >= 0)
+                result += dual[b] * (blossomSize[b] / 2);
+        }
+        return result;
+    }
+
+    public int getVertexCount() {
+        return n;
+    }
+
+    /**
+     * @return the number of edges examined from S_TYPE vertices to grow the trees so far
+     */
+    public long getScannedEdges() {
+        return scannedEdges;
+    }
+
+    /**
+     * @return the vertex matched with v, or -1
+     */
+    public int getMate(int v) {
+        return mate[v] == -1 ? -1 : endpoint[mate[v]];
+    }
+
+    /**
+     * @return the edge matched at v, or -1
+     */
+    public int getMatchedEdge(int v) {
+        return mate[v] == -1 ? -1 : mate[v] >> 1;
+    }
+
+    /**
+     * @return the variable of the vertex in the units of the weights
+     */
+    public double getVariable(int v) {
+        return dual[v] / 2;
+    }
+
+    /**
+     * @return the slack of an edge between u and v of the given weight, including the variables of
+     * the blossoms which contain both ends
+     */
+    public double slack(int u, int v, double edgeWeight) {
+        double result = (dual[u] + dual[v]) / 2 - edgeWeight;
+        if (inBlossom[u] != inBlossom[v])
+            return result;
+        // The blossoms which contain both ends are the least common one and those above it
+        int depthU = depth(u);
+        int depthV = depth(v);
+        for (; depthU > depthV; depthU--) {
+            u = blossomParent[u];
+        }
+        for (; depthV > depthU; depthV--) {
+            v = blossomParent[v];
+        }
+        while (u != v) {
+            u = blossomParent[u];
+            v = blossomParent[v];
+        }
+        for (int b = u; b != -1; b = blossomParent[b]) {
+            if (b >= n)
+                result += dual[b];
+        }
+        return result;
+    }
+
+    private int depth(int v) {
+        int result = 0;
+        for (int b = blossomParent[v]; b != -1; b = blossomParent[b]) {
+            result++;
+        }
+        return result;
+    }
+
+    /**
+     * Minima of the four deltas with the edge, vertex or blossom which gives them.
+     * The ties are broken by the least argument, so the result doesn't depend on the split.
+     */
+    private static class Deltas {
+        final double[] values = {Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY,
+                Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY};
+        final int[] arguments = {-1, -1, -1, -1};
+
+        void clear() {
+            Arrays.fill(values, Double.POSITIVE_INFINITY);
+            Arrays.fill(arguments, -1);
+        }
+
+        void offer(int type, double value, int argument) {
+            if (value < values[type] || (value == values[type] && argument < arguments[type])) {
+                values[type] = value;
+                arguments[type] = argument;
+            }
+        }
+
+        void merge(Deltas other) {
+            for (int type = 0; type < values.length; type++) {
+                if (other.arguments[type] != -1)
+                    offer(type, other.values[type], other.arguments[type]);
+            }
+        }
+
+        /**
+         * @return the type of the least delta, the first one wins the ties, or -1 if there is none
+         */
+        int type() {
+            int result = -1;
+            for (int type = 0; type < values.length; type++) {
+                if (arguments[type] != -1 && (result == -1 || values[type] < values[result]))
+                    result = type;
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Computes all four deltas in a single pass over a range of the vertices and blossoms of the forest.
+     * The range is split in halves until it is small enough, the halves keep their own minima.
+     */
+    private static class DeltaScan extends RecursiveTask<Deltas> {
+        private static final long serialVersionUID = 1L;
+        private static final int CHUNK_SIZE = 1 << 12;
+
+        private final MatchingEngine engine;
+        private final int from, to;
+
+        DeltaScan(MatchingEngine engine, int from, int to) {
+            this.engine = engine;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Deltas compute() {
+            if (to - from <= CHUNK_SIZE) {
+                var result = new Deltas();
+                scan(engine, from, to, result);
+                return result;
+            }
+            int middle = (from + to) >>> 1;
+            var left = new DeltaScan(engine, from, middle);
+            left.fork();
+            var right = new DeltaScan(engine, middle, to).compute();
+            var result = left.join();
+            result.merge(right);
+            return result;
+        }
+
+        /**
+         * Offers the deltas of the vertices and blossoms of the forest at from..to-1 to the result.
+         */
+        static void scan(MatchingEngine e, int from, int to, Deltas result) {
+            for (int f = from; f < to; f++) {
+                int u = e.forest[f];
+                if (u >= e.n) {
+                    // Minimum over all root T_TYPE blossoms
+                    if (e.label[u] == T_TYPE)
+                        result.offer(3, e.dual[u], u);
+                    continue;
+                }
+                // Edges must go from real S_TYPE
+                if (e.label[e.inBlossom[u]] != S_TYPE)
+                    continue;
+                // Minimum over all real S_TYPEs
+                result.offer(0, e.dual[u], u);
+
+                // Edges to unmarked vertices and to other S_TYPE blossoms, the least of them are kept
+                if (e.bestStale[u])
+                    e.findBestEdges(u);
+                int k = e.bestFreeEdge[u];
+                if (k != -1)
+                    result.offer(1, e.slack(k), k);
+                k = e.bestSEdge[u];
+                if (k != -1)
+                    result.offer(2, e.slack(k) / 2, k);
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package fr.ladybug;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+
+/**
+ * A solved graph which answers "what if these edges weighed this much" without solving it again.
+ * <p>
+ * Every question runs on a {@link MatchingEngine#fork()} of the solved engine: the fork shares the edges, the
+ * weights and the solution of the base copy-on-write, takes the new weights by
+ * {@link MatchingEngine#setWeight(int, double)} and runs the stages from the old optimum. A change which keeps
+ * the old matching optimal copies nothing but the weights. The base is never changed, so the questions are
+ * answered on several threads at once.
+ */
+public class MatchingSnapshot {
+    private final MatchingEngine engine;
+    private final double weight;
+
+    private MatchingSnapshot(MatchingEngine engine) {
+        this.engine = engine;
+        this.weight = engine.getMatchingWeight();
+    }
+
+    /**
+     * Solves the graph, loops are dropped and of parallel edges the heaviest one is kept. The arrays are reused.
+     */
+    public static MatchingSnapshot solve(int n, int[] from, int[] to, double[] weights) {
+        var edges = EdgeNormalizer.normalize(from, to, weights);
+        var engine = new MatchingEngine(n, edges.getFrom(), edges.getTo(), edges.getWeights());
+        engine.initializeVariables();
+        while (engine.stage()) {
+        }
+        return new MatchingSnapshot(engine);
+    }
+
+    /**
+     * The new weight of the edge between u and v.
+     */
+    public static class Change {
+        private final int u;
+        private final int v;
+        private final double weight;
+
+        public Change(int u, int v, double weight) {
+            this.u = u;
+            this.v = v;
+            this.weight = weight;
+        }
+
+        public int getU() {
+            return u;
+        }
+
+        public int getV() {
+            return v;
+        }
+
+        public double getWeight() {
+            return weight;
+        }
+    }
+
+    public static class Result {
+        private final MatchingEngine engine;
+        private final double weight;
+        private final double delta;
+
+        Result(MatchingEngine engine, double baseWeight) {
+            this.engine = engine;
+            this.weight = engine.getMatchingWeight();
+            this.delta = weight - baseWeight;
+        }
+
+        /**
+         * @return the maximum weight with the changes
+         */
+        public double getWeight() {
+            return weight;
+        }
+
+        /**
+         * @return the maximum weight with the changes less the one without them
+         */
+        public double getDelta() {
+            return delta;
+        }
+
+        /**
+         * @return the vertex matched with v with the changes, or -1
+         */
+        public int getMate(int v) {
+            return engine.getMate(v);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("weight %s, delta %s", MatchingWriter.formatWeight(weight),
+                    MatchingWriter.formatWeight(delta));
+        }
+    }
+
+    /**
+     * @return the maximum weight of the graph as it was solved
+     */
+    public double getWeight() {
+        return weight;
+    }
+
+    /**
+     * @return the vertex matched with v, or -1
+     */
+    public int getMate(int v) {
+        return engine.getMate(v);
+    }
+
+    /**
+     * Answers a single question on the calling thread.
+     *
+     * @throws IllegalArgumentException if a change names a pair of vertices without an edge
+     */
+    public Result evaluate(List<Change> changes) {
+        return evaluate(engine.fork(), changes);
+    }
+
+    /**
+     * Answers the questions on the given number of threads, the results are in the order of the questions.
+     *
+     * @throws IllegalArgumentException if a change names a pair of vertices without an edge
+     */
+    public List<Result> evaluateAll(List<List<Change>> scenarios, int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("At least one thread is required.");
+        }
+        // The forks are made here, only the changes and the stages run on the threads
+        var tasks = new ArrayList<Callable<Result>>();
+        for (var changes : scenarios) {
+            var fork = engine.fork();
+            tasks.add(() -> evaluate(fork, changes));
+        }
+        var pool = Executors.newFixedThreadPool(threads);
+        try {
+            var results = new ArrayList<Result>();
+            for (var future : pool.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The evaluation was interrupted.");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException)e.getCause();
+            if (e.getCause() instanceof Error)
+                throw (Error)e.getCause();
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private Result evaluate(MatchingEngine fork, List<Change> changes) {
+        for (var change : changes) {
+            int k = change.u < 0 || change.u >= engine.getVertexCount() ? -1 : fork.findEdge(change.u, change.v);
+            if (k == -1) {
+                throw new IllegalArgumentException("There is no edge between " + change.u + " and " + change.v +
+                        ".");
+            }
+            fork.setWeight(k, change.weight);
+        }
+        while (fork.stage()) {
+        }
+        return new Result(fork, weight);
+    }
+}
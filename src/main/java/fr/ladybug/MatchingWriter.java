@@ -0,0 +1,117 @@
+package fr.ladybug;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+
+/**
+ * Writes a matching straight from its array of pairs, {@code mate[v]} is the vertex matched with v or -1.
+ * No list of edges and no string per pair is made, the bytes go through a buffer of a megabyte.
+ * <ul>
+ * <li>{@link Format#WEIGHT}: the weight and a line feed;</li>
+ * <li>{@link Format#PAIRS}: the weight on the first line, then a line {@code u v} for every pair,
+ * {@code u < v}, by u;</li>
+ * <li>{@link Format#BINARY}: the pairs u, v by u, as int32 written by {@link java.io.DataOutputStream}.</li>
+ * </ul>
+ */
+public class MatchingWriter {
+    private static final int BUFFER_SIZE = 1 << 20;
+    // Two vertices of ten digits, a space and a line feed
+    private static final int PAIR_BYTES = 2 * 10 + 2;
+
+    public enum Format {
+        WEIGHT,
+        PAIRS,
+        BINARY
+    }
+
+    private final OutputStream out;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int size = 0;
+
+    private MatchingWriter(OutputStream out) {
+        this.out = out;
+    }
+
+    /**
+     * Writes and flushes the stream, but leaves it open.
+     */
+    public static void write(Format format, double weight, int[] mate, OutputStream out) throws IOException {
+        var writer = new MatchingWriter(out);
+        if (format != Format.BINARY) {
+            writer.writeAscii(formatWeight(weight));
+            writer.writeByte('\n');
+        }
+        if (format != Format.WEIGHT) {
+            for (int u = 0; u < mate.length; u++) {
+                int v = mate[u];
+                if (v <= u)
+                    continue;
+                if (writer.size + PAIR_BYTES > BUFFER_SIZE)
+                    writer.flushBuffer();
+                if (format == Format.PAIRS) {
+                    writer.writeInt(u);
+                    writer.writeByte(' ');
+                    writer.writeInt(v);
+                    writer.writeByte('\n');
+                } else {
+                    writer.writeInt32(u);
+                    writer.writeInt32(v);
+                }
+            }
+        }
+        writer.flushBuffer();
+        out.flush();
+    }
+
+    /**
+     * @return the weight without a fraction if it is an integer, otherwise the shortest decimal which reads back
+     * as the same double, never in the scientific notation
+     */
+    public static String formatWeight(double weight) {
+        if (weight == Math.rint(weight) && Math.abs(weight) < 0x1p63)
+            return Long.toString((long)weight);
+        return BigDecimal.valueOf(weight).toPlainString();
+    }
+
+    private void writeAscii(String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            if (size == BUFFER_SIZE)
+                flushBuffer();
+            buffer[size++] = (byte)text.charAt(i);
+        }
+    }
+
+    private void writeByte(int value) throws IOException {
+        if (size == BUFFER_SIZE)
+            flushBuffer();
+        buffer[size++] = (byte)value;
+    }
+
+    /**
+     * Writes the decimal digits of a vertex, which is not negative.
+     */
+    private void writeInt(int value) {
+        int digits = 1;
+        for (int rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        for (int i = size + digits - 1; i >= size; i--) {
+            buffer[i] = (byte)('0' + value % 10);
+            value /= 10;
+        }
+        size += digits;
+    }
+
+    private void writeInt32(int value) {
+        buffer[size++] = (byte)(value >>> 24);
+        buffer[size++] = (byte)(value >>> 16);
+        buffer[size++] = (byte)(value >>> 8);
+        buffer[size++] = (byte)value;
+    }
+
+    private void flushBuffer() throws IOException {
+        out.write(buffer, 0, size);
+        size = 0;
+    }
+}
@@ -0,0 +1,191 @@
+package fr.ladybug;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+
+/**
+ * The minimum cost perfect matching, by {@link PerfectMatchingEngine}.
+ * <p>
+ * The engine works on the costs themselves, its variables are near the costs and not near a large constant, so it
+ * loses no digits of them; the cost of the matching is summed from the costs, and the lower bound is the dual
+ * bound of the engine. Loops are dropped and of parallel edges the cheapest one is kept.
+ * <p>
+ * A graph without a perfect matching is rejected before the engine runs when the reason is simple: an odd number
+ * of vertices, a vertex without edges or a connected component with an odd number of vertices. Otherwise the
+ * engine finds an alternating tree whose variables can grow without bound.
+ */
+public class MinCostPerfectMatching {
+    private final int n;
+    private final int[] mate;
+    private final double cost;
+    private final double lowerBound;
+
+    private MinCostPerfectMatching(int n, int[] mate, double cost, double lowerBound) {
+        this.n = n;
+        this.mate = mate;
+        this.cost = cost;
+        this.lowerBound = lowerBound;
+    }
+
+    /**
+     * The arrays are reused.
+     *
+     * @throws IllegalArgumentException if the graph has no perfect matching
+     */
+    public static MinCostPerfectMatching solve(int n, int[] from, int[] to, double[] costs) {
+        for (int i = 0; i < from.length; i++) {
+            if (from[i] < 0 || from[i] >= n || to[i] < 0 || to[i] >= n) {
+                throw new IllegalArgumentException("The edge " + from[i] + " " + to[i] + " has an end out of range.");
+            }
+        }
+        checkStructure(n, from, to);
+
+        // The heaviest of the negated costs of parallel edges is the cheapest one, the negation is exact
+        var negated = new double[costs.length];
+        for (int i = 0; i < costs.length; i++) {
+            negated[i] = -costs[i];
+        }
+        var edges = EdgeNormalizer.normalize(from, to, negated);
+        from = edges.getFrom();
+        to = edges.getTo();
+        negated = edges.getWeights();
+        var cost = new double[from.length];
+        for (int i = 0; i < from.length; i++) {
+            cost[i] = -negated[i];
+        }
+        var engine = new PerfectMatchingEngine(n, from, to, cost);
+        engine.solve();
+
+        var mate = new int[n];
+        for (int v = 0; v < n; v++) {
+            mate[v] = engine.getMate(v);
+        }
+        double total = 0;
+        for (int v = 0; v < n; v++) {
+            if (mate[v] > v)
+                total += cost[engine.getMatchedEdge(v)];
+        }
+        return new MinCostPerfectMatching(n, mate, total, engine.getDualBound());
+    }
+
+    /**
+     * Rejects the graphs whose perfect matchings are excluded by the parity of their components.
+     */
+    private static void checkStructure(int n, int[] from, int[] to) {
+        if (n % 2 != 0) {
+            throw new IllegalArgumentException("The graph has no perfect matching, the number of vertices is odd.");
+        }
+        var parent = new int[n];
+        var size = new int[n];
+        var degree = new int[n];
+        for (int v = 0; v < n; v++) {
+            parent[v] = v;
+            size[v] = 1;
+        }
+        for (int i = 0; i < from.length; i++) {
+            if (from[i] == to[i])
+                continue;
+            degree[from[i]]++;
+            degree[to[i]]++;
+            int u = find(parent, from[i]);
+            int v = find(parent, to[i]);
+            if (u == v)
+                continue;
+            if (size[u] < size[v]) {
+                int tmp = u;
+                u = v;
+                v = tmp;
+            }
+            parent[v] = u;
+            size[u] += size[v];
+        }
+        for (int v = 0; v < n; v++) {
+            if (degree[v] == 0) {
+                throw new IllegalArgumentException("The graph has no perfect matching, vertex " + v +
+                        " has no edges.");
+            }
+            if (parent[v] == v && size[v] % 2 != 0) {
+                throw new IllegalArgumentException("The graph has no perfect matching, the component of vertex " +
+                        v + " has " + size[v] + " vertices.");
+            }
+        }
+    }
+
+    private static int find(int[] parent, int v) {
+        while (parent[v] != v) {
+            parent[v] = parent[parent[v]];
+            v = parent[v];
+        }
+        return v;
+    }
+
+    /**
+     * Reads a graph in the text format, plain or gzip-compressed, where the weights are the costs, and solves it.
+     */
+    public static MinCostPerfectMatching read(InputStream stream) {
+        Scanner in;
+        try {
+            in = new Scanner(GraphReader.decompressed(stream));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        int n;
+        int[] from;
+        int[] to;
+        double[] costs;
+        try {
+            n = in.nextInt();
+            int m = in.nextInt();
+            from = new int[m];
+            to = new int[m];
+            costs = new double[m];
+            for (int i = 0; i < m; i++) {
+                from[i] = in.nextInt();
+                to[i] = in.nextInt();
+                costs[i] = in.nextDouble();
+            }
+        } catch (NoSuchElementException e) {
+            // The scanner stops at an error of the stream as if it was the end
+            if (in.ioException() != null)
+                throw new UncheckedIOException(in.ioException());
+            throw e;
+        }
+        return solve(n, from, to, costs);
+    }
+
+    public int getVertexCount() {
+        return n;
+    }
+
+    /**
+     * @return the vertex matched with v
+     */
+    public int getMate(int v) {
+        return mate[v];
+    }
+
+    /**
+     * @return a copy of the pairs of all vertices
+     */
+    public int[] getMates() {
+        return Arrays.copyOf(mate, mate.length);
+    }
+
+    /**
+     * @return the total cost of the matched edges
+     */
+    public double getCost() {
+        return cost;
+    }
+
+    /**
+     * @return the dual bound of the engine, no perfect matching costs less; equal to the cost up to the tolerance
+     */
+    public double getLowerBound() {
+        return lowerBound;
+    }
+}
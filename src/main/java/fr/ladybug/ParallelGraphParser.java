@@ -0,0 +1,349 @@
+package fr.ladybug;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Parses a graph file on several threads. The edges, one per line, are split into byte ranges which start after
+ * a line break, every range is mapped and parsed into its own arrays, then the arrays are merged into
+ * {@link CsrEdges} by a counting sort on the source vertex.
+ * <p>
+ * The sort is done in two steps, so that no thread needs a counter for every vertex: the parts scatter their edges
+ * into blocks of consecutive sources, part after part, then every block is sorted on its own. Both steps are
+ * stable, so the edges of a vertex stay in the order of the file and the result does not depend on the number of
+ * threads.
+ */
+public class ParallelGraphParser {
+    // Every range is mapped on its own, so it must stay far from the limit of a buffer
+    private static final long MAX_CHUNK = 1 << 30;
+    private static final int CHUNKS_PER_THREAD = 4;
+    // At most 2^12 blocks of sources
+    private static final int BLOCK_BITS = 12;
+    private static final int HEADER_BYTES = 64;
+    private static final long EXACT_MANTISSA = 1L << 53;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private interface Source {
+        ByteBuffer get(long start, long end) throws IOException;
+    }
+
+    private ParallelGraphParser() {
+    }
+
+    public static CsrEdges parse(Path file, int threads) throws IOException {
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return parse(channel.size(),
+                    (start, end) -> channel.map(FileChannel.MapMode.READ_ONLY, start, end - start), threads);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    public static CsrEdges parse(byte[] data, int threads) {
+        try {
+            return parse(data.length, (start, end) -> ByteBuffer.wrap(data, (int)start, (int)(end - start)).slice(),
+                    threads);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static CsrEdges parse(long size, Source source, int threads) throws IOException {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("At least one thread is required.");
+        }
+        var header = new Tokenizer(source.get(0, Math.min(size, HEADER_BYTES)));
+        int n = header.nextInt();
+        int m = header.nextInt();
+        if (n < 0 || m < 0) {
+            throw new IllegalArgumentException("The numbers of vertices and edges must not be negative.");
+        }
+        long edgesStart = header.position;
+
+        int chunks = (int)Math.max((long)threads * CHUNKS_PER_THREAD, (size - edgesStart) / MAX_CHUNK + 1);
+        var bounds = new long[chunks + 1];
+        bounds[0] = edgesStart;
+        bounds[chunks] = size;
+        for (int c = 1; c < chunks; c++) {
+            long nominal = edgesStart + (size - edgesStart) * c / chunks;
+            bounds[c] = nextLine(source, size, Math.max(bounds[c - 1], nominal));
+        }
+
+        var pool = new ForkJoinPool(threads);
+        try {
+            var parts = new Part[chunks];
+            ParallelLoops.forEach(pool, chunks, c -> {
+                try {
+                    parts[c] = Part.parse(source.get(bounds[c], bounds[c + 1]), n);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            var hash = new GraphHash(n);
+            long total = 0;
+            for (var part : parts) {
+                total += part.size;
+                hash.addAll(part.hash);
+            }
+            if (total != m) {
+                throw new IllegalArgumentException("The file has " + total + " edges instead of " + m + ".");
+            }
+            return merge(pool, n, m, parts, hash);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * @return the position after the first line break at or after the given one, or the end
+     */
+    private static long nextLine(Source source, long size, long position) throws IOException {
+        while (position < size) {
+            var window = source.get(position, Math.min(size, position + 4096));
+            for (int i = 0; i < window.limit(); i++) {
+                if (window.get(i) == '\n')
+                    return position + i + 1;
+            }
+            position += window.limit();
+        }
+        return size;
+    }
+
+    private static CsrEdges merge(ForkJoinPool pool, int n, int m, Part[] parts, GraphHash hash) {
+        var offsets = new int[n + 1];
+        if (n == 0)
+            return new CsrEdges(0, offsets, new int[0], new double[0], hash);
+
+        int bits = 32 - Integer.numberOfLeadingZeros(n - 1);
+        int shift = Math.max(0, bits - BLOCK_BITS);
+        int blocks = ((n - 1) >> shift) + 1;
+
+        // Scatter the parts into the blocks, the part of a lesser index goes first in every block
+        var counts = new int[parts.length][];
+        ParallelLoops.forEach(pool, parts.length, c -> {
+            counts[c] = new int[blocks];
+            var part = parts[c];
+            for (int i = 0; i < part.size; i++) {
+                counts[c][part.from[i] >> shift]++;
+            }
+        });
+        var blockStart = new int[blocks + 1];
+        var starts = new int[parts.length][blocks];
+        int position = 0;
+        for (int b = 0; b < blocks; b++) {
+            blockStart[b] = position;
+            for (int c = 0; c < parts.length; c++) {
+                starts[c][b] = position;
+                position += counts[c][b];
+            }
+        }
+        blockStart[blocks] = position;
+
+        var from = new int[m];
+        var to = new int[m];
+        var weight = new double[m];
+        ParallelLoops.forEach(pool, parts.length, c -> {
+            var part = parts[c];
+            var fill = starts[c];
+            for (int i = 0; i < part.size; i++) {
+                int target = fill[part.from[i] >> shift]++;
+                from[target] = part.from[i];
+                to[target] = part.to[i];
+                weight[target] = part.weight[i];
+            }
+            // The part is not needed anymore
+            parts[c] = null;
+        });
+
+        // Every block is sorted by its sources on its own
+        var targets = new int[m];
+        var weights = new double[m];
+        ParallelLoops.forEach(pool, blocks, b -> {
+            int first = b << shift;
+            int last = (int)Math.min(n, (long)(b + 1) << shift);
+            var fill = new int[last - first + 1];
+            for (int i = blockStart[b]; i < blockStart[b + 1]; i++) {
+                fill[from[i] - first + 1]++;
+            }
+            fill[0] = blockStart[b];
+            for (int v = 1; v <= last - first; v++) {
+                fill[v] += fill[v - 1];
+            }
+            System.arraycopy(fill, 0, offsets, first, last - first);
+            for (int i = blockStart[b]; i < blockStart[b + 1]; i++) {
+                int target = fill[from[i] - first]++;
+                targets[target] = to[i];
+                weights[target] = weight[i];
+            }
+        });
+        offsets[n] = m;
+        return new CsrEdges(n, offsets, targets, weights, hash);
+    }
+
+    /**
+     * The edges of one byte range, in the order of the file.
+     */
+    private static class Part {
+        private int size = 0;
+        private int[] from;
+        private int[] to;
+        private double[] weight;
+        private GraphHash hash;
+
+        static Part parse(ByteBuffer buffer, int n) {
+            var part = new Part();
+            // A typical line takes more than twelve bytes, the arrays grow if it does not
+            int capacity = buffer.limit() / 12 + 16;
+            part.from = new int[capacity];
+            part.to = new int[capacity];
+            part.weight = new double[capacity];
+            part.hash = new GraphHash(n);
+
+            var tokenizer = new Tokenizer(buffer);
+            while (tokenizer.hasNext()) {
+                int u = tokenizer.nextInt();
+                int v = tokenizer.nextInt();
+                double w = tokenizer.nextDouble();
+                if (u < 0 || u >= n || v < 0 || v >= n) {
+                    throw new IllegalArgumentException("The edge " + u + " " + v + " has an end out of range.");
+                }
+                if (part.size == part.from.length) {
+                    part.from = Arrays.copyOf(part.from, 2 * part.size);
+                    part.to = Arrays.copyOf(part.to, 2 * part.size);
+                    part.weight = Arrays.copyOf(part.weight, 2 * part.size);
+                }
+                part.from[part.size] = u;
+                part.to[part.size] = v;
+                part.weight[part.size] = w;
+                part.size++;
+                part.hash.add(u, v, w);
+            }
+            return part;
+        }
+    }
+
+    /**
+     * Reads the numbers of a buffer without making strings, except for the doubles which are not plain decimals.
+     */
+    private static class Tokenizer {
+        private final ByteBuffer buffer;
+        private final int limit;
+        private int position = 0;
+
+        Tokenizer(ByteBuffer buffer) {
+            this.buffer = buffer;
+            this.limit = buffer.limit();
+        }
+
+        boolean hasNext() {
+            skipSpaces();
+            return position < limit;
+        }
+
+        private void skipSpaces() {
+            while (position < limit && buffer.get(position) <= ' ') {
+                position++;
+            }
+        }
+
+        private boolean atTokenEnd() {
+            return position >= limit || buffer.get(position) <= ' ';
+        }
+
+        int nextInt() {
+            int start = tokenStart();
+            boolean negative = position < limit && buffer.get(position) == '-';
+            if (negative || position < limit && buffer.get(position) == '+')
+                position++;
+            long value = 0;
+            int digits = 0;
+            while (position < limit && buffer.get(position) >= '0' && buffer.get(position) <= '9') {
+                value = 10 * value + (buffer.get(position++) - '0');
+                if (++digits > 10)
+                    break;
+            }
+            if (negative)
+                value = -value;
+            if (digits == 0 || digits > 10 || !atTokenEnd() || value != (int)value) {
+                throw malformed(start);
+            }
+            return (int)value;
+        }
+
+        double nextDouble() {
+            int start = tokenStart();
+            boolean negative = position < limit && buffer.get(position) == '-';
+            if (negative || position < limit && buffer.get(position) == '+')
+                position++;
+            long mantissa = 0;
+            int digits = 0;
+            int fractionDigits = 0;
+            boolean fraction = false;
+            while (position < limit) {
+                byte c = buffer.get(position);
+                if (c >= '0' && c <= '9') {
+                    mantissa = 10 * mantissa + (c - '0');
+                    digits++;
+                    if (fraction)
+                        fractionDigits++;
+                } else if (c == '.' && !fraction) {
+                    fraction = true;
+                } else {
+                    break;
+                }
+                position++;
+                // Too long to be exact, the slow path decides
+                if (digits > 18)
+                    break;
+            }
+            // Both the mantissa and the power of ten are exact, so a single division rounds correctly
+            if (digits > 0 && digits <= 18 && atTokenEnd() && mantissa <= EXACT_MANTISSA &&
+                    fractionDigits < POWERS_OF_TEN.length) {
+                double value = mantissa / POWERS_OF_TEN[fractionDigits];
+                return negative ? -value : value;
+            }
+            while (!atTokenEnd()) {
+                position++;
+            }
+            try {
+                return Double.parseDouble(text(start, position));
+            } catch (NumberFormatException e) {
+                throw malformed(start);
+            }
+        }
+
+        private int tokenStart() {
+            skipSpaces();
+            if (position >= limit) {
+                throw new IllegalArgumentException("The input ends in the middle of an edge.");
+            }
+            return position;
+        }
+
+        private String text(int start, int end) {
+            var bytes = new byte[end - start];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = buffer.get(start + i);
+            }
+            return new String(bytes, StandardCharsets.US_ASCII);
+        }
+
+        private IllegalArgumentException malformed(int start) {
+            while (!atTokenEnd()) {
+                position++;
+            }
+            var token = text(start, Math.min(position, start + 32));
+            return new IllegalArgumentException("Unexpected token: " + token + ".");
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package fr.ladybug;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Runs the iterations of a loop on a fork-join pool of the caller's size, shared by the parser and the generator.
+ */
+final class ParallelLoops {
+    private ParallelLoops() {
+    }
+
+    /**
+     * Runs the action for 0..count-1 on the pool and waits for all of them. An exception of an action is thrown
+     * as it is.
+     */
+    static void forEach(ForkJoinPool pool, int count, IntConsumer action) {
+        try {
+            pool.submit(() -> IntStream.range(0, count).parallel().forEach(action)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the pool.");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException)e.getCause();
+            if (e.getCause() instanceof Error)
+                throw (Error)e.getCause();
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,1324 @@
+package fr.ladybug;
+
+import java.util.Arrays;
+
+/**
+ * The minimum cost perfect matching by the primal-dual blossom algorithm in the way of Blossom V
+ * (V. Kolmogorov, Blossom V: a new implementation of a minimum cost perfect matching algorithm, 2009), over flat
+ * arrays.
+ * <p>
+ * Vertices have ids 0..n-1, blossoms have ids n..2n-1 which are recycled. A node is a vertex or a blossom; the
+ * children of a blossom are linked in a cycle by {@code cycleNext}, {@code cycleEdge[c]} is the edge from c to the
+ * next child. Every vertex has the variable y(v), every blossom the variable y(B) >= 0, and the slack of an edge
+ * is its cost less the variables of the nodes around exactly one of its ends, it is never negative.
+ * <p>
+ * {@link #initialize(int[])} finds a fractional matching which leaves few vertices free, and every free node is the
+ * root of an alternating tree. Unlike a forest with a single step of the variables:
+ * <ul>
+ * <li>Every tree has its own step eps. The stored variable of a node of a tree is the real one less eps for
+ * S_TYPE and plus eps for T_TYPE, so a step of a tree touches none of its nodes; the slack of an edge is stored in
+ * the same way, see {@link #realSlack(int)}.</li>
+ * <li>The edges which limit the step of a tree are in priority queues keyed by their stored slack: its edges to
+ * free nodes, between its own S_TYPE nodes, and its T_TYPE blossoms by their variables. Every pair of trees has a
+ * queue of the edges between their S_TYPE nodes and one for each direction from S_TYPE to T_TYPE nodes.</li>
+ * <li>The trees joined by tight edges from S_TYPE to T_TYPE nodes step together, every other group by as much
+ * as its queues and the steps already chosen allow, see {@link #updateDuals()}.</li>
+ * </ul>
+ * A tree grows along its tight edges until none is left, and only the trees of an augmentation are taken apart.
+ */
+public class PerfectMatchingEngine {
+    // Tolerance on the slacks and the variables
+    static final double EPS = 1e-9;
+
+    private static final int INNER = 0;
+    private static final int FREE = 1;
+    private static final int S_TYPE = 2;
+    private static final int T_TYPE = 3;
+
+    private final int n, m;
+    private final int[] endpoint;
+    private final double[] cost;
+    private final int[] neighbourStart;
+    private final int[] neighbourEnd;
+
+    // Stored slack of an edge between top-level nodes; of an edge inside a blossom, the real slack between the
+    // children of the blossom
+    private final double[] slack;
+    // Stored variable of a top-level node, the real one of the others
+    private final double[] y;
+    private final int[] label;
+    private final int[] tree;
+    // Matched edge of a top-level node, or of a child with another child of its blossom, or -1
+    private final int[] match;
+    // Edge of a T_TYPE node to its parent
+    private final int[] parentEdge;
+    // The list of the T_TYPE children of a S_TYPE node, or the S_TYPE child of a T_TYPE node
+    private final int[] treeChild;
+    private final int[] treeNext;
+    private final int[] treePrevious;
+    private final int[] blossomParent;
+    private final int[] cycleNext;
+    private final int[] cycleEdge;
+    // A child of a blossom, or -1 for a free id
+    private final int[] anyChild;
+    // The vertices of a node are listed from leafFirst through leafNext to leafLast
+    private final int[] leafFirst;
+    private final int[] leafLast;
+    private final int[] leafNext;
+    // Top-level node of every vertex
+    private final int[] outer;
+    private final int[] freeBlossoms;
+    private int freeCount;
+
+    // Trees are never planted after the start, so their ids are not recycled
+    private int[] treeRoot;
+    private double[] eps;
+    // Head of the list of the pairs of the tree
+    private int[] treePairs;
+    private int[] trees;
+    private int[] treePosition;
+    private int treeCount;
+
+    // A pair P of trees has the sides 2P and 2P+1, every side is in the list of the pairs of its tree
+    private int[] pairTree = new int[0];
+    private int[] pairNext = new int[0];
+    private int[] pairPrevious = new int[0];
+    private int[] freePairs = new int[0];
+    private int freePairCount;
+    private int pairCount;
+    // The tree whose pairs are marked in the other trees, so that pairOf() finds them at once
+    private int markedTree = -1;
+    private int[] markStamp;
+    private int[] markSide;
+    private int stamp;
+
+    // The queues of edges: slot 2t for the edges of tree t to free nodes, 2t+1 between its S_TYPE nodes, and
+    // pairSlot(P) + 0, 1, 2 between the S_TYPE nodes of pair P, and from S_TYPE nodes of its side 0 or 1 to T_TYPE
+    // nodes of the other one
+    private Heaps edges;
+    // The queue of the T_TYPE blossoms of tree t is in slot t
+    private Heaps nodes;
+    // Edges between S_TYPE nodes of two trees found tight, to check before the next step
+    private int[] tight = new int[16];
+    private int tightCount;
+
+    // The relabelled nodes whose edges are still to move, with their former steps
+    private final int[] changed;
+    private int changedCount;
+    private final double[] formerEps;
+    private final int[] scratch;
+    private final int[] nodeMark;
+    private int markCounter;
+
+    // Steps of updateDuals()
+    private double[] bound;
+    private double[] step;
+    private int[] component;
+    private int[] memberNext;
+    private boolean[] stepped;
+
+    public PerfectMatchingEngine(int n, int[] from, int[] to, double[] costs) {
+        this.n = n;
+        this.m = from.length;
+        endpoint = new int[2 * m];
+        cost = Arrays.copyOf(costs, m);
+        neighbourStart = new int[n + 1];
+        neighbourEnd = new int[2 * m];
+        for (int k = 0; k < m; k++) {
+            endpoint[2 * k] = from[k];
+            endpoint[2 * k + 1] = to[k];
+            neighbourStart[from[k] + 1]++;
+            neighbourStart[to[k] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            neighbourStart[v + 1] += neighbourStart[v];
+        }
+        var fill = Arrays.copyOf(neighbourStart, n);
+        for (int k = 0; k < m; k++) {
+            neighbourEnd[fill[from[k]]++] = 2 * k + 1;
+            neighbourEnd[fill[to[k]]++] = 2 * k;
+        }
+
+        slack = new double[m];
+        y = new double[2 * n];
+        label = new int[2 * n];
+        tree = new int[2 * n];
+        match = new int[2 * n];
+        parentEdge = new int[2 * n];
+        treeChild = new int[2 * n];
+        treeNext = new int[2 * n];
+        treePrevious = new int[2 * n];
+        blossomParent = new int[2 * n];
+        cycleNext = new int[2 * n];
+        cycleEdge = new int[2 * n];
+        anyChild = new int[2 * n];
+        leafFirst = new int[2 * n];
+        leafLast = new int[2 * n];
+        leafNext = new int[n];
+        outer = new int[n];
+        freeBlossoms = new int[n];
+        changed = new int[2 * n];
+        formerEps = new double[2 * n];
+        scratch = new int[2 * n];
+        nodeMark = new int[2 * n];
+
+        Arrays.fill(tree, -1);
+        Arrays.fill(match, -1);
+        Arrays.fill(parentEdge, -1);
+        Arrays.fill(treeChild, -1);
+        Arrays.fill(blossomParent, -1);
+        Arrays.fill(anyChild, -1);
+        for (int v = 0; v < n; v++) {
+            label[v] = FREE;
+            leafFirst[v] = v;
+            leafLast[v] = v;
+            leafNext[v] = -1;
+            outer[v] = v;
+        }
+        for (int b = 2 * n - 1; b >= n; b--) {
+            freeBlossoms[freeCount++] = b;
+        }
+    }
+
+    /**
+     * Finds the minimum cost perfect matching.
+     *
+     * @throws IllegalArgumentException if the graph has none
+     */
+    public void solve() {
+        var mate = new int[n];
+        initialize(mate);
+        for (int v = 0; v < n; v++) {
+            match[v] = mate[v] == -1 ? -1 : mate[v] >> 1;
+        }
+        for (int k = 0; k < m; k++) {
+            slack[k] = cost[k] - y[endpoint[2 * k]] - y[endpoint[2 * k + 1]];
+        }
+
+        int capacity = 0;
+        for (int v = 0; v < n; v++) {
+            if (match[v] == -1)
+                capacity++;
+        }
+        treeRoot = new int[capacity];
+        eps = new double[capacity];
+        treePairs = new int[capacity];
+        trees = new int[capacity];
+        treePosition = new int[capacity];
+        markStamp = new int[capacity];
+        markSide = new int[capacity];
+        bound = new double[capacity];
+        step = new double[capacity];
+        component = new int[capacity];
+        memberNext = new int[capacity];
+        stepped = new boolean[capacity];
+        edges = new Heaps(slack, m, 2 * capacity);
+        nodes = new Heaps(y, 2 * n, capacity);
+        for (int v = 0; v < n; v++) {
+            if (match[v] != -1)
+                continue;
+            int t = treeCount;
+            treeRoot[t] = v;
+            treePairs[t] = -1;
+            trees[t] = t;
+            treePosition[t] = t;
+            treeCount++;
+            relabel(v, S_TYPE, t);
+        }
+        fixEdges();
+
+        while (treeCount > 0) {
+            boolean progress = true;
+            while (progress) {
+                progress = false;
+                for (int i = 0; i < treeCount; i++) {
+                    progress |= advance(trees[i]);
+                }
+            }
+            if (treeCount > 0)
+                updateDuals();
+        }
+        finish();
+    }
+
+    /**
+     * Finds the starting variables and matching. Every vertex gets half of the least cost of its edges and the
+     * edges which are tight then are matched greedily; every vertex still free raises its variable as far as its
+     * edges allow and takes a tight edge to a free vertex. Then a Dijkstra search from every free vertex grows a
+     * tree with its own step, as the main loop does but without blossoms. It stops at an augmenting path, or at a
+     * tight edge between two S_TYPE vertices of the tree, which leaves an odd cycle of half-matched edges, or when
+     * the tree can grow no more. A later path may end in a vertex of a cycle and match the rest of the cycle;
+     * every cycle left at the end keeps one vertex free and matches the others, all along tight edges.
+     *
+     * @param mate filled with the remote endpoint of the matched edge of every vertex, or -1
+     */
+    private void initialize(int[] mate) {
+        Arrays.fill(mate, -1);
+        Arrays.fill(y, 0, n, Double.POSITIVE_INFINITY);
+        for (int k = 0; k < m; k++) {
+            y[endpoint[2 * k]] = Math.min(y[endpoint[2 * k]], cost[k] / 2);
+            y[endpoint[2 * k + 1]] = Math.min(y[endpoint[2 * k + 1]], cost[k] / 2);
+        }
+        for (int k = 0; k < m; k++) {
+            int u = endpoint[2 * k];
+            int v = endpoint[2 * k + 1];
+            if (mate[u] == -1 && mate[v] == -1 && cost[k] - y[u] - y[v] <= EPS) {
+                mate[u] = 2 * k + 1;
+                mate[v] = 2 * k;
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            if (mate[v] != -1 || neighbourStart[v] == neighbourStart[v + 1])
+                continue;
+            // The greatest variable which keeps every edge of v feasible
+            double greatest = Double.POSITIVE_INFINITY;
+            for (int i = neighbourStart[v]; i < neighbourStart[v + 1]; i++) {
+                int p = neighbourEnd[i];
+                greatest = Math.min(greatest, cost[p >> 1] - y[endpoint[p]]);
+            }
+            int best = -1;
+            for (int i = neighbourStart[v]; i < neighbourStart[v + 1] && best == -1; i++) {
+                int p = neighbourEnd[i];
+                if (mate[endpoint[p]] == -1 && cost[p >> 1] - y[endpoint[p]] <= greatest + EPS)
+                    best = p;
+            }
+            y[v] = greatest;
+            if (best != -1) {
+                mate[v] = best;
+                mate[endpoint[best]] = best ^ 1;
+            }
+        }
+
+        // Every vertex of a cycle has the endpoint of its next edge along the cycle
+        var half = new int[n];
+        Arrays.fill(half, -1);
+        // The search which reached a vertex, its sign, the endpoint of its parent and the time it joined
+        var searched = new int[n];
+        Arrays.fill(searched, -1);
+        var sign = new int[n];
+        var parent = new int[n];
+        var joined = new double[n];
+        var members = new int[n];
+        var events = new EventQueue();
+        for (int r = 0; r < n; r++) {
+            if (mate[r] != -1 || half[r] != -1 || neighbourStart[r] == neighbourStart[r + 1])
+                continue;
+            events.clear();
+            int memberCount = 0;
+            double time = 0;
+            searched[r] = r;
+            sign[r] = 1;
+            parent[r] = -1;
+            joined[r] = 0;
+            members[memberCount++] = r;
+            offerEdges(r, r, 0, events, searched, sign, joined);
+            while (events.size() > 0) {
+                time = events.minKey();
+                int p = events.poll();
+                int u = endpoint[p ^ 1];
+                int v = endpoint[p];
+                if (searched[v] == r && sign[v] < 0)
+                    continue;
+                boolean inTree = searched[v] == r;
+                double s = cost[p >> 1] - variable(u, r, time, searched, sign, joined)
+                        - variable(v, r, time, searched, sign, joined);
+                if (s > EPS) {
+                    // The key was found before v joined or changed
+                    events.add(time + (inTree ? s / 2 : s), p);
+                    continue;
+                }
+                if (inTree) {
+                    makeCycle(p, mate, half, parent);
+                    break;
+                }
+                if (mate[v] != -1) {
+                    searched[v] = r;
+                    sign[v] = -1;
+                    parent[v] = p ^ 1;
+                    joined[v] = time;
+                    members[memberCount++] = v;
+                    int w = endpoint[mate[v]];
+                    searched[w] = r;
+                    sign[w] = 1;
+                    parent[w] = mate[w];
+                    joined[w] = time;
+                    members[memberCount++] = w;
+                    offerEdges(w, r, time, events, searched, sign, joined);
+                    continue;
+                }
+                mate[u] = p;
+                mate[v] = p ^ 1;
+                flipToRoot(u, mate, parent);
+                if (half[v] != -1)
+                    breakCycle(v, mate, half);
+                break;
+            }
+            for (int i = 0; i < memberCount; i++) {
+                int x = members[i];
+                y[x] = variable(x, r, time, searched, sign, joined);
+                searched[x] = -2;
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            if (half[v] != -1)
+                breakCycle(v, mate, half);
+        }
+    }
+
+    private double variable(int x, int search, double time, int[] searched, int[] sign, double[] joined) {
+        return searched[x] == search ? y[x] + sign[x] * (time - joined[x]) : y[x];
+    }
+
+    /**
+     * Offers the edges of the S_TYPE vertex x of the search with the times they become tight.
+     */
+    private void offerEdges(int x, int search, double time, EventQueue events, int[] searched, int[] sign,
+                            double[] joined) {
+        double variable = variable(x, search, time, searched, sign, joined);
+        for (int i = neighbourStart[x]; i < neighbourStart[x + 1]; i++) {
+            int p = neighbourEnd[i];
+            int w = endpoint[p];
+            if (searched[w] == search && sign[w] < 0)
+                continue;
+            double s = cost[p >> 1] - variable - variable(w, search, time, searched, sign, joined);
+            events.add(time + Math.max(0, searched[w] == search ? s / 2 : s), p);
+        }
+    }
+
+    /**
+     * Flips the matched and the parent edges on the path from the S_TYPE vertex x of a search to its root.
+     */
+    private void flipToRoot(int x, int[] mate, int[] parent) {
+        while (parent[x] != -1) {
+            int t = endpoint[parent[x]];
+            int q = parent[t];
+            mate[t] = q;
+            mate[endpoint[q]] = q ^ 1;
+            x = endpoint[q];
+        }
+    }
+
+    /**
+     * The endpoint p joins two S_TYPE vertices of a search: the root gets the matching of the path to
+     * their common ancestor c, and the cycle through c and p is half-matched.
+     */
+    private void makeCycle(int p, int[] mate, int[] half, int[] parent) {
+        int u = endpoint[p ^ 1];
+        int v = endpoint[p];
+        markCounter++;
+        for (int x = u; ; x = endpoint[parent[endpoint[parent[x]]]]) {
+            nodeMark[x] = markCounter;
+            if (parent[x] == -1)
+                break;
+        }
+        int c = v;
+        while (nodeMark[c] != markCounter) {
+            c = endpoint[parent[endpoint[parent[c]]]];
+        }
+        mate[c] = -1;
+        flipToRoot(c, mate, parent);
+        for (int x = u; x != c; ) {
+            int t = endpoint[parent[x]];
+            half[x] = parent[x];
+            half[t] = parent[t];
+            mate[x] = -1;
+            mate[t] = -1;
+            x = endpoint[parent[t]];
+        }
+        for (int x = v; x != c; ) {
+            int t = endpoint[parent[x]];
+            int w = endpoint[parent[t]];
+            half[t] = parent[x] ^ 1;
+            half[w] = parent[t] ^ 1;
+            mate[x] = -1;
+            mate[t] = -1;
+            x = w;
+        }
+        half[v] = p ^ 1;
+        mate[c] = -1;
+    }
+
+    /**
+     * Leaves the vertex v of a cycle to the matching it has and matches the others along the cycle.
+     */
+    private void breakCycle(int v, int[] mate, int[] half) {
+        int a = endpoint[half[v]];
+        half[v] = -1;
+        while (a != v) {
+            int q = half[a];
+            int b = endpoint[q];
+            mate[a] = q;
+            mate[b] = q ^ 1;
+            int next = half[b];
+            half[a] = -1;
+            half[b] = -1;
+            a = endpoint[next];
+        }
+    }
+
+    /**
+     * Grows, shrinks, expands or augments the tree t along its tight edges until none is left.
+     *
+     * @return true if anything changed
+     */
+    private boolean advance(int t) {
+        boolean result = false;
+        while (treeRoot[t] != -1) {
+            if (augmentTight()) {
+                result = true;
+                continue;
+            }
+            int k = edges.min(2 * t);
+            if (k != -1 && realSlack(k) <= EPS) {
+                grow(k);
+                result = true;
+                continue;
+            }
+            k = edges.min(2 * t + 1);
+            if (k != -1 && realSlack(k) <= EPS) {
+                shrink(k);
+                result = true;
+                continue;
+            }
+            int b = nodes.min(t);
+            if (b != -1 && y[b] - eps[t] <= EPS) {
+                expand(b);
+                result = true;
+                continue;
+            }
+            break;
+        }
+        return result;
+    }
+
+    /**
+     * Augments along the first edge found tight between the S_TYPE nodes of two trees which is still such.
+     */
+    private boolean augmentTight() {
+        while (tightCount > 0) {
+            int k = tight[--tightCount];
+            int a = outer[endpoint[2 * k]];
+            int b = outer[endpoint[2 * k + 1]];
+            if (a != b && label[a] == S_TYPE && label[b] == S_TYPE && tree[a] != tree[b] && realSlack(k) <= EPS) {
+                augment(k);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The tight edge k joins the S_TYPE node a to the free node b, which becomes T_TYPE, and its mate S_TYPE.
+     */
+    private void grow(int k) {
+        int a = outer[endpoint[2 * k]];
+        int b = outer[endpoint[2 * k + 1]];
+        if (label[a] != S_TYPE) {
+            int c = a;
+            a = b;
+            b = c;
+        }
+        int t = tree[a];
+        int c = otherOuter(match[b], b);
+        parentEdge[b] = k;
+        addChild(a, b);
+        treeChild[b] = c;
+        treeChild[c] = -1;
+        relabel(b, T_TYPE, t);
+        relabel(c, S_TYPE, t);
+        fixEdges();
+    }
+
+    /**
+     * The tight edge k joins the S_TYPE nodes of two trees: the matching is flipped along the path between their
+     * roots and both trees are taken apart.
+     */
+    private void augment(int k) {
+        int a = outer[endpoint[2 * k]];
+        int b = outer[endpoint[2 * k + 1]];
+        int ta = tree[a];
+        int tb = tree[b];
+        flipToRoot(a, k);
+        flipToRoot(b, k);
+        dissolve(ta);
+        dissolve(tb);
+        fixEdges();
+    }
+
+    /**
+     * Matches the S_TYPE node x with the edge k and flips the path from x to its root.
+     */
+    private void flipToRoot(int x, int k) {
+        int j = match[x];
+        match[x] = k;
+        while (j != -1) {
+            int t = otherOuter(j, x);
+            int e = parentEdge[t];
+            int s = otherOuter(e, t);
+            j = match[s];
+            match[t] = e;
+            match[s] = e;
+            x = s;
+        }
+    }
+
+    /**
+     * Makes every node of the tree t free; the caller fixes the edges.
+     */
+    private void dissolve(int t) {
+        int size = 0;
+        scratch[size++] = treeRoot[t];
+        while (size > 0) {
+            int x = scratch[--size];
+            if (label[x] == S_TYPE) {
+                for (int c = treeChild[x]; c != -1; c = treeNext[c]) {
+                    scratch[size++] = c;
+                }
+            } else {
+                scratch[size++] = treeChild[x];
+            }
+            treeChild[x] = -1;
+            parentEdge[x] = -1;
+            relabel(x, FREE, -1);
+        }
+
+        for (int q = treePairs[t]; q != -1; q = pairNext[q]) {
+            unlinkPair(q ^ 1, pairTree[q ^ 1]);
+            freePairs[freePairCount++] = q >> 1;
+        }
+        treePairs[t] = -1;
+        markedTree = -1;
+        treeRoot[t] = -1;
+        int last = trees[--treeCount];
+        trees[treePosition[t]] = last;
+        treePosition[last] = treePosition[t];
+    }
+
+    /**
+     * The tight edge k joins two S_TYPE nodes of a tree: the cycle through their common ancestor becomes a new
+     * S_TYPE blossom in its place.
+     */
+    private void shrink(int k) {
+        int a = outer[endpoint[2 * k]];
+        int b = outer[endpoint[2 * k + 1]];
+        int t = tree[a];
+        markCounter++;
+        for (int x = a; x != -1; x = up(x)) {
+            nodeMark[x] = markCounter;
+        }
+        int c = b;
+        while (nodeMark[c] != markCounter) {
+            c = up(c);
+        }
+
+        // The cycle runs from a up to c, down to b and back to a
+        markCounter++;
+        int size = 0;
+        for (int x = a; x != c; ) {
+            int u = otherOuter(match[x], x);
+            cycleNext[x] = u;
+            cycleEdge[x] = match[x];
+            int s = otherOuter(parentEdge[u], u);
+            cycleNext[u] = s;
+            cycleEdge[u] = parentEdge[u];
+            scratch[size++] = x;
+            scratch[size++] = u;
+            x = s;
+        }
+        scratch[size++] = c;
+        for (int x = b; x != c; ) {
+            int u = otherOuter(match[x], x);
+            cycleNext[u] = x;
+            cycleEdge[u] = match[x];
+            int s = otherOuter(parentEdge[u], u);
+            cycleNext[s] = u;
+            cycleEdge[s] = parentEdge[u];
+            scratch[size++] = x;
+            scratch[size++] = u;
+            x = s;
+        }
+        cycleNext[b] = a;
+        cycleEdge[b] = k;
+        for (int i = 0; i < size; i++) {
+            nodeMark[scratch[i]] = markCounter;
+        }
+
+        int blossom = freeBlossoms[--freeCount];
+        anyChild[blossom] = c;
+        blossomParent[blossom] = -1;
+        match[blossom] = match[c];
+        if (match[c] == -1) {
+            treeRoot[t] = blossom;
+        } else {
+            treeChild[otherOuter(match[c], c)] = blossom;
+        }
+        treeChild[blossom] = -1;
+        for (int i = 0; i < size; i++) {
+            int x = scratch[i];
+            if (label[x] != S_TYPE)
+                continue;
+            for (int u = treeChild[x]; u != -1; ) {
+                int next = treeNext[u];
+                if (nodeMark[u] != markCounter)
+                    addChild(blossom, u);
+                u = next;
+            }
+        }
+
+        // The children keep their real variables, then the blossom takes their place with y(B) = 0
+        for (int i = 0; i < size; i++) {
+            int x = scratch[i];
+            treeChild[x] = -1;
+            parentEdge[x] = -1;
+            relabel(x, INNER, -1);
+        }
+        fixEdges();
+        int x = c;
+        leafFirst[blossom] = leafFirst[c];
+        do {
+            blossomParent[x] = blossom;
+            for (int v = leafFirst[x]; ; v = leafNext[v]) {
+                outer[v] = blossom;
+                if (v == leafLast[x])
+                    break;
+            }
+            int next = cycleNext[x];
+            leafNext[leafLast[x]] = next == c ? -1 : leafFirst[next];
+            leafLast[blossom] = leafLast[x];
+            x = next;
+        } while (x != c);
+        label[blossom] = INNER;
+        y[blossom] = 0;
+        relabel(blossom, S_TYPE, t);
+        fixEdges();
+    }
+
+    /**
+     * The T_TYPE blossom b has no variable left: its children take its place, those on the even path from its
+     * parent to its child in the tree and the others matched in pairs as free nodes.
+     */
+    private void expand(int b) {
+        int t = tree[b];
+        int above = otherOuter(parentEdge[b], b);
+        int below = treeChild[b];
+        int enter = childOf(innerEnd(parentEdge[b], b), b);
+        int base = childOf(innerEnd(match[b], b), b);
+        relabel(b, INNER, -1);
+        fixEdges();
+        removeChild(above, b);
+
+        int length = 0;
+        int distance = -1;
+        int x = enter;
+        do {
+            if (x == base)
+                distance = length;
+            scratch[length++] = x;
+            blossomParent[x] = -1;
+            for (int v = leafFirst[x]; ; v = leafNext[v]) {
+                outer[v] = x;
+                if (v == leafLast[x])
+                    break;
+            }
+            leafNext[leafLast[x]] = -1;
+            x = cycleNext[x];
+        } while (x != enter);
+
+        // The path of even length goes forward to the base, or backward; the rest of the cycle is matched in pairs
+        int pathLength = distance % 2 == 0 ? distance : length - distance;
+        int previous = above;
+        for (int i = 0; i <= pathLength; i++) {
+            int z = distance % 2 == 0 ? scratch[i] : scratch[(length - i) % length];
+            int edge = i == 0 ? parentEdge[b] : distance % 2 == 0 ? cycleEdge[scratch[i - 1]] : cycleEdge[z];
+            if (i % 2 == 0) {
+                parentEdge[z] = edge;
+                addChild(previous, z);
+            } else {
+                match[previous] = edge;
+                match[z] = edge;
+                treeChild[previous] = z;
+                treeChild[z] = -1;
+            }
+            relabel(z, i % 2 == 0 ? T_TYPE : S_TYPE, t);
+            previous = z;
+        }
+        match[base] = match[b];
+        treeChild[base] = below;
+        int from = distance % 2 == 0 ? distance + 1 : 1;
+        int to = distance % 2 == 0 ? length : distance;
+        for (int i = from; i < to; i += 2) {
+            int u = scratch[i];
+            int v = scratch[i + 1];
+            match[u] = cycleEdge[u];
+            match[v] = cycleEdge[u];
+            relabel(u, FREE, -1);
+            relabel(v, FREE, -1);
+        }
+        fixEdges();
+        anyChild[b] = -1;
+        freeBlossoms[freeCount++] = b;
+    }
+
+    /**
+     * Chooses the steps of the trees. The trees joined by a tight edge from S_TYPE to T_TYPE nodes form a
+     * component which takes one step. The components take in turn the greatest step which their own queues
+     * allow, with the steps already taken by the others and the others yet to take a step as none: an edge
+     * from S_TYPE to T_TYPE nodes then only bounds the component of its S_TYPE end, it has the slack left by
+     * the step of the T_TYPE end or will have more.
+     *
+     * @throws IllegalArgumentException if a component has no bound, the dual then grows without bound
+     */
+    private void updateDuals() {
+        for (int i = 0; i < treeCount; i++) {
+            int t = trees[i];
+            double least = Double.POSITIVE_INFINITY;
+            int k = edges.min(2 * t);
+            if (k != -1)
+                least = Math.min(least, realSlack(k));
+            k = edges.min(2 * t + 1);
+            if (k != -1)
+                least = Math.min(least, realSlack(k) / 2);
+            int b = nodes.min(t);
+            if (b != -1)
+                least = Math.min(least, y[b] - eps[t]);
+            bound[t] = least;
+            component[t] = t;
+            memberNext[t] = -1;
+            stepped[t] = false;
+        }
+        for (int i = 0; i < treeCount; i++) {
+            int t = trees[i];
+            for (int q = treePairs[t]; q != -1; q = pairNext[q]) {
+                for (int side = 1; side <= 2; side++) {
+                    int k = edges.min(pairSlot(q >> 1) + side);
+                    if (k != -1 && realSlack(k) <= EPS)
+                        union(t, pairTree[q ^ 1]);
+                }
+            }
+        }
+        // Every component is listed from its root
+        for (int i = 0; i < treeCount; i++) {
+            int t = trees[i];
+            int r = find(t);
+            if (r != t) {
+                bound[r] = Math.min(bound[r], bound[t]);
+                memberNext[t] = memberNext[r];
+                memberNext[r] = t;
+            }
+        }
+
+        for (int i = 0; i < treeCount; i++) {
+            int r = find(trees[i]);
+            if (stepped[r])
+                continue;
+            double least = bound[r];
+            for (int t = r; t != -1; t = memberNext[t]) {
+                for (int q = treePairs[t]; q != -1; q = pairNext[q]) {
+                    int other = find(pairTree[q ^ 1]);
+                    int slot = pairSlot(q >> 1);
+                    int k = edges.min(slot);
+                    if (k != -1) {
+                        double s = realSlack(k);
+                        least = Math.min(least, other == r ? s / 2 : stepped[other] ? s - step[other] : s);
+                    }
+                    k = edges.min(slot + 1 + (q & 1));
+                    if (k != -1 && other != r) {
+                        double s = realSlack(k);
+                        least = Math.min(least, stepped[other] ? s + step[other] : s);
+                    }
+                }
+            }
+            if (least == Double.POSITIVE_INFINITY) {
+                throw new IllegalArgumentException("The graph has no perfect matching, the alternating tree of " +
+                        "vertex " + leafFirst[treeRoot[r]] + " grows without bound.");
+            }
+            step[r] = Math.max(0, least);
+            stepped[r] = true;
+        }
+        for (int i = 0; i < treeCount; i++) {
+            int t = trees[i];
+            eps[t] += step[find(t)];
+        }
+        for (int i = 0; i < treeCount; i++) {
+            int t = trees[i];
+            for (int q = treePairs[t]; q != -1; q = pairNext[q]) {
+                int k = edges.min(pairSlot(q >> 1));
+                if ((q & 1) == 0 && k != -1 && realSlack(k) <= EPS)
+                    addTight(k);
+            }
+        }
+    }
+
+    private int find(int t) {
+        while (component[t] != t) {
+            component[t] = component[component[t]];
+            t = component[t];
+        }
+        return t;
+    }
+
+    private void union(int s, int t) {
+        s = find(s);
+        t = find(t);
+        if (s != t)
+            component[t] = s;
+    }
+
+    /**
+     * Expands the blossoms of the top level and inside them down to the vertices, matching their children along
+     * their cycles.
+     */
+    private void finish() {
+        int size = 0;
+        for (int b = n; b < 2 * n; b++) {
+            if (anyChild[b] != -1 && blossomParent[b] == -1)
+                scratch[size++] = b;
+        }
+        while (size > 0) {
+            int b = scratch[--size];
+            int k = match[b];
+            int base = childOf(endpoint[2 * k], b);
+            if (base == -1)
+                base = childOf(endpoint[2 * k + 1], b);
+            match[base] = k;
+            for (int x = cycleNext[base]; x != base; x = cycleNext[cycleNext[x]]) {
+                match[x] = cycleEdge[x];
+                match[cycleNext[x]] = cycleEdge[x];
+            }
+            for (int x = cycleNext[base]; ; x = cycleNext[x]) {
+                if (x >= n)
+                    scratch[size++] = x;
+                if (x == base)
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Gives the top-level node x the label and the tree, keeping its real variable. Its edges are moved later, by
+     * {@link #fixEdges()}.
+     */
+    private void relabel(int x, int newLabel, int t) {
+        double former = epsOf(x);
+        if (label[x] == T_TYPE && x >= n)
+            nodes.remove(x);
+        label[x] = newLabel;
+        tree[x] = t;
+        y[x] += former - epsOf(x);
+        if (newLabel == T_TYPE && x >= n)
+            nodes.add(t, x);
+        formerEps[x] = former;
+        changed[changedCount++] = x;
+    }
+
+    /**
+     * Moves the edges of the relabelled nodes to their queues, keeping their real slacks.
+     */
+    private void fixEdges() {
+        for (int i = 0; i < changedCount; i++) {
+            int x = changed[i];
+            double change = epsOf(x) - formerEps[x];
+            for (int v = leafFirst[x]; ; v = leafNext[v]) {
+                for (int j = neighbourStart[v]; j < neighbourStart[v + 1]; j++) {
+                    int p = neighbourEnd[j];
+                    if (outer[endpoint[p]] == x)
+                        continue;
+                    edges.remove(p >> 1);
+                    slack[p >> 1] += change;
+                }
+                if (v == leafLast[x])
+                    break;
+            }
+        }
+        for (int i = 0; i < changedCount; i++) {
+            int x = changed[i];
+            for (int v = leafFirst[x]; ; v = leafNext[v]) {
+                for (int j = neighbourStart[v]; j < neighbourStart[v + 1]; j++) {
+                    queueEdge(neighbourEnd[j] >> 1);
+                }
+                if (v == leafLast[x])
+                    break;
+            }
+        }
+        changedCount = 0;
+    }
+
+    /**
+     * Puts the edge k in the queue its ends call for, if any.
+     */
+    private void queueEdge(int k) {
+        if (edges.contains(k))
+            return;
+        int a = outer[endpoint[2 * k]];
+        int b = outer[endpoint[2 * k + 1]];
+        if (a == b)
+            return;
+        if (label[a] != S_TYPE) {
+            int c = a;
+            a = b;
+            b = c;
+        }
+        if (label[a] != S_TYPE || label[b] == INNER)
+            return;
+        int t = tree[a];
+        if (label[b] == FREE) {
+            edges.add(2 * t, k);
+        } else if (tree[b] == t) {
+            if (label[b] == S_TYPE)
+                edges.add(2 * t + 1, k);
+        } else {
+            int side = pairOf(t, tree[b]);
+            if (label[b] == S_TYPE) {
+                edges.add(pairSlot(side >> 1), k);
+                if (realSlack(k) <= EPS)
+                    addTight(k);
+            } else {
+                edges.add(pairSlot(side >> 1) + 1 + (side & 1), k);
+            }
+        }
+    }
+
+    private void addTight(int k) {
+        if (tightCount == tight.length)
+            tight = Arrays.copyOf(tight, 2 * tightCount);
+        tight[tightCount++] = k;
+    }
+
+    private int pairSlot(int pair) {
+        return 2 * treeRoot.length + 3 * pair;
+    }
+
+    /**
+     * @return the side of tree s in the pair of the trees s and t, which is made if there was none
+     */
+    private int pairOf(int s, int t) {
+        if (markedTree != s && markedTree != t) {
+            markedTree = s;
+            stamp++;
+            for (int q = treePairs[s]; q != -1; q = pairNext[q]) {
+                markStamp[pairTree[q ^ 1]] = stamp;
+                markSide[pairTree[q ^ 1]] = q;
+            }
+        }
+        int other = markedTree == s ? t : s;
+        if (markStamp[other] != stamp) {
+            int pair;
+            if (freePairCount > 0) {
+                pair = freePairs[--freePairCount];
+            } else {
+                pair = pairCount++;
+                if (2 * pairCount > pairTree.length) {
+                    int capacity = Math.max(16, 2 * pairTree.length);
+                    pairTree = Arrays.copyOf(pairTree, capacity);
+                    pairNext = Arrays.copyOf(pairNext, capacity);
+                    pairPrevious = Arrays.copyOf(pairPrevious, capacity);
+                    freePairs = Arrays.copyOf(freePairs, capacity / 2);
+                    edges.ensureSlots(pairSlot(capacity / 2));
+                }
+            }
+            pairTree[2 * pair] = markedTree;
+            pairTree[2 * pair + 1] = other;
+            linkPair(2 * pair, markedTree);
+            linkPair(2 * pair + 1, other);
+            markStamp[other] = stamp;
+            markSide[other] = 2 * pair;
+        }
+        int side = markSide[other];
+        return markedTree == s ? side : side ^ 1;
+    }
+
+    private void linkPair(int q, int t) {
+        pairNext[q] = treePairs[t];
+        pairPrevious[q] = -1;
+        if (treePairs[t] != -1)
+            pairPrevious[treePairs[t]] = q;
+        treePairs[t] = q;
+    }
+
+    private void unlinkPair(int q, int t) {
+        if (pairPrevious[q] == -1)
+            treePairs[t] = pairNext[q];
+        else
+            pairNext[pairPrevious[q]] = pairNext[q];
+        if (pairNext[q] != -1)
+            pairPrevious[pairNext[q]] = pairPrevious[q];
+    }
+
+    private void addChild(int s, int u) {
+        treeNext[u] = treeChild[s];
+        treePrevious[u] = -1;
+        if (treeChild[s] != -1)
+            treePrevious[treeChild[s]] = u;
+        treeChild[s] = u;
+    }
+
+    private void removeChild(int s, int u) {
+        if (treePrevious[u] == -1)
+            treeChild[s] = treeNext[u];
+        else
+            treeNext[treePrevious[u]] = treeNext[u];
+        if (treeNext[u] != -1)
+            treePrevious[treeNext[u]] = treePrevious[u];
+    }
+
+    /**
+     * The step of the variable of the top-level node x: the real variable is the stored one plus it.
+     */
+    private double epsOf(int x) {
+        if (label[x] == S_TYPE)
+            return eps[tree[x]];
+        if (label[x] == T_TYPE)
+            return -eps[tree[x]];
+        return 0;
+    }
+
+    /**
+     * The real slack of the edge k between two top-level nodes, the stored one less the steps of its ends.
+     */
+    private double realSlack(int k) {
+        return slack[k] - epsOf(outer[endpoint[2 * k]]) - epsOf(outer[endpoint[2 * k + 1]]);
+    }
+
+    /**
+     * @return the top-level node at the end of the edge k which is not x
+     */
+    private int otherOuter(int k, int x) {
+        int a = outer[endpoint[2 * k]];
+        return a == x ? outer[endpoint[2 * k + 1]] : a;
+    }
+
+    private int innerEnd(int k, int x) {
+        return outer[endpoint[2 * k]] == x ? endpoint[2 * k] : endpoint[2 * k + 1];
+    }
+
+    /**
+     * @return the child of the blossom b around the vertex v, or -1 if b is not around v
+     */
+    private int childOf(int v, int b) {
+        int x = v;
+        while (x != -1 && blossomParent[x] != b) {
+            x = blossomParent[x];
+        }
+        return x;
+    }
+
+    /**
+     * @return the S_TYPE parent of the parent of the S_TYPE node x, or -1 for the root
+     */
+    private int up(int x) {
+        if (match[x] == -1)
+            return -1;
+        int u = otherOuter(match[x], x);
+        return otherOuter(parentEdge[u], u);
+    }
+
+    /**
+     * @return the vertex matched with v
+     */
+    public int getMate(int v) {
+        int k = match[v];
+        return endpoint[2 * k] == v ? endpoint[2 * k + 1] : endpoint[2 * k];
+    }
+
+    /**
+     * @return the edge which matches v
+     */
+    public int getMatchedEdge(int v) {
+        return match[v];
+    }
+
+    /**
+     * @return the sum of the variables, no perfect matching costs less
+     */
+    public double getDualBound() {
+        double result = 0;
+        for (int v = 0; v < n; v++) {
+            result += y[v];
+        }
+        for (int b = n; b < 2 * n; b++) {
+            if (anyChild[b] != -1)
+                result += y[b];
+        }
+        return result;
+    }
+
+    /**
+     * Pairing heaps of the items 0..size-1 keyed by an array, every item in at most one of them. A heap is named
+     * by its slot, which holds its root; the key of an item does not change while it is in a heap.
+     */
+    private static final class Heaps {
+        private final double[] key;
+        private final int[] child;
+        private final int[] next;
+        // The previous sibling, or the parent of a first child
+        private final int[] previous;
+        private final int[] slotOf;
+        private int[] root;
+        private int[] pass = new int[16];
+
+        Heaps(double[] key, int size, int slots) {
+            this.key = key;
+            child = new int[size];
+            next = new int[size];
+            previous = new int[size];
+            slotOf = new int[size];
+            Arrays.fill(slotOf, -1);
+            root = new int[Math.max(1, slots)];
+            Arrays.fill(root, -1);
+        }
+
+        void ensureSlots(int slots) {
+            if (slots <= root.length)
+                return;
+            int old = root.length;
+            root = Arrays.copyOf(root, Math.max(slots, 2 * old));
+            Arrays.fill(root, old, root.length, -1);
+        }
+
+        /**
+         * @return the item with the least key in the slot, or -1
+         */
+        int min(int slot) {
+            return root[slot];
+        }
+
+        boolean contains(int item) {
+            return slotOf[item] != -1;
+        }
+
+        void add(int slot, int item) {
+            child[item] = -1;
+            next[item] = -1;
+            previous[item] = -1;
+            slotOf[item] = slot;
+            root[slot] = root[slot] == -1 ? item : meld(root[slot], item);
+        }
+
+        void remove(int item) {
+            int slot = slotOf[item];
+            if (slot == -1)
+                return;
+            slotOf[item] = -1;
+            if (root[slot] == item) {
+                root[slot] = combine(child[item]);
+                return;
+            }
+            int before = previous[item];
+            if (child[before] == item)
+                child[before] = next[item];
+            else
+                next[before] = next[item];
+            if (next[item] != -1)
+                previous[next[item]] = before;
+            int rest = combine(child[item]);
+            if (rest != -1)
+                root[slot] = meld(root[slot], rest);
+        }
+
+        private int meld(int a, int b) {
+            if (key[b] < key[a]) {
+                int c = a;
+                a = b;
+                b = c;
+            }
+            next[b] = child[a];
+            if (child[a] != -1)
+                previous[child[a]] = b;
+            previous[b] = a;
+            child[a] = b;
+            return a;
+        }
+
+        /**
+         * Melds the siblings from first on into one heap: in pairs from the left, then from the right.
+         */
+        private int combine(int first) {
+            int count = 0;
+            while (first != -1) {
+                int a = first;
+                int b = next[a];
+                first = b == -1 ? -1 : next[b];
+                next[a] = -1;
+                previous[a] = -1;
+                if (b != -1) {
+                    next[b] = -1;
+                    previous[b] = -1;
+                    a = meld(a, b);
+                }
+                if (count == pass.length)
+                    pass = Arrays.copyOf(pass, 2 * count);
+                pass[count++] = a;
+            }
+            if (count == 0)
+                return -1;
+            int result = pass[--count];
+            while (count > 0) {
+                result = meld(pass[--count], result);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * A binary heap of endpoints by the times their edges become tight, for the searches of the initialization.
+     */
+    private static final class EventQueue {
+        private double[] keys = new double[16];
+        private int[] values = new int[16];
+        private int size = 0;
+
+        void clear() {
+            size = 0;
+        }
+
+        int size() {
+            return size;
+        }
+
+        double minKey() {
+            return keys[0];
+        }
+
+        void add(double key, int value) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, 2 * size);
+                values = Arrays.copyOf(values, 2 * size);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >> 1;
+                if (keys[parent] <= key)
+                    break;
+                keys[i] = keys[parent];
+                values[i] = values[parent];
+                i = parent;
+            }
+            keys[i] = key;
+            values[i] = value;
+        }
+
+        int poll() {
+            int result = values[0];
+            double key = keys[--size];
+            int value = values[size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size)
+                    break;
+                if (child + 1 < size && keys[child + 1] < keys[child])
+                    child++;
+                if (keys[child] >= key)
+                    break;
+                keys[i] = keys[child];
+                values[i] = values[child];
+                i = child;
+            }
+            if (size > 0) {
+                keys[i] = key;
+                values[i] = value;
+            }
+            return result;
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package fr.ladybug;
 
-import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
@@ -8,11 +7,17 @@ public class RealVertex extends Vertex {
     private RealVertex pair = null;
     public static int global_id = 0;
     private final int id;
+    // Position of the vertex in its graph, assigned by Graph
+    int index = -1;
 
     public RealVertex() {
         id = global_id++;
     }
 
+    RealVertex(int id) {
+        this.id = id;
+    }
+
     @Override
     public boolean isReal() {
         return true;
@@ -24,18 +29,13 @@ public class RealVertex extends Vertex {
     }
 
     @Override
-    public void setPair(RealVertex pair) {
-        this.pair = pair;
-    }
-
-    @Override
-    public RealVertex getRealBase() {
-        return this;
+    public RealVertex getPairOrNull() {
+        return pair;
     }
 
     @Override
-    public List<RealVertex> getAllVertices() {
-        return Arrays.asList(this);
+    public void setPair(RealVertex pair) {
+        this.pair = pair;
     }
 
     @Override
@@ -43,24 +43,14 @@ public class RealVertex extends Vertex {
         return _edgesFrom;
     }
 
-    @Override
-    public void setMark(MarkType mark) {
-        this.mark = mark;
-    }
-
-    @Override
-    public void setParentEdge(Edge parentEdge) {
-        this.parentEdge = parentEdge;
+    public void addEdge(Edge edge) {
+        _edgesFrom.add(edge);
     }
 
-    @Override
-    public Optional<Edge> getParentEdge() {
-        return parentEdge == null ? Optional.empty() : Optional.of(parentEdge);
+    void setEdges(List<Edge> edges) {
+        _edgesFrom = edges;
     }
 
-    public void addEdge(Edge edge) {
-        _edgesFrom.add(edge);
-    }
     public Edge getEdgeTo(RealVertex to) {
         for (var edge : _edgesFrom) {
             if (edge.to == to)
@@ -69,13 +59,6 @@ public class RealVertex extends Vertex {
         return null;
     }
 
-    @Override
-    public void invertPath(RealVertex u, RealVertex v) {
-        if (u != v) {
-            throw new RuntimeException("Trying to not trivially invert path inside a vertex.");
-        }
-    }
-
     public int getId() {
         return id;
     }
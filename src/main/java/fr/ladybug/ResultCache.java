@@ -0,0 +1,230 @@
+package fr.ladybug;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+
+/**
+ * Matchings of the graphs solved before, by the {@link GraphHash} of the graph.
+ * <p>
+ * The entries are kept in memory up to the given number of bytes and the least recently used ones are evicted
+ * first. With a directory the evicted entries are written there and read back on a miss in memory, so the
+ * directory also keeps the results between runs. The directory is not bounded.
+ */
+public class ResultCache {
+    // The map entry, the key and the arrays' headers, roughly
+    private static final int ENTRY_OVERHEAD = 128;
+
+    private final long capacity;
+    private final Path directory;
+    private final LinkedHashMap<GraphHash, Result> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes = 0;
+
+    private long hits = 0;
+    private long diskHits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    /**
+     * @param directory where the evicted entries go, or null to drop them
+     */
+    public ResultCache(long capacity, Path directory) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("The capacity must not be negative.");
+        }
+        this.capacity = capacity;
+        this.directory = directory;
+        if (directory != null) {
+            try {
+                Files.createDirectories(directory);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * @return the result for the graph, or null
+     */
+    public synchronized Result get(GraphHash key) {
+        var result = entries.get(key);
+        if (result != null) {
+            hits++;
+            return result;
+        }
+        result = readSpilled(key);
+        if (result != null) {
+            diskHits++;
+            keep(key, result);
+            return result;
+        }
+        misses++;
+        return null;
+    }
+
+    public synchronized void put(GraphHash key, Result result) {
+        var previous = entries.remove(key);
+        if (previous != null) {
+            bytes -= size(previous);
+        }
+        keep(key, result);
+    }
+
+    private void keep(GraphHash key, Result result) {
+        entries.put(key, result);
+        bytes += size(result);
+        var iterator = entries.entrySet().iterator();
+        while (bytes > capacity && iterator.hasNext()) {
+            var eldest = iterator.next();
+            iterator.remove();
+            bytes -= size(eldest.getValue());
+            evictions++;
+            spill(eldest.getKey(), eldest.getValue());
+        }
+    }
+
+    private static long size(Result result) {
+        return ENTRY_OVERHEAD + (long)result.pairs.length * Integer.BYTES;
+    }
+
+    private void spill(GraphHash key, Result result) {
+        if (directory == null)
+            return;
+        var file = directory.resolve(key.toString());
+        if (Files.exists(file))
+            return;
+        try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeDouble(result.weight);
+            out.writeInt(result.pairs.length);
+            for (var vertex : result.pairs) {
+                out.writeInt(vertex);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Result readSpilled(GraphHash key) {
+        if (directory == null)
+            return null;
+        var file = directory.resolve(key.toString());
+        if (!Files.exists(file))
+            return null;
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            double weight = in.readDouble();
+            var pairs = new int[in.readInt()];
+            for (int i = 0; i < pairs.length; i++) {
+                pairs[i] = in.readInt();
+            }
+            return new Result(weight, pairs);
+        } catch (IOException e) {
+            // A broken file is just a miss, the result will be written again
+            return null;
+        }
+    }
+
+    /**
+     * Writes everything which is in memory to the directory, so the next run finds it.
+     */
+    public synchronized void flush() {
+        for (var entry : entries.entrySet()) {
+            spill(entry.getKey(), entry.getValue());
+        }
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getDiskHits() {
+        return diskHits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return the bytes taken by the entries in memory, estimated
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public synchronized double getHitRate() {
+        long total = hits + diskHits + misses;
+        return total == 0 ? 0 : (double)(hits + diskHits) / total;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("Cache: %d hits, %d from disk, %d misses (hit rate %.1f%%), %d entries, %d bytes, " +
+                "%d evicted", hits, diskHits, misses, 100 * getHitRate(), entries.size(), bytes, evictions);
+    }
+
+    /**
+     * The weight and the pairs of a matching, the vertices are numbered as in the input.
+     */
+    public static class Result {
+        private final double weight;
+        private final int[] pairs;
+
+        public Result(double weight, int[] pairs) {
+            this.weight = weight;
+            this.pairs = pairs;
+        }
+
+        /**
+         * Takes the current matching of a graph which was read by {@link GraphReader}.
+         */
+        public static Result of(Graph graph) {
+            var matching = graph.getCurrentMatching();
+            var pairs = new int[2 * matching.size()];
+            double weight = 0;
+            for (int i = 0; i < matching.size(); i++) {
+                var edge = matching.get(i);
+                pairs[2 * i] = graph.inputIndex(edge.from());
+                pairs[2 * i + 1] = graph.inputIndex(edge.to());
+                weight += edge.getWeight();
+            }
+            return new Result(weight, pairs);
+        }
+
+        /**
+         * Sets the pairs of the vertices of a graph which was read by {@link GraphReader}, nothing is solved.
+         */
+        public void applyTo(Graph graph) {
+            var vertices = graph.getVertices();
+            var byInput = new RealVertex[vertices.size()];
+            for (var vertex : vertices) {
+                vertex.setPair(null);
+                byInput[graph.inputIndex(vertex)] = vertex;
+            }
+            for (int i = 0; i < pairs.length; i += 2) {
+                byInput[pairs[i]].setPair(byInput[pairs[i + 1]]);
+                byInput[pairs[i + 1]].setPair(byInput[pairs[i]]);
+            }
+        }
+
+        public double getWeight() {
+            return weight;
+        }
+
+        /**
+         * @return the matched vertices, two by two
+         */
+        public int[] getPairs() {
+            return pairs;
+        }
+    }
+}
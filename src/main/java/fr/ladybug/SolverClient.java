@@ -0,0 +1,113 @@
+package fr.ladybug;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A connection to a {@link SolverServer}, the requests are sent one after another.
+ */
+public class SolverClient implements Closeable {
+    private final Socket socket;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+
+    public SolverClient(int port) throws IOException {
+        socket = new Socket(InetAddress.getLoopbackAddress(), port);
+        socket.setTcpNoDelay(true);
+        in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+    }
+
+    /**
+     * Sends the graph in the graph-file format.
+     *
+     * @throws IllegalArgumentException if the server rejects the graph
+     */
+    public Result solve(String graph) throws IOException {
+        var text = graph.getBytes(StandardCharsets.UTF_8);
+        out.writeByte(SolverServer.TEXT);
+        out.writeInt(text.length);
+        out.write(text);
+        out.flush();
+        return readResult();
+    }
+
+    /**
+     * Sends the edge list in the binary format.
+     *
+     * @throws IllegalArgumentException if the server rejects the graph
+     */
+    public Result solve(int n, int[] from, int[] to, double[] weight) throws IOException {
+        out.writeByte(SolverServer.BINARY);
+        out.writeInt(n);
+        out.writeInt(from.length);
+        for (int i = 0; i < from.length; i++) {
+            out.writeInt(from[i]);
+            out.writeInt(to[i]);
+            out.writeDouble(weight[i]);
+        }
+        out.flush();
+        return readResult();
+    }
+
+    /**
+     * @return the statistics of the server and of its cache
+     */
+    public String stats() throws IOException {
+        out.writeByte(SolverServer.STATS);
+        out.flush();
+        if (in.readByte() != SolverServer.STATS) {
+            throw new IOException("Unexpected answer of the server.");
+        }
+        return in.readUTF();
+    }
+
+    private Result readResult() throws IOException {
+        int status = in.readByte();
+        if (status == SolverServer.ERROR) {
+            throw new IllegalArgumentException(in.readUTF());
+        }
+        if (status != SolverServer.OK) {
+            throw new IOException("Unexpected answer of the server: " + status + ".");
+        }
+        double weight = in.readDouble();
+        var pairs = new int[2 * in.readInt()];
+        for (int i = 0; i < pairs.length; i++) {
+            pairs[i] = in.readInt();
+        }
+        return new Result(weight, pairs);
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    public static class Result {
+        private final double weight;
+        private final int[] pairs;
+
+        Result(double weight, int[] pairs) {
+            this.weight = weight;
+            this.pairs = pairs;
+        }
+
+        public double getWeight() {
+            return weight;
+        }
+
+        /**
+         * @return the matched vertices, two by two: the lesser vertex of a pair and its mate
+         */
+        public int[] getPairs() {
+            return pairs;
+        }
+    }
+}
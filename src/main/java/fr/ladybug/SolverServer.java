@@ -0,0 +1,473 @@
+package fr.ladybug;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Long-running solver on a localhost TCP port, so the JVM start-up and the JIT warm-up are paid once.
+ * <p>
+ * A connection carries any number of requests, one after another. A request is a format byte and the graph:
+ * <ul>
+ * <li>{@code 'T'}, the length of the text in bytes and the text in the graph-file format;</li>
+ * <li>{@code 'B'}, N and M, then M times from, to and weight, as written by {@link DataOutputStream}.</li>
+ * </ul>
+ * The answer is {@code 'O'}, the weight of the maximum matching, the number of pairs and the pairs, or {@code 'E'}
+ * and the message, see {@link SolverClient}. A single {@code 'S'} asks for the statistics of the server, they come
+ * back as {@code 'S'} and the text.
+ * <p>
+ * A graph may have at most {@code maxVertices} vertices and {@code maxEdges} edges, and its text at most
+ * {@link #TEXT_BYTES_PER_EDGE} bytes per edge. The sizes are checked before anything is allocated; a request over
+ * the limits is answered with {@code 'E'}; unless the whole text was read, the connection is closed then, since
+ * the rest of the request is still in the stream. The text is parsed as it comes, it is never held whole.
+ * <p>
+ * The edges of a request are held from the moment they are read until the graph is solved. So that the requests of
+ * all connections do not fill the memory at once, every request first takes a permit for each of its vertices and
+ * edges, and at most {@code workerCount} requests of the largest size are held at once; the others wait before
+ * anything is allocated for them.
+ * <p>
+ * With a {@link ResultCache} a graph which was solved before is answered without solving it again.
+ * <p>
+ * Every connection has its own thread, which reads the requests and writes the answers, but at most
+ * {@code workerCount} graphs are solved at once, the other requests wait for their turn in the order of arrival.
+ * After {@code connectionLimit} open connections the server stops accepting, so the next clients wait in the backlog
+ * of the socket.
+ */
+public class SolverServer implements Closeable {
+    static final int TEXT = 'T';
+    static final int BINARY = 'B';
+    static final int STATS = 'S';
+    static final int OK = 'O';
+    static final int ERROR = 'E';
+    static final int DEFAULT_MAX_VERTICES = 1 << 22;
+    static final int DEFAULT_MAX_EDGES = 1 << 24;
+    // Two vertices, a weight and the separators, with room to spare
+    static final int TEXT_BYTES_PER_EDGE = 64;
+
+    private final ServerSocket socket;
+    private final ExecutorService connectionThreads;
+    // A permit for every open connection
+    private final Semaphore connectionSlots;
+    // A permit for every graph which is being solved
+    private final Semaphore solvers;
+    // A permit for every vertex and edge of the requests which are held
+    private final Semaphore heldItems;
+    private final int heldLimit;
+    private final ResultCache cache;
+    private final int maxVertices;
+    private final int maxEdges;
+    private volatile boolean closed = false;
+
+    private final AtomicLong connections = new AtomicLong();
+    private final AtomicLong solved = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    /**
+     * Binds the port on the loopback address, zero picks a free one.
+     */
+    public SolverServer(int port, int workerCount, int connectionLimit) throws IOException {
+        this(port, workerCount, connectionLimit, null);
+    }
+
+    /**
+     * @param cache the results of the graphs solved before, or null
+     */
+    public SolverServer(int port, int workerCount, int connectionLimit, ResultCache cache) throws IOException {
+        this(port, workerCount, connectionLimit, cache, DEFAULT_MAX_VERTICES, DEFAULT_MAX_EDGES);
+    }
+
+    /**
+     * @param cache the results of the graphs solved before, or null
+     * @param maxVertices the largest number of vertices of a request
+     * @param maxEdges the largest number of edges of a request
+     */
+    public SolverServer(int port, int workerCount, int connectionLimit, ResultCache cache, int maxVertices,
+                        int maxEdges) throws IOException {
+        if (workerCount <= 0 || connectionLimit <= 0) {
+            throw new IllegalArgumentException("At least one worker and one connection are required.");
+        }
+        if (maxVertices <= 0 || maxEdges <= 0) {
+            throw new IllegalArgumentException("The limits of the requests must be positive.");
+        }
+        this.maxVertices = maxVertices;
+        this.maxEdges = maxEdges;
+        socket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+        connectionThreads = Executors.newFixedThreadPool(connectionLimit);
+        connectionSlots = new Semaphore(connectionLimit);
+        solvers = new Semaphore(workerCount, true);
+        heldLimit = (int) Math.min(Integer.MAX_VALUE, workerCount * ((long) maxVertices + maxEdges));
+        heldItems = new Semaphore(heldLimit, true);
+        this.cache = cache;
+    }
+
+    public int getPort() {
+        return socket.getLocalPort();
+    }
+
+    /**
+     * Accepts the connections in a new thread.
+     */
+    public void start() {
+        var acceptor = new Thread(this::serve, "solver-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * Accepts the connections in the calling thread until the server is closed.
+     */
+    public void serve() {
+        while (!closed) {
+            try {
+                connectionSlots.acquire();
+            } catch (InterruptedException e) {
+                return;
+            }
+            Socket client;
+            try {
+                client = socket.accept();
+            } catch (IOException e) {
+                connectionSlots.release();
+                if (closed)
+                    return;
+                continue;
+            }
+            connections.incrementAndGet();
+            connectionThreads.execute(() -> {
+                try {
+                    handle(client);
+                } finally {
+                    connectionSlots.release();
+                }
+            });
+        }
+    }
+
+    private void handle(Socket client) {
+        try (client;
+             var in = new DataInputStream(new BufferedInputStream(client.getInputStream()));
+             var out = new DataOutputStream(new BufferedOutputStream(client.getOutputStream()))) {
+            client.setTcpNoDelay(true);
+            while (true) {
+                int format = in.read();
+                if (format == -1)
+                    return;
+                if (format == STATS) {
+                    out.writeByte(STATS);
+                    out.writeUTF(toString());
+                    out.flush();
+                    continue;
+                }
+                try {
+                    var request = read(format, in);
+                    ResultCache.Result result;
+                    try {
+                        result = cache == null ? null : cache.get(request.hash);
+                        if (result == null) {
+                            result = solve(request);
+                            if (cache != null) {
+                                cache.put(request.hash, result);
+                            }
+                        }
+                    } finally {
+                        heldItems.release(request.permits);
+                    }
+                    writeResult(result, out);
+                    solved.incrementAndGet();
+                } catch (IllegalArgumentException e) {
+                    failed.incrementAndGet();
+                    out.writeByte(ERROR);
+                    out.writeUTF(String.valueOf(e.getMessage()));
+                    // The rest of the stream cannot be trusted after an unknown format or a size out of the limits
+                    if (e instanceof UnreadRequestException) {
+                        out.flush();
+                        return;
+                    }
+                }
+                out.flush();
+            }
+        } catch (IOException e) {
+            // The client is gone, nobody is left to answer
+        }
+    }
+
+    private Request read(int format, DataInputStream in) throws IOException {
+        if (format == TEXT) {
+            int length = in.readInt();
+            // The line of N and M counts as an edge
+            long maxLength = TEXT_BYTES_PER_EDGE * (maxEdges + 1L);
+            if (length < 0 || length > maxLength) {
+                throw new UnreadRequestException("The length of the text " + length + " is out of the range 0.." +
+                        maxLength + ".");
+            }
+            var text = new TextStream(in, length);
+            try {
+                return readText(text);
+            } finally {
+                // The rest of a text which failed to parse, so the next request starts where it should
+                text.skipRest();
+            }
+        }
+        if (format != BINARY) {
+            throw new UnreadRequestException("Unknown request format: " + format + ".");
+        }
+        int n = in.readInt();
+        int m = in.readInt();
+        // The edges are left in the stream
+        checkSize(n, m, true);
+        var request = hold(n, m);
+        int i = 0;
+        try {
+            for (; i < m; i++) {
+                request.set(i, in.readInt(), in.readInt(), in.readDouble());
+            }
+        } catch (IllegalArgumentException e) {
+            heldItems.release(request.permits);
+            throw i + 1 < m ? new UnreadRequestException(e.getMessage()) : e;
+        } catch (IOException | RuntimeException e) {
+            heldItems.release(request.permits);
+            throw e;
+        }
+        return request;
+    }
+
+    private Request readText(InputStream text) {
+        var in = new Scanner(text);
+        Request request = null;
+        try {
+            int n = in.nextInt();
+            int m = in.nextInt();
+            checkSize(n, m, false);
+            request = hold(n, m);
+            for (int i = 0; i < m; i++) {
+                request.set(i, in.nextInt(), in.nextInt(), in.nextDouble());
+            }
+            return request;
+        } catch (RuntimeException e) {
+            if (request != null) {
+                heldItems.release(request.permits);
+            }
+            if (e instanceof NoSuchElementException)
+                throw new IllegalArgumentException("The graph is not in the graph-file format.");
+            throw e;
+        }
+    }
+
+    /**
+     * Waits for the permits of the request and allocates it.
+     */
+    private Request hold(int n, int m) {
+        int permits = (int) Math.min((long) n + m, heldLimit);
+        heldItems.acquireUninterruptibly(permits);
+        try {
+            return new Request(n, m, permits);
+        } catch (RuntimeException | Error e) {
+            heldItems.release(permits);
+            throw e;
+        }
+    }
+
+    /**
+     * @param unread whether the rest of the request is still in the stream, then the connection is closed on an
+     * error
+     */
+    private void checkSize(int n, int m, boolean unread) {
+        String message = null;
+        if (n < 0 || m < 0) {
+            message = "The numbers of vertices and edges must not be negative.";
+        } else if (n > maxVertices || m > maxEdges) {
+            message = "The graph of " + n + " vertices and " + m + " edges is over the limits of " + maxVertices +
+                    " vertices and " + maxEdges + " edges.";
+        }
+        if (message != null)
+            throw unread ? new UnreadRequestException(message) : new IllegalArgumentException(message);
+    }
+
+    private ResultCache.Result solve(Request request) {
+        var engine = request.build();
+        solvers.acquireUninterruptibly();
+        try {
+            engine.initializeVariables();
+            while (engine.stage()) {
+            }
+        } finally {
+            solvers.release();
+        }
+        int n = engine.getVertexCount();
+        int pairs = 0;
+        for (int v = 0; v < n; v++) {
+            if (engine.getMate(v) > v)
+                pairs++;
+        }
+        var result = new int[2 * pairs];
+        pairs = 0;
+        for (int v = 0; v < n; v++) {
+            if (engine.getMate(v) > v) {
+                result[pairs++] = v;
+                result[pairs++] = engine.getMate(v);
+            }
+        }
+        return new ResultCache.Result(engine.getMatchingWeight(), result);
+    }
+
+    private static void writeResult(ResultCache.Result result, DataOutputStream out) throws IOException {
+        out.writeByte(OK);
+        out.writeDouble(result.getWeight());
+        out.writeInt(result.getPairs().length / 2);
+        for (var vertex : result.getPairs()) {
+            out.writeInt(vertex);
+        }
+    }
+
+    /**
+     * Stops accepting, lets the open connections finish and waits for them.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        socket.close();
+        connectionThreads.shutdown();
+        try {
+            connectionThreads.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (cache != null) {
+            cache.flush();
+        }
+    }
+
+    public long getConnections() {
+        return connections.get();
+    }
+
+    public long getSolved() {
+        return solved.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    /**
+     * @return the vertices and the edges of the requests which are held now, read but not solved yet
+     */
+    public long getHeldItems() {
+        return heldLimit - heldItems.availablePermits();
+    }
+
+    @Override
+    public String toString() {
+        var result = String.format("Server: %d connections, %d solved, %d failed",
+                connections.get(), solved.get(), failed.get());
+        return cache == null ? result : result + "\n" + cache;
+    }
+
+    /**
+     * The edge list of a request, hashed as it is read.
+     */
+    private static class Request {
+        private final int n;
+        private final int[] from;
+        private final int[] to;
+        private final double[] weight;
+        private final GraphHash hash;
+        // Taken from the held items
+        private final int permits;
+
+        Request(int n, int m, int permits) {
+            this.n = n;
+            this.permits = permits;
+            from = new int[m];
+            to = new int[m];
+            weight = new double[m];
+            hash = new GraphHash(n);
+        }
+
+        void set(int i, int u, int v, double edgeWeight) {
+            if (u < 0 || u >= n || v < 0 || v >= n) {
+                throw new IllegalArgumentException("The edge " + u + " " + v + " has an end out of range.");
+            }
+            from[i] = u;
+            to[i] = v;
+            weight[i] = edgeWeight;
+            hash.add(u, v, edgeWeight);
+        }
+
+        MatchingEngine build() {
+            // The engine expects neither loops nor parallel edges, they are dropped as the reader does
+            var normalization = EdgeNormalizer.normalize(from, to, weight);
+            return new MatchingEngine(n, normalization.getFrom(), normalization.getTo(), normalization.getWeights());
+        }
+    }
+
+    /**
+     * The text of a request, which ends after its length.
+     */
+    private static class TextStream extends InputStream {
+        private final InputStream in;
+        private long remaining;
+
+        TextStream(InputStream in, long length) {
+            this.in = in;
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining == 0)
+                return -1;
+            int result = in.read();
+            if (result == -1) {
+                throw new EOFException("The text ended before its length.");
+            }
+            remaining--;
+            return result;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0)
+                return 0;
+            if (remaining == 0)
+                return -1;
+            int size = in.read(buffer, offset, (int) Math.min(length, remaining));
+            if (size == -1) {
+                throw new EOFException("The text ended before its length.");
+            }
+            remaining -= size;
+            return size;
+        }
+
+        void skipRest() throws IOException {
+            in.skipNBytes(remaining);
+            remaining = 0;
+        }
+    }
+
+    /**
+     * A request which was not read to its end, so the connection is closed after the answer.
+     */
+    private static class UnreadRequestException extends IllegalArgumentException {
+        private static final long serialVersionUID = 1L;
+
+        UnreadRequestException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package fr.ladybug;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+
+/**
+ * Semi-streaming matching: the edges are seen once, in the order of the stream, and only O(n) values plus
+ * a stack of the retained edges are kept (the local ratio algorithm of Paz and Schwartzman).
+ * <p>
+ * Every vertex has a potential. An edge is retained only if its weight exceeds the potentials of its ends by
+ * the factor 1 + epsilon, then the excess is added to both potentials. The excess is more than
+ * {@code epsilon / (1 + epsilon)} of the weight, no potential exceeds the maximum weight and every retained edge
+ * multiplies the potentials of its ends by at least 1 + epsilon, so a vertex retains at most
+ * {@code 2 + log(maxWeight / (epsilon * minWeight)) / log(1 + epsilon)} edges.
+ * <p>
+ * At the end the stack is unwound and every edge whose ends are still free is taken. This gives at least the sum
+ * of the excesses, i.e. half of the potentials, while 1 + epsilon times the potentials cover every edge of the
+ * stream, so the matching is at least {@code 1 / (2 + 2 * epsilon)} of the maximum. The retained edges may instead
+ * be solved exactly, which is never worse.
+ */
+public class StreamingMatching {
+    public static final double DEFAULT_EPSILON = 0.1;
+
+    private final int n;
+    private final double epsilon;
+    private final double[] potential;
+
+    // The stack of the retained edges
+    private int[] from = new int[16];
+    private int[] to = new int[16];
+    private double[] weight = new double[16];
+    private int size = 0;
+
+    private long streamedEdges = 0;
+    private int[] mate;
+    private double matchingWeight = 0;
+
+    public StreamingMatching(int n, double epsilon) {
+        checkEpsilon(epsilon);
+        this.n = n;
+        this.epsilon = epsilon;
+        this.potential = new double[n];
+    }
+
+    /**
+     * Reads the header and the edges of the graph-file format from the stream, one edge at a time.
+     * The number of edges in the header is not trusted, the edges are read until the end of the stream.
+     * A gzip-compressed stream is decompressed on another thread, see {@link GzipPipe}.
+     *
+     * @param resolve whether the retained edges are solved exactly instead of greedily
+     */
+    public static StreamingMatching read(InputStream stream, double epsilon, boolean resolve) {
+        checkEpsilon(epsilon);
+        Scanner in;
+        try {
+            in = new Scanner(GraphReader.decompressed(stream));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        StreamingMatching matching;
+        try {
+            int n = in.nextInt();
+            // Number of edges, possibly unknown
+            in.nextLong();
+            matching = new StreamingMatching(n, epsilon);
+            while (in.hasNextInt()) {
+                int u = in.nextInt();
+                int v = in.nextInt();
+                matching.offer(u, v, in.nextDouble());
+            }
+        } catch (NoSuchElementException e) {
+            checkStream(in);
+            throw e;
+        }
+        checkStream(in);
+        matching.finish(resolve);
+        return matching;
+    }
+
+    /**
+     * Without a positive epsilon no bound holds on the retained edges: a stream of slowly growing weights keeps all.
+     */
+    private static void checkEpsilon(double epsilon) {
+        if (!(epsilon > 0)) {
+            throw new IllegalArgumentException("Epsilon must be positive.");
+        }
+    }
+
+    /**
+     * The scanner stops at an error of the stream as if it was the end.
+     */
+    private static void checkStream(Scanner in) {
+        if (in.ioException() != null) {
+            throw new UncheckedIOException(in.ioException());
+        }
+    }
+
+    /**
+     * Sees the next edge of the stream.
+     */
+    public void offer(int u, int v, double edgeWeight) {
+        if (mate != null) {
+            throw new IllegalStateException("The stream is already finished.");
+        }
+        if (u < 0 || u >= n || v < 0 || v >= n) {
+            throw new IllegalArgumentException("The edge " + u + " " + v + " has an end out of range.");
+        }
+        streamedEdges++;
+        if (u == v || edgeWeight <= (1 + epsilon) * (potential[u] + potential[v]))
+            return;
+
+        double gain = edgeWeight - potential[u] - potential[v];
+        potential[u] += gain;
+        potential[v] += gain;
+        if (size == from.length) {
+            from = Arrays.copyOf(from, 2 * size);
+            to = Arrays.copyOf(to, 2 * size);
+            weight = Arrays.copyOf(weight, 2 * size);
+        }
+        from[size] = u;
+        to[size] = v;
+        weight[size] = edgeWeight;
+        size++;
+    }
+
+    /**
+     * Ends the stream and builds the matching from the retained edges.
+     *
+     * @param resolve whether the retained edges are solved exactly instead of unwinding the stack
+     */
+    public void finish(boolean resolve) {
+        if (mate != null) {
+            throw new IllegalStateException("The stream is already finished.");
+        }
+        mate = new int[n];
+        Arrays.fill(mate, -1);
+        matchingWeight = 0;
+        if (resolve) {
+            var engine = new MatchingEngine(n, Arrays.copyOf(from, size), Arrays.copyOf(to, size), weight);
+            engine.initializeVariables();
+            while (engine.stage()) {
+            }
+            for (int v = 0; v < n; v++) {
+                mate[v] = engine.getMate(v);
+            }
+            matchingWeight = engine.getMatchingWeight();
+            return;
+        }
+        // The later edges were retained on top of the earlier ones, so they go first
+        for (int i = size - 1; i >= 0; i--) {
+            if (mate[from[i]] != -1 || mate[to[i]] != -1)
+                continue;
+            mate[from[i]] = to[i];
+            mate[to[i]] = from[i];
+            matchingWeight += weight[i];
+        }
+    }
+
+    /**
+     * @return the vertex matched with v, or -1
+     */
+    public int getMate(int v) {
+        return mate[v];
+    }
+
+    /**
+     * @return a copy of the pairs of all vertices
+     */
+    public int[] getMates() {
+        return Arrays.copyOf(mate, mate.length);
+    }
+
+    public double getMatchingWeight() {
+        return matchingWeight;
+    }
+
+    /**
+     * @return the bound on the weight of every matching of the stream, 1 + epsilon times the sum of the potentials
+     */
+    public double getUpperBound() {
+        double result = 0;
+        for (var value : potential) {
+            result += value;
+        }
+        return (1 + epsilon) * result;
+    }
+
+    public long getStreamedEdges() {
+        return streamedEdges;
+    }
+
+    public int getRetainedEdges() {
+        return size;
+    }
+
+    /**
+     * @return the bytes held by the arrays: the potentials, the mates and the stack with its spare capacity
+     */
+    public long getMemoryBytes() {
+        return (long)n * (Double.BYTES + Integer.BYTES) +
+                (long)from.length * (2 * Integer.BYTES + Double.BYTES);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Streaming: %d edges streamed, %d retained, %d bytes; weight %f, upper bound %f",
+                streamedEdges, size, getMemoryBytes(), matchingWeight, getUpperBound());
+    }
+}
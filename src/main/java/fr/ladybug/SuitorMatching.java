@@ -0,0 +1,92 @@
+package fr.ladybug;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.IntStream;
+
+/**
+ * The parallel Suitor algorithm: a 1/2-approximation of the maximum weight matching.
+ * <p>
+ * Every vertex proposes to its heaviest neighbour whose current suitor is lighter. A vertex which loses its place
+ * proposes again to its next best neighbour. The proposals are compare-and-set on a per-vertex array of
+ * proposing edges, so no locks are taken. The edges are ordered by weight, then by the ids of their ends, and
+ * with such a strict order the result is the locally dominant matching, whatever the number of threads is.
+ */
+public class SuitorMatching {
+
+    private SuitorMatching() {
+    }
+
+    /**
+     * Matches the vertices of the graph and sets their pairs.
+     *
+     * @return the matched edges, as {@link Graph#getCurrentMatching()} does
+     */
+    public static List<Edge> solve(Graph graph) {
+        var vertices = graph.getVertices();
+        int n = 0;
+        for (var vertex : vertices) {
+            n = Math.max(n, vertex.index + 1);
+        }
+        // The edge of the current suitor of every vertex, it goes from the suitor to the vertex
+        var suitor = new AtomicReferenceArray<Edge>(n);
+        IntStream.range(0, vertices.size()).parallel()
+                .forEach(i -> propose(vertices.get(i), suitor));
+
+        var matching = new ArrayList<Edge>();
+        for (var vertex : vertices) {
+            vertex.setPair(null);
+        }
+        for (var vertex : vertices) {
+            var edge = suitor.get(vertex.index);
+            // The vertices are suitors of each other
+            if (edge != null && suitor.get(edge.from.index) != null && suitor.get(edge.from.index).from == vertex) {
+                vertex.setPair(edge.from);
+                if (edge.from.getId() < vertex.getId())
+                    matching.add(edge);
+            }
+        }
+        return matching;
+    }
+
+    private static void propose(RealVertex vertex, AtomicReferenceArray<Edge> suitor) {
+        var current = vertex;
+        while (current != null) {
+            Edge best = null;
+            for (var edge : current.getEdges()) {
+                if (edge.weight <= 0 || edge.to == current)
+                    continue;
+                if (heavier(edge, suitor.get(edge.to.index)) && (best == null || heavier(edge, best)))
+                    best = edge;
+            }
+            if (best == null)
+                return;
+
+            int target = best.to.index;
+            var previous = suitor.get(target);
+            // Somebody got there first, look again
+            if (!heavier(best, previous))
+                continue;
+            if (!suitor.compareAndSet(target, previous, best))
+                continue;
+            // The displaced suitor has to find somebody else
+            current = previous == null ? null : previous.from;
+        }
+    }
+
+    /**
+     * Strict order of the edges: by weight, then by the greater id of the ends, then by the lesser one.
+     */
+    private static boolean heavier(Edge edge, Edge other) {
+        if (other == null)
+            return true;
+        if (edge.weight != other.weight)
+            return edge.weight > other.weight;
+        int high = Math.max(edge.from.getId(), edge.to.getId());
+        int otherHigh = Math.max(other.from.getId(), other.to.getId());
+        if (high != otherHigh)
+            return high > otherHigh;
+        return Math.min(edge.from.getId(), edge.to.getId()) > Math.min(other.from.getId(), other.to.getId());
+    }
+}
@@ -0,0 +1,133 @@
+package fr.ladybug;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Relabels the vertices of an edge list, so that neighbours get close positions.
+ * The solver keeps the vertices and their edges in the new order, but every vertex remembers its original id.
+ */
+public class VertexReordering {
+
+    public enum Order {
+        // Keep the vertices exactly as given
+        AS_GIVEN,
+        // Breadth-first search order, component by component
+        BFS,
+        // Reverse Cuthill-McKee: BFS from a low degree vertex, neighbours by increasing degree, reversed
+        REVERSE_CUTHILL_MCKEE,
+        // Decreasing degree, so the hubs are packed together
+        DEGREE
+    }
+
+    private VertexReordering() {
+    }
+
+    /**
+     * @return the original vertices in their new order, i.e. {@code result[position] = vertex}
+     */
+    public static int[] order(Order order, int n, int[] from, int[] to) {
+        switch (order) {
+            case AS_GIVEN:
+                return IntStream.range(0, n).toArray();
+            case DEGREE:
+                return byDegree(n, degrees(n, from, to), true);
+            case BFS:
+                return breadthFirst(n, from, to, false);
+            case REVERSE_CUTHILL_MCKEE: {
+                var result = breadthFirst(n, from, to, true);
+                for (int i = 0, j = n - 1; i < j; i++, j--) {
+                    var tmp = result[i];
+                    result[i] = result[j];
+                    result[j] = tmp;
+                }
+                return result;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown order: " + order);
+        }
+    }
+
+    private static int[] breadthFirst(int n, int[] from, int[] to, boolean cuthillMcKee) {
+        var degree = degrees(n, from, to);
+        var offsets = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            offsets[i + 1] = offsets[i] + degree[i];
+        }
+        var fill = Arrays.copyOf(offsets, n);
+        var neighbours = new int[offsets[n]];
+        for (int i = 0; i < from.length; i++) {
+            neighbours[fill[from[i]]++] = to[i];
+            neighbours[fill[to[i]]++] = from[i];
+        }
+
+        // Cuthill-McKee starts every component from its vertex of the least degree and visits the neighbours by
+        // increasing degree, so the lists of neighbours are refilled in that order
+        var startOrder = cuthillMcKee ? byDegree(n, degree, false) : IntStream.range(0, n).toArray();
+        if (cuthillMcKee) {
+            var sorted = new int[neighbours.length];
+            fill = Arrays.copyOf(offsets, n);
+            for (var vertex : startOrder) {
+                for (int i = offsets[vertex]; i < offsets[vertex + 1]; i++) {
+                    sorted[fill[neighbours[i]]++] = vertex;
+                }
+            }
+            neighbours = sorted;
+        }
+
+        // The result doubles as the queue of the search
+        var result = new int[n];
+        var visited = new boolean[n];
+        int size = 0;
+        for (var start : startOrder) {
+            if (visited[start])
+                continue;
+            visited[start] = true;
+            int head = size;
+            result[size++] = start;
+            while (head < size) {
+                int vertex = result[head++];
+                for (int i = offsets[vertex]; i < offsets[vertex + 1]; i++) {
+                    int neighbour = neighbours[i];
+                    if (visited[neighbour])
+                        continue;
+                    visited[neighbour] = true;
+                    result[size++] = neighbour;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the vertices by increasing or decreasing degree, the ties by increasing id
+     */
+    private static int[] byDegree(int n, int[] degree, boolean decreasing) {
+        int maxDegree = 0;
+        for (var value : degree) {
+            maxDegree = Math.max(maxDegree, value);
+        }
+        var offsets = new int[maxDegree + 2];
+        for (var value : degree) {
+            offsets[(decreasing ? maxDegree - value : value) + 1]++;
+        }
+        for (int i = 0; i <= maxDegree; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        var result = new int[n];
+        for (int vertex = 0; vertex < n; vertex++) {
+            int value = degree[vertex];
+            result[offsets[decreasing ? maxDegree - value : value]++] = vertex;
+        }
+        return result;
+    }
+
+    private static int[] degrees(int n, int[] from, int[] to) {
+        var degree = new int[n];
+        for (int i = 0; i < from.length; i++) {
+            degree[from[i]]++;
+            degree[to[i]]++;
+        }
+        return degree;
+    }
+}
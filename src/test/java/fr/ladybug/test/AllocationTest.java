@@ -0,0 +1,37 @@
+package fr.ladybug.test;
+
+import fr.ladybug.MatchingEngine;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class AllocationTest {
+
+    @Test
+    void stagesAllocateNothing() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        var threads = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+        long thread = Thread.currentThread().getId();
+
+        for (var family : ScaleGraphs.Family.values()) {
+            // Below the parallel threshold, the forked delta scans allocate their tasks
+            int n = 400;
+            var edges = ScaleGraphs.generate(family, n, 0);
+            long allocated = 0;
+            // The first rounds load and compile the classes
+            for (int round = 0; round < 4; round++) {
+                var engine = new MatchingEngine(n, edges.getFrom(), edges.getTo(), edges.getWeights());
+                engine.initializeVariables();
+                long before = threads.getThreadAllocatedBytes(thread);
+                while (engine.stage()) {
+                }
+                allocated = threads.getThreadAllocatedBytes(thread) - before;
+            }
+            assertEquals(0, allocated, family + " allocates during the stages");
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package fr.ladybug.test;
+
+import fr.ladybug.ApproximateMatchingEngine;
+import fr.ladybug.Graph;
+import fr.ladybug.MatchingEngine;
+import fr.ladybug.RealVertex;
+import org.jgrapht.generate.GnmRandomGraphGenerator;
+import org.jgrapht.graph.DefaultEdge;
+import org.jgrapht.graph.SimpleGraph;
+import org.jgrapht.util.SupplierUtil;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+
+import static fr.ladybug.test.BruteSolver.solve;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ApproximationTest {
+
+    org.jgrapht.Graph<Integer, DefaultEdge> randomGraph(int n, int m, int seed) {
+        org.jgrapht.Graph<Integer, DefaultEdge> graph = new SimpleGraph<Integer, DefaultEdge>(
+                SupplierUtil.createIntegerSupplier(),
+                SupplierUtil.createDefaultEdgeSupplier(),
+                false);
+        new GnmRandomGraphGenerator<Integer, DefaultEdge>(n, m, seed, false, false)
+                .generateGraph(graph);
+        return graph;
+    }
+
+    /**
+     * Checks that the pairs are a matching over edges of the graph, and the guarantee against the exact weight.
+     */
+    void check(Graph graph, double epsilon, double trueWeight) {
+        var matched = new HashSet<RealVertex>();
+        for (var edge : graph.getCurrentMatching()) {
+            assertTrue(matched.add(edge.from()));
+            assertTrue(matched.add(edge.to()));
+        }
+        double weight = graph.getMatchingWeight();
+        double bound = graph.getDualBound();
+        assertTrue(weight <= trueWeight + 1e-6);
+        assertTrue(bound >= trueWeight - 1e-6);
+        assertTrue(weight >= (1 - epsilon) * bound - 1e-6);
+    }
+
+    @Test
+    void random() {
+        stress(12, 12, 0.1, 1, 300);
+        stress(14, 13, 0.3, 2, 300);
+        stress(10, 15, 0.01, 3, 300);
+    }
+
+    void stress(int n, int m, double epsilon, int seed, int iterations) {
+        var rnd = new Random(seed);
+        for (int i = 0; i < iterations; i++) {
+            var graph = new Graph(randomGraph(n, m, rnd.nextInt()), seed);
+            var trueWeight = solve(graph);
+            graph.solveApproximately(epsilon);
+            check(graph, epsilon, trueWeight);
+        }
+    }
+
+    @Test
+    void dense() {
+        for (var epsilon : new double[]{0.01, 0.05, 0.2}) {
+            for (int seed = 1; seed <= 5; seed++) {
+                var exact = new Graph(randomGraph(60, 600, seed), seed);
+                exact.solve();
+
+                var graph = new Graph(randomGraph(60, 600, seed), seed);
+                graph.solveApproximately(epsilon);
+                check(graph, epsilon, exact.getMatchingWeight());
+            }
+        }
+    }
+
+    @Test
+    void scaleFamilies() {
+        var epsilon = 0.1;
+        int n = 3000;
+        for (var family : ScaleGraphs.Family.values()) {
+            var edges = ScaleGraphs.generate(family, n, 1);
+            var exact = new MatchingEngine(n, edges.getFrom(), edges.getTo(), edges.getWeights());
+            exact.initializeVariables();
+            while (exact.stage()) {
+            }
+            var trueWeight = exact.getMatchingWeight();
+
+            var engine = new ApproximateMatchingEngine(n, edges.getFrom(), edges.getTo(), edges.getWeights());
+            engine.solve(epsilon);
+            for (int v = 0; v < n; v++) {
+                int pair = engine.getMate(v);
+                if (pair != -1)
+                    assertEquals(v, engine.getMate(pair));
+            }
+            assertTrue(engine.getMatchingWeight() <= trueWeight + 1e-6, family.toString());
+            assertTrue(engine.getDualBound() >= trueWeight - 1e-6, family.toString());
+            assertTrue(engine.getMatchingWeight() >= (1 - epsilon) * engine.getDualBound() - 1e-6, family.toString());
+            // A search is one pass over the edges, their number depends on epsilon and not on the augmentations
+            assertTrue(engine.getSearches() < n / 2, family + ": " + engine.getSearches() + " searches");
+        }
+    }
+
+    @Test
+    void unitWeights() {
+        var engine = new ApproximateMatchingEngine(6, new int[]{0, 1, 2, 3, 4, 5}, new int[]{1, 2, 3, 4, 5, 0},
+                new double[]{1, 1, 1, 1, 1, 1});
+        engine.solve(0.1);
+        assertEquals(3, engine.getMatchingWeight());
+        assertEquals(3, engine.getDualBound(), 1e-9);
+    }
+
+    @Test
+    void noPositiveEdges() {
+        var engine = new ApproximateMatchingEngine(3, new int[]{0, 1}, new int[]{1, 2}, new double[]{0, -1});
+        engine.solve(0.5);
+        assertEquals(0, engine.getMatchingWeight());
+        assertEquals(0, engine.getDualBound());
+        assertEquals(-1, engine.getMate(1));
+    }
+
+    @Test
+    void epsilonMustBeBetweenZeroAndOne() {
+        var engine = new ApproximateMatchingEngine(2, new int[]{0}, new int[]{1}, new double[]{1});
+        assertThrows(IllegalArgumentException.class, () -> engine.solve(0));
+        assertThrows(IllegalArgumentException.class, () -> engine.solve(1));
+    }
+
+    @Test
+    void exactSolveDropsTheApproximation() {
+        var graph = new Graph(randomGraph(20, 40, 5), 5);
+        graph.solveApproximately(0.2);
+        graph.solve();
+        assertNull(graph.getApproximation());
+    }
+}
@@ -0,0 +1,161 @@
+package fr.ladybug.test;
+
+import fr.ladybug.Edge;
+import fr.ladybug.GraphHash;
+import fr.ladybug.GraphReader;
+import fr.ladybug.ResultCache;
+import fr.ladybug.SolverClient;
+import fr.ladybug.SolverServer;
+import fr.ladybug.VertexReordering;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CacheTest {
+
+    String graphText(int n, ArrayList<int[]> edges) {
+        var text = new StringBuilder(n + " " + edges.size() + "\n");
+        for (var edge : edges) {
+            text.append(edge[0]).append(' ').append(edge[1]).append(' ').append(edge[2]).append('\n');
+        }
+        return text.toString();
+    }
+
+    GraphHash hash(String text) {
+        var reader = new GraphReader(null);
+        reader.readGraph(new ByteArrayInputStream(text.getBytes()));
+        return reader.getHash();
+    }
+
+    @Test
+    void hashIgnoresOrderAndDirection() {
+        var rnd = new Random(0);
+        var edges = new ArrayList<int[]>();
+        for (int i = 0; i < 50; i++) {
+            edges.add(new int[]{rnd.nextInt(30), rnd.nextInt(30), rnd.nextInt(1000)});
+        }
+        var expected = hash(graphText(30, edges));
+
+        Collections.shuffle(edges, rnd);
+        for (var edge : edges) {
+            if (rnd.nextBoolean()) {
+                int tmp = edge[0];
+                edge[0] = edge[1];
+                edge[1] = tmp;
+            }
+        }
+        assertEquals(expected, hash(graphText(30, edges)));
+        assertEquals(expected.hashCode(), hash(graphText(30, edges)).hashCode());
+
+        assertNotEquals(expected, hash(graphText(31, edges)));
+        edges.get(7)[2]++;
+        assertNotEquals(expected, hash(graphText(30, edges)));
+    }
+
+    @Test
+    void hitsSkipTheSolver() {
+        var cache = new ResultCache(1 << 20, null);
+        var rnd = new Random(1);
+        for (int i = 0; i < 20; i++) {
+            var edges = new ArrayList<int[]>();
+            var seen = new HashSet<Integer>();
+            while (edges.size() < 40) {
+                int u = rnd.nextInt(20);
+                int v = rnd.nextInt(20);
+                if (u != v && seen.add(Math.min(u, v) * 20 + Math.max(u, v)))
+                    edges.add(new int[]{u, v, 1 + rnd.nextInt(100)});
+            }
+            var text = graphText(20, edges);
+
+            var reader = new GraphReader(null);
+            var graph = reader.readGraph(new ByteArrayInputStream(text.getBytes()));
+            assertNull(cache.get(reader.getHash()));
+            graph.solve();
+            var expected = graph.getCurrentMatching().stream().mapToDouble(Edge::getWeight).sum();
+            cache.put(reader.getHash(), ResultCache.Result.of(graph));
+
+            // The same graph with the edges in another order and the vertices in another layout
+            Collections.shuffle(edges, rnd);
+            var reordered = new GraphReader(null, VertexReordering.Order.REVERSE_CUTHILL_MCKEE);
+            var copy = reordered.readGraph(new ByteArrayInputStream(graphText(20, edges).getBytes()));
+            var cached = cache.get(reordered.getHash());
+            assertNotNull(cached);
+            assertEquals(expected, cached.getWeight(), 1e-9);
+            cached.applyTo(copy);
+            assertEquals(expected, copy.getCurrentMatching().stream().mapToDouble(Edge::getWeight).sum(), 1e-9);
+        }
+        assertEquals(20, cache.getHits());
+        assertEquals(20, cache.getMisses());
+        assertEquals(0.5, cache.getHitRate(), 1e-9);
+    }
+
+    @Test
+    void leastRecentlyUsedAreEvictedAndSpilled() throws Exception {
+        var directory = Files.createTempDirectory("matching-cache");
+        var keys = new ArrayList<GraphHash>();
+        for (int i = 0; i < 4; i++) {
+            var key = new GraphHash(10);
+            key.add(0, 1, i);
+            keys.add(key);
+        }
+        var results = new ArrayList<ResultCache.Result>();
+        for (int i = 0; i < 4; i++) {
+            results.add(new ResultCache.Result(i, new int[]{0, 1}));
+        }
+        // Room for two entries only
+        var probe = new ResultCache(Long.MAX_VALUE, null);
+        probe.put(keys.get(0), results.get(0));
+        long entryBytes = probe.getBytes();
+
+        var cache = new ResultCache(2 * entryBytes, directory);
+        cache.put(keys.get(0), results.get(0));
+        cache.put(keys.get(1), results.get(1));
+        // The first one is used, so the second one goes
+        assertSame(results.get(0), cache.get(keys.get(0)));
+        cache.put(keys.get(2), results.get(2));
+        assertEquals(1, cache.getEvictions());
+        assertTrue(cache.getBytes() <= 2 * entryBytes);
+        assertSame(results.get(0), cache.get(keys.get(0)));
+        assertSame(results.get(2), cache.get(keys.get(2)));
+
+        // The evicted one comes back from the disk
+        var spilled = cache.get(keys.get(1));
+        assertEquals(1, spilled.getWeight());
+        assertEquals(1, cache.getDiskHits());
+        assertNull(cache.get(keys.get(3)));
+
+        // A new cache on the same directory sees everything after a flush
+        cache.flush();
+        var next = new ResultCache(0, directory);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(i, next.get(keys.get(i)).getWeight());
+        }
+        assertEquals(3, next.getDiskHits());
+    }
+
+    @Test
+    void serverAnswersFromTheCache() throws Exception {
+        try (var server = new SolverServer(0, 1, 1, new ResultCache(1 << 20, null))) {
+            server.start();
+            try (var client = new SolverClient(server.getPort())) {
+                var first = client.solve("4 3\n0 1 1\n1 2 3\n2 3 1\n");
+                var second = client.solve("4 3\n3 2 1\n2 1 3\n1 0 1\n");
+                assertEquals(3, first.getWeight());
+                assertEquals(3, second.getWeight());
+                assertTrue(client.stats().contains("1 hits"));
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package fr.ladybug.test;
+
+import fr.ladybug.ComponentSolver;
+import fr.ladybug.Edge;
+import fr.ladybug.Graph;
+import fr.ladybug.RealVertex;
+import org.jgrapht.generate.GnmRandomGraphGenerator;
+import org.jgrapht.graph.DefaultEdge;
+import org.jgrapht.graph.SimpleGraph;
+import org.jgrapht.util.SupplierUtil;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import static fr.ladybug.test.BruteSolver.solve;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ComponentTest {
+
+    double solveWithComponents(Graph graph) {
+        var solver = ComponentSolver.split(graph);
+        graph.solve();
+        solver.restore();
+        return graph.getCurrentMatching().stream()
+                .reduce(0., (acc, edge) -> acc + edge.getWeight(), Double::sum);
+    }
+
+    @Test
+    void cycleWithTrees() {
+        // An even cycle where the closing edge is the heaviest, with a tree hanging off one vertex
+        RealVertex.global_id = 0;
+        var vertices = new ArrayList<RealVertex>();
+        for (int i = 0; i < 9; i++) {
+            vertices.add(new RealVertex());
+        }
+        connect(vertices.get(0), vertices.get(1), 4);
+        connect(vertices.get(1), vertices.get(2), 5);
+        connect(vertices.get(2), vertices.get(3), 4);
+        connect(vertices.get(3), vertices.get(4), 5);
+        connect(vertices.get(4), vertices.get(5), 4);
+        connect(vertices.get(5), vertices.get(0), 9);
+        connect(vertices.get(2), vertices.get(6), 3);
+        connect(vertices.get(6), vertices.get(7), 2);
+        connect(vertices.get(6), vertices.get(8), 6);
+
+        var graph = new Graph(vertices);
+        var trueWeight = solve(graph);
+        var solver = ComponentSolver.split(graph);
+        graph.solve();
+        solver.restore();
+        assertEquals(1, solver.getStats().getCycleComponents());
+        assertEquals(0, solver.getStats().getCoreVertices());
+        assertEquals(trueWeight, graph.getCurrentMatching().stream().mapToDouble(Edge::getWeight).sum(), 1e-6);
+    }
+
+    @Test
+    void denseComponentsStay() {
+        // A complete graph on 4 vertices next to a path
+        RealVertex.global_id = 0;
+        var vertices = new ArrayList<RealVertex>();
+        for (int i = 0; i < 7; i++) {
+            vertices.add(new RealVertex());
+        }
+        var rnd = new Random(0);
+        for (int i = 0; i < 4; i++) {
+            for (int j = i + 1; j < 4; j++) {
+                connect(vertices.get(i), vertices.get(j), 1 + rnd.nextInt(10));
+            }
+        }
+        connect(vertices.get(4), vertices.get(5), 3);
+        connect(vertices.get(5), vertices.get(6), 4);
+
+        var graph = new Graph(vertices);
+        var trueWeight = solve(graph);
+        var solver = ComponentSolver.split(graph);
+        graph.solve();
+        solver.restore();
+        assertEquals(1, solver.getStats().getTreeComponents());
+        assertEquals(4, solver.getStats().getCoreVertices());
+        assertEquals(trueWeight, graph.getCurrentMatching().stream().mapToDouble(Edge::getWeight).sum(), 1e-6);
+    }
+
+    @Test
+    void longPath() {
+        RealVertex.global_id = 0;
+        var rnd = new Random(1);
+        var vertices = new ArrayList<RealVertex>();
+        var copies = new ArrayList<RealVertex>();
+        for (int i = 0; i < 3000; i++) {
+            vertices.add(new RealVertex());
+            copies.add(new RealVertex());
+        }
+        for (int i = 1; i < vertices.size(); i++) {
+            var weight = 1 + rnd.nextInt(100);
+            connect(vertices.get(i - 1), vertices.get(i), weight);
+            connect(copies.get(i - 1), copies.get(i), weight);
+        }
+        var plain = new Graph(copies);
+        plain.solve();
+        var expected = plain.getCurrentMatching().stream().mapToDouble(Edge::getWeight).sum();
+        assertEquals(expected, solveWithComponents(new Graph(vertices)), 1e-6);
+    }
+
+    @Test
+    void random() {
+        stress(6, 5, 1, 300);
+        stress(8, 7, 2, 300);
+        stress(10, 9, 3, 300);
+        stress(12, 10, 4, 300);
+        stress(14, 12, 5, 300);
+    }
+
+    void stress(int n, int m, int seed, int iterations) {
+        var rnd = new Random(seed);
+        for (int i = 0; i < iterations; i++) {
+            RealVertex.global_id = 0;
+            org.jgrapht.Graph<Integer, DefaultEdge> graph = new SimpleGraph<Integer, DefaultEdge>(
+                    SupplierUtil.createIntegerSupplier(),
+                    SupplierUtil.createDefaultEdgeSupplier(),
+                    false);
+            new GnmRandomGraphGenerator<Integer, DefaultEdge>(n, m, rnd.nextInt(), false, false)
+                    .generateGraph(graph);
+
+            var ourGraph = new Graph(graph, seed);
+            var trueWeight = solve(ourGraph);
+            assertEquals(trueWeight, solveWithComponents(ourGraph), 1e-6);
+        }
+    }
+
+    private static void connect(RealVertex from, RealVertex to, double weight) {
+        var edgeA = new Edge(from, to, weight);
+        var edgeB = new Edge(to, from, weight);
+        edgeA.setRev(edgeB);
+        edgeB.setRev(edgeA);
+        from.addEdge(edgeA);
+        to.addEdge(edgeB);
+    }
+}
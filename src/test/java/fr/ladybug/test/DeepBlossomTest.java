@@ -0,0 +1,69 @@
+package fr.ladybug.test;
+
+import fr.ladybug.MatchingEngine;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class DeepBlossomTest {
+    private static final int LEVELS = 5000;
+    private static final double PAIR_WEIGHT = 1 << 20;
+
+    /**
+     * A free root r = 0 and the pairs a_i = 2i - 1, b_i = 2i joined by the heaviest edges, with the links
+     * b_(i-1) a_i and b_(i-1) b_i one lighter, where b_0 = r. Once the pairs are matched, every step of the variables
+     * by one makes the links of the next level tight and wraps the blossom so far into a new one with a_i and b_i,
+     * until r reaches zero and the augmentation to r goes down through all the levels.
+     */
+    MatchingEngine nestedBlossoms(int levels) {
+        int n = 2 * levels + 1;
+        var from = new int[3 * levels];
+        var to = new int[3 * levels];
+        var weight = new double[3 * levels];
+        int m = 0;
+        for (int i = 1; i <= levels; i++) {
+            int a = 2 * i - 1;
+            int b = 2 * i;
+            int previous = i == 1 ? 0 : b - 2;
+            from[m] = a;
+            to[m] = b;
+            weight[m++] = PAIR_WEIGHT;
+            from[m] = previous;
+            to[m] = a;
+            weight[m++] = PAIR_WEIGHT - 1;
+            from[m] = previous;
+            to[m] = b;
+            weight[m++] = PAIR_WEIGHT - 1;
+        }
+        return new MatchingEngine(n, from, to, weight);
+    }
+
+    @Test
+    void thousandsOfLevelsOnASmallStack() throws InterruptedException {
+        var engine = nestedBlossoms(LEVELS);
+        var failure = new AtomicReference<Throwable>();
+        // Far too small for a frame per level
+        var solver = new Thread(null, () -> {
+            try {
+                engine.initializeVariables();
+                while (engine.stage()) {
+                }
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        }, "deep-blossoms", 1 << 16);
+        solver.start();
+        solver.join();
+        if (failure.get() != null)
+            throw new AssertionError(failure.get());
+
+        assertEquals(-1, engine.getMate(0));
+        for (int i = 1; i <= LEVELS; i++) {
+            assertEquals(2 * i, engine.getMate(2 * i - 1));
+        }
+        assertEquals(LEVELS * PAIR_WEIGHT, engine.getMatchingWeight(), 1e-6);
+        assertEquals(engine.getMatchingWeight(), engine.getDualBound(), 1e-6);
+    }
+}
@@ -0,0 +1,120 @@
+package fr.ladybug.test;
+
+import fr.ladybug.CsrEdges;
+import fr.ladybug.GraphGenerator;
+import fr.ladybug.GraphReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GraphGeneratorTest {
+
+    byte[] text(GraphGenerator graph, int threads) throws IOException {
+        var out = new ByteArrayOutputStream();
+        graph.writeText(out, threads);
+        return out.toByteArray();
+    }
+
+    byte[] csr(GraphGenerator graph) throws IOException {
+        var out = new ByteArrayOutputStream();
+        graph.toCsr().write(out);
+        return out.toByteArray();
+    }
+
+    @Test
+    void sameForAnyThreads() throws IOException {
+        // More edges and vertices than fit in a chunk, so that the chunks are spread over the threads
+        for (var family : GraphGenerator.Family.values()) {
+            for (var weights : GraphGenerator.Weights.values()) {
+                var single = GraphGenerator.generate(family, weights, 150_000, 300_000, 1000, 7, 1);
+                var parallel = GraphGenerator.generate(family, weights, 150_000, 300_000, 1000, 7, 4);
+                assertArrayEquals(text(single, 1), text(parallel, 3), family + " " + weights);
+                assertArrayEquals(csr(single), csr(parallel), family + " " + weights);
+            }
+        }
+    }
+
+    @Test
+    void validEdges() {
+        int n = 100_000;
+        for (var family : GraphGenerator.Family.values()) {
+            var edges = GraphGenerator.generate(family, GraphGenerator.Weights.LOG_UNIFORM, n, 4 * n, 50, 1, 2)
+                    .toCsr();
+            var offsets = edges.getOffsets();
+            var targets = edges.getTargets();
+            var weights = edges.getWeights();
+            for (int v = 0; v < n; v++) {
+                for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                    assertTrue(targets[i] != v && targets[i] >= 0 && targets[i] < n, family.toString());
+                    assertTrue(weights[i] >= 1 && weights[i] <= 100 && weights[i] == Math.rint(weights[i]));
+                    if (family == GraphGenerator.Family.BIPARTITE)
+                        assertTrue(v < n / 2 && targets[i] >= n / 2);
+                    if (family != GraphGenerator.Family.BLOSSOM)
+                        assertTrue(weights[i] <= 50);
+                }
+            }
+            if (family == GraphGenerator.Family.GEOMETRIC) {
+                // The expected number of edges, within a few standard deviations
+                assertEquals(4 * n, edges.getEdgeCount(), 4 * n * 0.02);
+            } else {
+                assertEquals(4 * n, edges.getEdgeCount());
+            }
+        }
+    }
+
+    @Test
+    void distinctPairs() {
+        // Sparse, and all but a few of the pairs, where a sampler with repetitions would repeat most of them
+        for (var family : new GraphGenerator.Family[]{GraphGenerator.Family.GNM, GraphGenerator.Family.BIPARTITE}) {
+            int densePairs = family == GraphGenerator.Family.GNM ? 700 * 699 / 2 : 350 * 350;
+            for (int[] size : new int[][]{{100_000, 400_000}, {700, densePairs - 500}}) {
+                int n = size[0];
+                var edges = GraphGenerator.generate(family, GraphGenerator.Weights.UNIFORM, n, size[1], 10, 5, 2)
+                        .toCsr();
+                assertEquals(size[1], edges.getEdgeCount());
+                var seen = new HashSet<Long>();
+                var offsets = edges.getOffsets();
+                var targets = edges.getTargets();
+                for (int v = 0; v < n; v++) {
+                    for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                        long pair = (long)Math.min(v, targets[i]) * n + Math.max(v, targets[i]);
+                        assertTrue(seen.add(pair), family + " repeats " + v + " " + targets[i]);
+                    }
+                }
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> GraphGenerator.generate(GraphGenerator.Family.GNM,
+                GraphGenerator.Weights.UNIFORM, 4, 7, 10, 5, 1));
+    }
+
+    @Test
+    void csrReadsLikeText() throws IOException {
+        var graph = GraphGenerator.generate(GraphGenerator.Family.BLOSSOM, GraphGenerator.Weights.UNIFORM,
+                3000, 6000, 100, 3, 2);
+        var fromText = new GraphReader(null).readGraph(new ByteArrayInputStream(text(graph, 2)));
+        fromText.solve();
+
+        var file = Files.createTempFile("generated", ".csr");
+        try {
+            Files.write(file, csr(graph));
+            var reader = new GraphReader(null);
+            var fromCsr = reader.readGraph(file, 2);
+            fromCsr.solve();
+            assertEquals(fromText.getMatchingWeight(), fromCsr.getMatchingWeight(), 1e-9);
+            assertEquals(graph.toCsr().getHash(), reader.getHash());
+            assertEquals(graph.toCsr().getHash(),
+                    CsrEdges.read(new ByteArrayInputStream(csr(graph))).getHash());
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package fr.ladybug.test;
+
+import fr.ladybug.Edge;
+import fr.ladybug.Graph;
+import fr.ladybug.GraphReader;
+import fr.ladybug.GzipPipe;
+import fr.ladybug.StreamingMatching;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GzipInputTest {
+    byte[] randomGraph(int n, int m, Random rnd) {
+        var text = new StringBuilder(n + " " + m + "\n");
+        var seen = new HashSet<Integer>();
+        while (seen.size() < m) {
+            int u = rnd.nextInt(n);
+            int v = rnd.nextInt(n);
+            if (u != v && seen.add(Math.min(u, v) * n + Math.max(u, v)))
+                text.append(u).append(' ').append(v).append(' ').append(1 + rnd.nextInt(1000)).append('\n');
+        }
+        return text.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    byte[] gzip(byte[] data) throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        try (var out = new GZIPOutputStream(bytes)) {
+            out.write(data);
+        }
+        return bytes.toByteArray();
+    }
+
+    double weight(Graph graph) {
+        graph.solve();
+        return graph.getCurrentMatching().stream().mapToDouble(Edge::getWeight).sum();
+    }
+
+    @Test
+    void pipeGivesTheSameBytes() throws IOException {
+        var rnd = new Random(0);
+        for (int size : new int[]{0, 1, 100, 5000, 300000}) {
+            var data = new byte[size];
+            rnd.nextBytes(data);
+            // Small blocks and a short queue, so the decompressor has to wait for the reader
+            try (var pipe = new GzipPipe(new ByteArrayInputStream(gzip(data)), 1000, 2)) {
+                assertArrayEquals(data, pipe.readAllBytes());
+                assertEquals(-1, pipe.read());
+            }
+        }
+    }
+
+    @Test
+    void closeStopsTheDecompressorAndClosesTheStream() throws IOException {
+        var data = new byte[1 << 20];
+        new Random(3).nextBytes(data);
+        var closed = new boolean[1];
+        var compressed = new ByteArrayInputStream(gzip(data)) {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+        // The queue fills up long before the end, so the decompressor is waiting when the pipe is closed
+        var pipe = new GzipPipe(compressed, 1000, 2);
+        assertEquals(data[0] & 0xff, pipe.read());
+        pipe.close();
+        assertTrue(closed[0]);
+        assertTrue(Thread.getAllStackTraces().keySet().stream()
+                .noneMatch(thread -> thread.getName().equals("gzip-decompressor")));
+    }
+
+    @Test
+    void compressedGraphReadsAsThePlainOne() throws IOException {
+        var rnd = new Random(1);
+        var file = Files.createTempFile("graph", ".grph.gz");
+        try {
+            for (int round = 0; round < 10; round++) {
+                var data = randomGraph(200, 800, rnd);
+                var plainReader = new GraphReader(null);
+                double expected = weight(plainReader.readGraph(new ByteArrayInputStream(data)));
+
+                var reader = new GraphReader(null);
+                assertEquals(expected, weight(reader.readGraph(new ByteArrayInputStream(gzip(data)))), 1e-9);
+                assertEquals(plainReader.getHash(), reader.getHash());
+
+                // A compressed file goes through the stream instead of the byte ranges
+                Files.write(file, gzip(data));
+                assertEquals(expected, weight(reader.readGraph(file, 2)), 1e-9);
+                assertEquals(plainReader.getHash(), reader.getHash());
+
+                var plainStreaming = StreamingMatching.read(new ByteArrayInputStream(data), 0.1, true);
+                var streaming = StreamingMatching.read(new ByteArrayInputStream(gzip(data)), 0.1, true);
+                assertEquals(plainStreaming.getMatchingWeight(), streaming.getMatchingWeight(), 1e-9);
+                assertEquals(plainStreaming.getRetainedEdges(), streaming.getRetainedEdges());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void brokenArchive() throws IOException {
+        var data = gzip(randomGraph(100, 300, new Random(2)));
+        var truncated = Arrays.copyOf(data, data.length / 2);
+        assertThrows(UncheckedIOException.class,
+                () -> new GraphReader(null).readGraph(new ByteArrayInputStream(truncated)));
+        assertThrows(UncheckedIOException.class,
+                () -> StreamingMatching.read(new ByteArrayInputStream(truncated), 0.1, false));
+
+        var corrupted = data.clone();
+        for (int i = 20; i < corrupted.length - 8; i += 7) {
+            corrupted[i] ^= 0x5a;
+        }
+        assertThrows(UncheckedIOException.class,
+                () -> new GraphReader(null).readGraph(new ByteArrayInputStream(corrupted)));
+    }
+}
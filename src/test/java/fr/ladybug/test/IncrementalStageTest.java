@@ -0,0 +1,88 @@
+package fr.ladybug.test;
+
+import fr.ladybug.MatchingEngine;
+import org.jgrapht.alg.matching.blossom.v5.KolmogorovWeightedMatching;
+import org.jgrapht.alg.matching.blossom.v5.ObjectiveSense;
+import org.jgrapht.graph.DefaultWeightedEdge;
+import org.jgrapht.graph.SimpleWeightedGraph;
+import org.jgrapht.util.SupplierUtil;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class IncrementalStageTest {
+
+    /**
+     * Solves a random simple graph with the engine and with Kolmogorov's algorithm of jgrapht.
+     * Few distinct weights make many ties, so the trees which are kept meet blossoms, expansions and the trees
+     * rebuilt by the augmentations.
+     */
+    void check(int n, int m, int maxWeight, SplittableRandom rnd) {
+        var graph = new SimpleWeightedGraph<Integer, DefaultWeightedEdge>(
+                SupplierUtil.createIntegerSupplier(), SupplierUtil.DEFAULT_WEIGHTED_EDGE_SUPPLIER);
+        for (int v = 0; v < n; v++) {
+            graph.addVertex();
+        }
+        for (int i = 0; i < m; i++) {
+            int u = rnd.nextInt(n);
+            int v = rnd.nextInt(n);
+            if (u != v && !graph.containsEdge(u, v))
+                graph.setEdgeWeight(graph.addEdge(u, v), 1 + rnd.nextInt(maxWeight));
+        }
+        var from = new int[graph.edgeSet().size()];
+        var to = new int[from.length];
+        var weight = new double[from.length];
+        int k = 0;
+        for (var edge : graph.edgeSet()) {
+            from[k] = graph.getEdgeSource(edge);
+            to[k] = graph.getEdgeTarget(edge);
+            weight[k++] = graph.getEdgeWeight(edge);
+        }
+
+        var engine = new MatchingEngine(n, from, to, weight);
+        engine.initializeVariables();
+        while (engine.stage()) {
+        }
+        for (int v = 0; v < n; v++) {
+            int mate = engine.getMate(v);
+            assertTrue(mate == -1 || engine.getMate(mate) == v);
+        }
+        double expected = new KolmogorovWeightedMatching<>(graph, ObjectiveSense.MAXIMIZE).getMatching().getWeight();
+        assertEquals(expected, engine.getMatchingWeight(), 1e-6);
+        assertEquals(engine.getMatchingWeight(), engine.getDualBound(), 1e-6);
+    }
+
+    @Test
+    void manyTies() {
+        var rnd = new SplittableRandom(0);
+        for (int maxWeight : new int[]{1, 2, 5}) {
+            for (int i = 0; i < 300; i++) {
+                int n = 10 + rnd.nextInt(50);
+                check(n, n + rnd.nextInt(4 * n), maxWeight, rnd);
+            }
+        }
+    }
+
+    @Test
+    void larger() {
+        var rnd = new SplittableRandom(1);
+        for (int i = 0; i < 20; i++) {
+            check(500, 500 + rnd.nextInt(3000), 1 + rnd.nextInt(1000), rnd);
+        }
+    }
+
+    @Test
+    void fewScansPerEdge() {
+        // Every vertex keeps its place in its edges, the hubs are not scanned from the start after each step
+        int n = 1000;
+        var edges = ScaleGraphs.generate(ScaleGraphs.Family.SCALE_FREE, n, 42);
+        var engine = new MatchingEngine(n, edges.getFrom(), edges.getTo(), edges.getWeights());
+        engine.initializeVariables();
+        while (engine.stage()) {
+        }
+        assertTrue(engine.getScannedEdges() <= 4L * edges.getFrom().length, engine.getScannedEdges() + " scans");
+    }
+}
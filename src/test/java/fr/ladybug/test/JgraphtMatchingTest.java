@@ -0,0 +1,155 @@
+package fr.ladybug.test;
+
+import fr.ladybug.JgraphtMatching;
+import org.jgrapht.alg.interfaces.MatchingAlgorithm;
+import org.jgrapht.alg.matching.MaximumWeightBipartiteMatching;
+import org.jgrapht.alg.matching.blossom.v5.KolmogorovWeightedMatching;
+import org.jgrapht.alg.matching.blossom.v5.ObjectiveSense;
+import org.jgrapht.graph.DefaultDirectedGraph;
+import org.jgrapht.graph.DefaultEdge;
+import org.jgrapht.graph.DefaultWeightedEdge;
+import org.jgrapht.graph.SimpleWeightedGraph;
+import org.jgrapht.graph.WeightedMultigraph;
+import org.jgrapht.util.SupplierUtil;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JgraphtMatchingTest {
+
+    <V, E> void checkMatching(MatchingAlgorithm.Matching<V, E> matching) {
+        var graph = matching.getGraph();
+        var matched = new HashSet<V>();
+        double weight = 0;
+        for (var edge : matching.getEdges()) {
+            assertTrue(matched.add(graph.getEdgeSource(edge)));
+            assertTrue(matched.add(graph.getEdgeTarget(edge)));
+            weight += graph.getEdgeWeight(edge);
+        }
+        assertEquals(weight, matching.getWeight(), 1e-9);
+    }
+
+    @Test
+    void sameWeightAsKolmogorov() {
+        var rnd = new Random(0);
+        for (int i = 0; i < 200; i++) {
+            var graph = new SimpleWeightedGraph<Integer, DefaultWeightedEdge>(
+                    SupplierUtil.createIntegerSupplier(), SupplierUtil.DEFAULT_WEIGHTED_EDGE_SUPPLIER);
+            int n = 2 + rnd.nextInt(40);
+            for (int v = 0; v < n; v++) {
+                graph.addVertex();
+            }
+            for (int k = 0; k < 3 * n; k++) {
+                int u = rnd.nextInt(n);
+                int v = rnd.nextInt(n);
+                if (u == v || graph.containsEdge(u, v))
+                    continue;
+                graph.setEdgeWeight(graph.addEdge(u, v), 1 + rnd.nextInt(1000));
+            }
+            var matching = new JgraphtMatching<>(graph).getMatching();
+            checkMatching(matching);
+            var expected = new KolmogorovWeightedMatching<>(graph, ObjectiveSense.MAXIMIZE).getMatching();
+            assertEquals(expected.getWeight(), matching.getWeight(), 1e-6);
+        }
+    }
+
+    @Test
+    void sameWeightAsBipartite() {
+        var rnd = new Random(1);
+        for (int i = 0; i < 100; i++) {
+            var graph = new SimpleWeightedGraph<Integer, DefaultWeightedEdge>(
+                    SupplierUtil.createIntegerSupplier(), SupplierUtil.DEFAULT_WEIGHTED_EDGE_SUPPLIER);
+            var left = new HashSet<Integer>();
+            var right = new HashSet<Integer>();
+            int n = 1 + rnd.nextInt(20);
+            for (int v = 0; v < n; v++) {
+                left.add(graph.addVertex());
+                right.add(graph.addVertex());
+            }
+            for (int k = 0; k < 3 * n; k++) {
+                int u = 2 * rnd.nextInt(n);
+                int v = 2 * rnd.nextInt(n) + 1;
+                if (!graph.containsEdge(u, v))
+                    graph.setEdgeWeight(graph.addEdge(u, v), rnd.nextDouble() * 100);
+            }
+            var matching = new JgraphtMatching<>(graph).getMatching();
+            checkMatching(matching);
+            var expected = new MaximumWeightBipartiteMatching<>(graph, left, right).getMatching();
+            // The reported weight of jgrapht 1.4 may differ from its edges, they are right
+            var expectedWeight = expected.getEdges().stream().mapToDouble(graph::getEdgeWeight).sum();
+            assertEquals(expectedWeight, matching.getWeight(), 1e-6);
+        }
+    }
+
+    @Test
+    void parallelEdgesAndLoops() {
+        var graph = new WeightedMultigraph<String, DefaultWeightedEdge>(DefaultWeightedEdge.class);
+        graph.addVertex("a");
+        graph.addVertex("b");
+        graph.addVertex("c");
+        graph.setEdgeWeight(graph.addEdge("a", "b"), 1);
+        var heavy = graph.addEdge("a", "b");
+        graph.setEdgeWeight(heavy, 5);
+        graph.setEdgeWeight(graph.addEdge("b", "c"), 4);
+        var matching = new JgraphtMatching<>(graph).getMatching();
+        assertEquals(5, matching.getWeight());
+        assertEquals(Set.of(heavy), matching.getEdges());
+
+        var directed = new DefaultDirectedGraph<Integer, DefaultEdge>(DefaultEdge.class);
+        assertThrows(IllegalArgumentException.class, () -> new JgraphtMatching<>(directed));
+    }
+
+    /**
+     * A vertex whose hash is the same for a whole group, so the positions of the vertices collide.
+     */
+    static class Collider {
+        final int id;
+
+        Collider(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Collider && ((Collider) o).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return id / 10;
+        }
+    }
+
+    @Test
+    void collidingVertices() {
+        var rnd = new Random(2);
+        var graph = new SimpleWeightedGraph<Collider, DefaultWeightedEdge>(DefaultWeightedEdge.class);
+        // The same graph on integers for jgrapht, which adds a vertex of its own
+        var same = new SimpleWeightedGraph<Integer, DefaultWeightedEdge>(
+                SupplierUtil.createIntegerSupplier(), SupplierUtil.DEFAULT_WEIGHTED_EDGE_SUPPLIER);
+        int n = 60;
+        for (int v = 0; v < n; v++) {
+            graph.addVertex(new Collider(v));
+            same.addVertex();
+        }
+        for (int k = 0; k < 3 * n; k++) {
+            int u = rnd.nextInt(n);
+            int v = rnd.nextInt(n);
+            if (u == v || same.containsEdge(u, v))
+                continue;
+            int weight = 1 + rnd.nextInt(1000);
+            graph.setEdgeWeight(graph.addEdge(new Collider(u), new Collider(v)), weight);
+            same.setEdgeWeight(same.addEdge(u, v), weight);
+        }
+        var matching = new JgraphtMatching<>(graph).getMatching();
+        checkMatching(matching);
+        var expected = new KolmogorovWeightedMatching<>(same, ObjectiveSense.MAXIMIZE).getMatching();
+        assertEquals(expected.getWeight(), matching.getWeight(), 1e-6);
+    }
+}
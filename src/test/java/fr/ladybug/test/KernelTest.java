@@ -0,0 +1,115 @@
+package fr.ladybug.test;
+
+import fr.ladybug.Edge;
+import fr.ladybug.Graph;
+import fr.ladybug.GraphKernel;
+import fr.ladybug.RealVertex;
+import org.jgrapht.generate.GnmRandomGraphGenerator;
+import org.jgrapht.graph.DefaultEdge;
+import org.jgrapht.graph.SimpleGraph;
+import org.jgrapht.util.SupplierUtil;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import static fr.ladybug.test.BruteSolver.solve;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class KernelTest {
+
+    double solveWithKernel(Graph graph) {
+        var kernel = GraphKernel.reduce(graph);
+        graph.initializeVertexVariables();
+        while (true) {
+            Graph.GrowingResult result = graph.growTree();
+            if (result == Graph.GrowingResult.OPTIMAL_TREE) {
+                break;
+            }
+        }
+        kernel.restore();
+        return graph.getCurrentMatching().stream()
+                .reduce(0., (acc, edge) -> acc + edge.getWeight(), Double::sum);
+    }
+
+    @Test
+    void chainsOnTriangle() {
+        // A triangle with a chain of length 5 hanging off every corner
+        RealVertex.global_id = 0;
+        var vertices = new ArrayList<RealVertex>();
+        for (int i = 0; i < 18; i++) {
+            vertices.add(new RealVertex());
+        }
+        var rnd = new Random(0);
+        connect(vertices.get(0), vertices.get(1), 10);
+        connect(vertices.get(1), vertices.get(2), 10);
+        connect(vertices.get(2), vertices.get(0), 10);
+        for (int corner = 0; corner < 3; corner++) {
+            var previous = vertices.get(corner);
+            for (int i = 0; i < 5; i++) {
+                var next = vertices.get(3 + corner * 5 + i);
+                connect(previous, next, 1 + rnd.nextInt(20));
+                previous = next;
+            }
+        }
+        var graph = new Graph(vertices);
+        var trueWeight = solve(graph);
+        assertEquals(trueWeight, solveWithKernel(graph), 1e-6);
+    }
+
+    @Test
+    void kernelShrinksForests() {
+        RealVertex.global_id = 0;
+        var vertices = new ArrayList<RealVertex>();
+        for (int i = 0; i < 7; i++) {
+            vertices.add(new RealVertex());
+        }
+        connect(vertices.get(0), vertices.get(1), 3);
+        connect(vertices.get(1), vertices.get(2), 5);
+        connect(vertices.get(2), vertices.get(3), 4);
+        connect(vertices.get(3), vertices.get(4), 1);
+
+        var graph = new Graph(vertices);
+        var kernel = GraphKernel.reduce(graph);
+        var stats = kernel.getStats();
+        assertEquals(0, stats.getCoreVertices());
+        assertEquals(3, stats.getIsolatedVertices());
+        assertTrue(stats.getFoldedVertices() > 0);
+    }
+
+    @Test
+    void random() {
+        stress(6, 6, 1, 300);
+        stress(8, 8, 2, 300);
+        stress(10, 9, 3, 300);
+        stress(12, 12, 4, 300);
+        stress(14, 13, 5, 300);
+    }
+
+    void stress(int n, int m, int seed, int iterations) {
+        var rnd = new Random(seed);
+        for (int i = 0; i < iterations; i++) {
+            RealVertex.global_id = 0;
+            org.jgrapht.Graph<Integer, DefaultEdge> graph = new SimpleGraph<Integer, DefaultEdge>(
+                    SupplierUtil.createIntegerSupplier(),
+                    SupplierUtil.createDefaultEdgeSupplier(),
+                    false);
+            new GnmRandomGraphGenerator<Integer, DefaultEdge>(n, m, rnd.nextInt(), false, false)
+                    .generateGraph(graph);
+
+            var ourGraph = new Graph(graph, seed);
+            var trueWeight = solve(ourGraph);
+            assertEquals(trueWeight, solveWithKernel(ourGraph), 1e-6);
+        }
+    }
+
+    private static void connect(RealVertex from, RealVertex to, double weight) {
+        var edgeA = new Edge(from, to, weight);
+        var edgeB = new Edge(to, from, weight);
+        edgeA.setRev(edgeB);
+        edgeB.setRev(edgeA);
+        from.addEdge(edgeA);
+        to.addEdge(edgeB);
+    }
+}
@@ -0,0 +1,76 @@
+package fr.ladybug.test;
+
+import fr.ladybug.Graph;
+import fr.ladybug.GraphReader;
+import fr.ladybug.LazyPricing;
+import fr.ladybug.RealVertex;
+import org.jgrapht.generate.GnmRandomGraphGenerator;
+import org.jgrapht.graph.DefaultEdge;
+import org.jgrapht.graph.SimpleGraph;
+import org.jgrapht.util.SupplierUtil;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static fr.ladybug.test.BruteSolver.solve;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class LazyPricingTest {
+
+    double solveLazily(Graph graph, int candidatesPerVertex) {
+        new LazyPricing(graph, candidatesPerVertex).solve();
+        return graph.getCurrentMatching().stream()
+                .reduce(0., (acc, edge) -> acc + edge.getWeight(), Double::sum);
+    }
+
+    @Test
+    void graphs() {
+        // Blossoms with positive variables survive the last round there
+        assertEquals(241, solveLazily(new GraphReader("14w.grph").readGraph(true), 1), 1e-6);
+        assertEquals(297, solveLazily(new GraphReader("16w.grph").readGraph(true), 1), 1e-6);
+    }
+
+    @Test
+    void random() {
+        stress(6, 12, 1, 1, 200);
+        stress(7, 12, 2, 2, 200);
+        stress(8, 12, 1, 3, 200);
+    }
+
+    @Test
+    void dense() {
+        // The plain solver is checked against the brute force elsewhere
+        var rnd = new Random(5);
+        for (int i = 0; i < 50; i++) {
+            org.jgrapht.Graph<Integer, DefaultEdge> graph = new SimpleGraph<Integer, DefaultEdge>(
+                    SupplierUtil.createIntegerSupplier(),
+                    SupplierUtil.createDefaultEdgeSupplier(),
+                    false);
+            new GnmRandomGraphGenerator<Integer, DefaultEdge>(40, 300, rnd.nextInt(), false, false)
+                    .generateGraph(graph);
+
+            var plainGraph = new Graph(graph, 5);
+            plainGraph.solve();
+            var trueWeight = plainGraph.getCurrentMatching().stream()
+                    .reduce(0., (acc, edge) -> acc + edge.getWeight(), Double::sum);
+            assertEquals(trueWeight, solveLazily(new Graph(graph, 5), 3), 1e-6);
+        }
+    }
+
+    void stress(int n, int m, int candidatesPerVertex, int seed, int iterations) {
+        var rnd = new Random(seed);
+        for (int i = 0; i < iterations; i++) {
+            RealVertex.global_id = 0;
+            org.jgrapht.Graph<Integer, DefaultEdge> graph = new SimpleGraph<Integer, DefaultEdge>(
+                    SupplierUtil.createIntegerSupplier(),
+                    SupplierUtil.createDefaultEdgeSupplier(),
+                    false);
+            new GnmRandomGraphGenerator<Integer, DefaultEdge>(n, m, rnd.nextInt(), false, false)
+                    .generateGraph(graph);
+
+            var ourGraph = new Graph(graph, seed);
+            var trueWeight = solve(ourGraph);
+            assertEquals(trueWeight, solveLazily(ourGraph, candidatesPerVertex), 1e-6);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package fr.ladybug.test;
+
+import fr.ladybug.EdgeNormalizer;
+import fr.ladybug.GraphGenerator;
+import fr.ladybug.MatchingEngine;
+import fr.ladybug.MatchingSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MatchingSnapshotTest {
+
+    static double solve(int n, int[] from, int[] to, double[] weight) {
+        var engine = new MatchingEngine(n, from, to, weight);
+        engine.initializeVariables();
+        while (engine.stage()) {
+        }
+        return engine.getMatchingWeight();
+    }
+
+    /**
+     * A random graph without loops and parallel edges, blossom-heavy on every other call.
+     */
+    static EdgeNormalizer randomGraph(int n, int maxWeight, SplittableRandom rnd) {
+        var family = rnd.nextBoolean() ? GraphGenerator.Family.GNM : GraphGenerator.Family.BLOSSOM;
+        // Tiny graphs have fewer distinct pairs than that
+        int m = Math.min(2 * n, n * (n - 1) / 2);
+        var edges = GraphGenerator.generate(family, GraphGenerator.Weights.UNIFORM, n, m, maxWeight,
+                rnd.nextLong(), 1).toCsr();
+        return EdgeNormalizer.normalize(edges.getSources(), edges.getTargets(), edges.getWeights());
+    }
+
+    /**
+     * A few new weights, for the matched edges half of the time: up, down to zero or anything in between.
+     */
+    static List<MatchingSnapshot.Change> randomChanges(EdgeNormalizer edges, MatchingSnapshot snapshot,
+                                                       int maxWeight, SplittableRandom rnd) {
+        var changes = new ArrayList<MatchingSnapshot.Change>();
+        int count = 1 + rnd.nextInt(4);
+        for (int i = 0; i < count; i++) {
+            int k = rnd.nextInt(edges.getFrom().length);
+            if (rnd.nextBoolean()) {
+                for (int j = 0; j < 20 && snapshot.getMate(edges.getFrom()[k]) != edges.getTo()[k]; j++) {
+                    k = rnd.nextInt(edges.getFrom().length);
+                }
+            }
+            double weight = rnd.nextInt(3) == 0 ? 0 : rnd.nextInt(2 * maxWeight + 1);
+            changes.add(new MatchingSnapshot.Change(edges.getFrom()[k], edges.getTo()[k], weight));
+        }
+        return changes;
+    }
+
+    static double solveChanged(int n, EdgeNormalizer edges, List<MatchingSnapshot.Change> changes) {
+        var from = edges.getFrom();
+        var to = edges.getTo();
+        var weight = edges.getWeights().clone();
+        for (var change : changes) {
+            for (int k = 0; k < from.length; k++) {
+                if (from[k] == change.getU() && to[k] == change.getV() ||
+                        from[k] == change.getV() && to[k] == change.getU())
+                    weight[k] = change.getWeight();
+            }
+        }
+        return solve(n, from, to, weight);
+    }
+
+    @Test
+    void sameAsSolvingAgain() {
+        var rnd = new SplittableRandom(0);
+        for (int maxWeight : new int[]{1, 3, 1000}) {
+            for (int i = 0; i < 100; i++) {
+                int n = 4 + rnd.nextInt(60);
+                var edges = randomGraph(n, maxWeight, rnd);
+                var snapshot = MatchingSnapshot.solve(n, edges.getFrom().clone(), edges.getTo().clone(),
+                        edges.getWeights().clone());
+                assertEquals(solve(n, edges.getFrom(), edges.getTo(), edges.getWeights()), snapshot.getWeight(),
+                        1e-6);
+                for (int j = 0; j < 5; j++) {
+                    var changes = randomChanges(edges, snapshot, maxWeight, rnd);
+                    var result = snapshot.evaluate(changes);
+                    double expected = solveChanged(n, edges, changes);
+                    assertEquals(expected, result.getWeight(), 1e-6, changes.size() + " changes");
+                    assertEquals(expected - snapshot.getWeight(), result.getDelta(), 1e-6);
+                    for (int v = 0; v < n; v++) {
+                        int mate = result.getMate(v);
+                        assertTrue(mate == -1 || result.getMate(mate) == v);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void changesOfTheSameEngine() {
+        // Without forks: the weights change one after another on a single engine, which is solved after each
+        var rnd = new SplittableRandom(1);
+        for (int i = 0; i < 100; i++) {
+            int n = 4 + rnd.nextInt(60);
+            var edges = randomGraph(n, 5, rnd);
+            var from = edges.getFrom();
+            var to = edges.getTo();
+            var weight = edges.getWeights().clone();
+            var engine = new MatchingEngine(n, from, to, weight);
+            engine.initializeVariables();
+            while (engine.stage()) {
+            }
+            for (int j = 0; j < 20; j++) {
+                int k = rnd.nextInt(from.length);
+                weight[k] = rnd.nextInt(11);
+                engine.setWeight(k, weight[k]);
+                while (engine.stage()) {
+                }
+                assertEquals(solve(n, from, to, weight), engine.getMatchingWeight(), 1e-6);
+                assertEquals(engine.getMatchingWeight(), engine.getDualBound(), 1e-6);
+            }
+        }
+    }
+
+    @Test
+    void concurrentForksLeaveTheBase() {
+        var rnd = new SplittableRandom(2);
+        int n = 3000;
+        var edges = randomGraph(n, 100, rnd);
+        var snapshot = MatchingSnapshot.solve(n, edges.getFrom().clone(), edges.getTo().clone(),
+                edges.getWeights().clone());
+        var mates = new int[n];
+        for (int v = 0; v < n; v++) {
+            mates[v] = snapshot.getMate(v);
+        }
+        double weight = snapshot.getWeight();
+
+        var scenarios = new ArrayList<List<MatchingSnapshot.Change>>();
+        for (int i = 0; i < 40; i++) {
+            scenarios.add(randomChanges(edges, snapshot, 100, rnd));
+        }
+        var results = snapshot.evaluateAll(scenarios, 4);
+        for (int i = 0; i < scenarios.size(); i++) {
+            assertEquals(snapshot.evaluate(scenarios.get(i)).getWeight(), results.get(i).getWeight(), 1e-9);
+        }
+        for (int i = 0; i < 5; i++) {
+            assertEquals(solveChanged(n, edges, scenarios.get(i)), results.get(i).getWeight(), 1e-6);
+        }
+
+        assertEquals(weight, snapshot.getWeight());
+        var after = new int[n];
+        for (int v = 0; v < n; v++) {
+            after[v] = snapshot.getMate(v);
+        }
+        assertTrue(Arrays.equals(mates, after));
+        assertEquals(weight, snapshot.evaluate(List.of()).getWeight(), 1e-9);
+    }
+
+    @Test
+    void missingEdge() {
+        var snapshot = MatchingSnapshot.solve(3, new int[]{0}, new int[]{1}, new double[]{1});
+        assertThrows(IllegalArgumentException.class,
+                () -> snapshot.evaluate(List.of(new MatchingSnapshot.Change(1, 2, 5))));
+    }
+}
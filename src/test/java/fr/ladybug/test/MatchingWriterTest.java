@@ -0,0 +1,78 @@
+package fr.ladybug.test;
+
+import fr.ladybug.GraphReader;
+import fr.ladybug.MatchingWriter;
+import fr.ladybug.RealVertex;
+import fr.ladybug.VertexReordering;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class MatchingWriterTest {
+
+    String write(MatchingWriter.Format format, double weight, int[] mate) throws IOException {
+        var out = new ByteArrayOutputStream();
+        MatchingWriter.write(format, weight, mate, out);
+        return out.toString(StandardCharsets.US_ASCII);
+    }
+
+    @Test
+    void exactWeight() {
+        // Past the range of int, where the old (int) cast printed 2147483647
+        assertEquals("3000000000", MatchingWriter.formatWeight(3e9));
+        assertEquals("17", MatchingWriter.formatWeight(17));
+        assertEquals("0.30000000000000004", MatchingWriter.formatWeight(0.1 + 0.2));
+        assertEquals("2.5", MatchingWriter.formatWeight(2.5));
+        assertEquals(0.1 + 0.2, Double.parseDouble(MatchingWriter.formatWeight(0.1 + 0.2)));
+    }
+
+    @Test
+    void textPairs() throws IOException {
+        var mate = new int[]{3, -1, 4, 0, 2};
+        assertEquals("7\n", write(MatchingWriter.Format.WEIGHT, 7, mate));
+        assertEquals("7\n0 3\n2 4\n", write(MatchingWriter.Format.PAIRS, 7, mate));
+    }
+
+    @Test
+    void binaryPairs() throws IOException {
+        // More pairs than fit in the buffer at once
+        int n = 200_000;
+        var mate = new int[n];
+        for (int v = 0; v < n; v += 2) {
+            mate[v] = v + 1;
+            mate[v + 1] = v;
+        }
+        var out = new ByteArrayOutputStream();
+        MatchingWriter.write(MatchingWriter.Format.BINARY, 1, mate, out);
+        assertEquals(4 * n, out.size());
+        var in = new DataInputStream(new ByteArrayInputStream(out.toByteArray()));
+        for (int v = 0; v < n; v += 2) {
+            assertEquals(v, in.readInt());
+            assertEquals(v + 1, in.readInt());
+        }
+    }
+
+    @Test
+    void pairsOfGraph() throws IOException {
+        // A path 0 - 3 - 1 - 4 - 2 with the heaviest edges on its ends, vertex 1 stays free
+        var text = "5 4\n0 3 5\n3 1 1\n1 4 1\n4 2 5\n";
+        // The pairs are by the input vertices whatever the order and however many vertices were made before
+        RealVertex.global_id = 1000;
+        for (var order : VertexReordering.Order.values()) {
+            var graph = new GraphReader(null, order)
+                    .readGraph(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)));
+            graph.solve();
+            assertArrayEquals(new int[]{3, -1, 4, 0, 2}, graph.getMates());
+            assertEquals(10, graph.getMatchingWeight(), 1e-9);
+            assertEquals("10\n0 3\n2 4\n",
+                    write(MatchingWriter.Format.PAIRS, graph.getMatchingWeight(), graph.getMates()));
+        }
+    }
+}
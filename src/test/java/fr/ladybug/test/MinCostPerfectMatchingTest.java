@@ -0,0 +1,168 @@
+package fr.ladybug.test;
+
+import fr.ladybug.MinCostPerfectMatching;
+import org.jgrapht.alg.matching.blossom.v5.KolmogorovWeightedPerfectMatching;
+import org.jgrapht.alg.matching.blossom.v5.ObjectiveSense;
+import org.jgrapht.graph.DefaultWeightedEdge;
+import org.jgrapht.graph.SimpleWeightedGraph;
+import org.jgrapht.util.SupplierUtil;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MinCostPerfectMatchingTest {
+
+    /**
+     * A random graph on an even number of vertices with a random perfect matching hidden in it.
+     */
+    void check(int n, int m, int maxCost, SplittableRandom rnd) {
+        var graph = new SimpleWeightedGraph<Integer, DefaultWeightedEdge>(
+                SupplierUtil.createIntegerSupplier(), SupplierUtil.DEFAULT_WEIGHTED_EDGE_SUPPLIER);
+        var order = new int[n];
+        for (int v = 0; v < n; v++) {
+            graph.addVertex();
+            order[v] = v;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1);
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+        for (int i = 0; i < n; i += 2) {
+            graph.setEdgeWeight(graph.addEdge(order[i], order[i + 1]), 1 + rnd.nextInt(maxCost));
+        }
+        for (int i = 0; i < m; i++) {
+            int u = rnd.nextInt(n);
+            int v = rnd.nextInt(n);
+            if (u != v && !graph.containsEdge(u, v))
+                graph.setEdgeWeight(graph.addEdge(u, v), 1 + rnd.nextInt(maxCost));
+        }
+        var from = new int[graph.edgeSet().size()];
+        var to = new int[from.length];
+        var cost = new double[from.length];
+        int k = 0;
+        for (var edge : graph.edgeSet()) {
+            from[k] = graph.getEdgeSource(edge);
+            to[k] = graph.getEdgeTarget(edge);
+            cost[k++] = graph.getEdgeWeight(edge);
+        }
+
+        var matching = MinCostPerfectMatching.solve(n, from, to, cost);
+        double total = 0;
+        for (int v = 0; v < n; v++) {
+            int mate = matching.getMate(v);
+            assertTrue(mate != -1 && matching.getMate(mate) == v);
+            if (mate > v)
+                total += graph.getEdgeWeight(graph.getEdge(v, mate));
+        }
+        assertEquals(total, matching.getCost(), 1e-6);
+        assertEquals(matching.getCost(), matching.getLowerBound(), 1e-6);
+        double expected = new KolmogorovWeightedPerfectMatching<>(graph, ObjectiveSense.MINIMIZE)
+                .getMatching().getWeight();
+        assertEquals(expected, matching.getCost(), 1e-6);
+    }
+
+    @Test
+    void sameCostAsKolmogorov() {
+        var rnd = new SplittableRandom(0);
+        for (int maxCost : new int[]{1, 3, 1000}) {
+            for (int i = 0; i < 200; i++) {
+                int n = 2 * (1 + rnd.nextInt(30));
+                check(n, rnd.nextInt(3 * n), maxCost, rnd);
+            }
+        }
+        for (int i = 0; i < 5; i++) {
+            check(1000, 3000, 1_000_000, rnd);
+        }
+    }
+
+    @Test
+    void sameVerdictAsKolmogorov() {
+        // Without a hidden matching many of the graphs have none, though they pass the checks of the structure
+        var rnd = new SplittableRandom(1);
+        int rejected = 0;
+        for (int i = 0; i < 500; i++) {
+            int n = 2 * (2 + rnd.nextInt(20));
+            var graph = new SimpleWeightedGraph<Integer, DefaultWeightedEdge>(
+                    SupplierUtil.createIntegerSupplier(), SupplierUtil.DEFAULT_WEIGHTED_EDGE_SUPPLIER);
+            for (int v = 0; v < n; v++) {
+                graph.addVertex();
+            }
+            for (int j = 0; j < n; j++) {
+                int v = (j + 1 + rnd.nextInt(n - 1)) % n;
+                if (!graph.containsEdge(j, v))
+                    graph.setEdgeWeight(graph.addEdge(j, v), 1 + rnd.nextInt(3));
+            }
+            var from = new int[graph.edgeSet().size()];
+            var to = new int[from.length];
+            var cost = new double[from.length];
+            int k = 0;
+            for (var edge : graph.edgeSet()) {
+                from[k] = graph.getEdgeSource(edge);
+                to[k] = graph.getEdgeTarget(edge);
+                cost[k++] = graph.getEdgeWeight(edge);
+            }
+            double expected;
+            try {
+                expected = new KolmogorovWeightedPerfectMatching<>(graph, ObjectiveSense.MINIMIZE)
+                        .getMatching().getWeight();
+            } catch (IllegalArgumentException e) {
+                assertThrows(IllegalArgumentException.class, () -> MinCostPerfectMatching.solve(n, from, to, cost));
+                rejected++;
+                continue;
+            }
+            var matching = MinCostPerfectMatching.solve(n, from, to, cost);
+            assertEquals(expected, matching.getCost(), 1e-6);
+            assertEquals(expected, matching.getLowerBound(), 1e-6);
+        }
+        assertTrue(rejected > 0);
+    }
+
+    @Test
+    void cheapestParallelEdge() {
+        var matching = MinCostPerfectMatching.read(new ByteArrayInputStream(
+                "4 5\n0 1 5\n1 0 2\n2 3 7\n0 2 1\n1 3 100\n".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(1, matching.getMate(0));
+        assertEquals(9, matching.getCost(), 1e-9);
+    }
+
+    MinCostPerfectMatching read(String text) {
+        return MinCostPerfectMatching.read(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void keepsTheDigitsOfTheCosts() {
+        var matching = read("4 4\n0 1 0.3\n2 3 0.1\n0 2 100.1\n1 3 100.1\n");
+        assertEquals(0.4, matching.getCost());
+        assertEquals(0.4, matching.getLowerBound(), 1e-12);
+        // The cheap edges are far below the precision of the expensive ones
+        matching = read("4 4\n0 1 0.5\n2 3 0.25\n0 2 1e17\n1 3 1e17\n");
+        assertEquals(1, matching.getMate(0));
+        assertEquals(0.75, matching.getCost());
+        assertEquals(0.75, matching.getLowerBound(), 1e-12);
+    }
+
+    @Test
+    void noPerfectMatching() {
+        // Odd number of vertices
+        assertThrows(IllegalArgumentException.class, () -> MinCostPerfectMatching.solve(3,
+                new int[]{0, 1}, new int[]{1, 2}, new double[]{1, 1}));
+        // Vertex 3 has no edges
+        assertThrows(IllegalArgumentException.class, () -> MinCostPerfectMatching.solve(4,
+                new int[]{0, 1, 2}, new int[]{1, 2, 0}, new double[]{1, 1, 1}));
+        // Two triangles
+        assertThrows(IllegalArgumentException.class, () -> MinCostPerfectMatching.solve(6,
+                new int[]{0, 1, 2, 3, 4, 5}, new int[]{1, 2, 0, 4, 5, 3}, new double[]{1, 1, 1, 1, 1, 1}));
+        // A star: connected and even, found by the engine
+        var exception = assertThrows(IllegalArgumentException.class, () -> MinCostPerfectMatching.solve(4,
+                new int[]{0, 0, 0}, new int[]{1, 2, 3}, new double[]{1, 2, 3}));
+        assertTrue(exception.getMessage().contains("grows without bound"));
+    }
+}
@@ -0,0 +1,134 @@
+package fr.ladybug.test;
+
+import fr.ladybug.Edge;
+import fr.ladybug.EdgeNormalizer;
+import fr.ladybug.GraphReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Random;
+
+import static fr.ladybug.test.BruteSolver.solve;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class NormalizationTest {
+
+    @Test
+    void dropsLoopsAndKeepsTheHeaviestParallelEdge() {
+        var from = new int[]{0, 1, 2, 1, 3, 0, 2};
+        var to = new int[]{1, 1, 3, 0, 2, 1, 2};
+        var weight = new double[]{5, 9, 2, 7, 1, 6, 4};
+        var normalized = EdgeNormalizer.normalize(from, to, weight);
+        assertArrayEquals(new int[]{0, 2}, normalized.getFrom());
+        assertArrayEquals(new int[]{1, 3}, normalized.getTo());
+        assertArrayEquals(new double[]{7, 2}, normalized.getWeights());
+        assertEquals(2, normalized.getLoops());
+        assertEquals(3, normalized.getParallelEdges());
+        assertEquals(5, normalized.getDroppedEdges());
+
+        var empty = EdgeNormalizer.normalize(new int[0], new int[0], new double[0]);
+        assertEquals(0, empty.getFrom().length);
+    }
+
+    @Test
+    void keepsTheFirstOccurrences() {
+        var rnd = new Random(1);
+        for (int round = 0; round < 100; round++) {
+            int n = 1 + rnd.nextInt(50);
+            int m = rnd.nextInt(300);
+            var from = new int[m];
+            var to = new int[m];
+            var weight = new double[m];
+            var heaviest = new LinkedHashMap<Long, Double>();
+            var firstEnds = new LinkedHashMap<Long, int[]>();
+            for (int i = 0; i < m; i++) {
+                from[i] = rnd.nextInt(n);
+                to[i] = rnd.nextInt(n);
+                weight[i] = rnd.nextInt(1000);
+                if (from[i] == to[i])
+                    continue;
+                long key = (long) Math.min(from[i], to[i]) << 32 | Math.max(from[i], to[i]);
+                heaviest.merge(key, weight[i], Math::max);
+                firstEnds.putIfAbsent(key, new int[]{from[i], to[i]});
+            }
+            var normalized = EdgeNormalizer.normalize(from, to, weight);
+            assertEquals(heaviest.size(), normalized.getFrom().length);
+            int i = 0;
+            for (var key : heaviest.keySet()) {
+                assertEquals(firstEnds.get(key)[0], normalized.getFrom()[i]);
+                assertEquals(firstEnds.get(key)[1], normalized.getTo()[i]);
+                assertEquals(heaviest.get(key), normalized.getWeights()[i]);
+                i++;
+            }
+        }
+    }
+
+    @Test
+    void endsAtTheBoundary() {
+        // The number of vertices is one past the largest end, so the largest int leaves no room for it
+        assertThrows(IllegalArgumentException.class,
+                () -> EdgeNormalizer.normalize(new int[]{0}, new int[]{Integer.MAX_VALUE}, new double[]{1}));
+        assertThrows(IllegalArgumentException.class,
+                () -> EdgeNormalizer.normalize(new int[]{-1}, new int[]{0}, new double[]{1}));
+        var normalized = EdgeNormalizer.normalize(new int[]{0, 1 << 20}, new int[]{1 << 20, 0}, new double[]{1, 2});
+        assertArrayEquals(new double[]{2}, normalized.getWeights());
+    }
+
+    @Test
+    void multigraphSolvesAsItsSimpleGraph() throws Exception {
+        var rnd = new Random(0);
+        var file = Files.createTempFile("graph", ".grph");
+        try {
+            for (int round = 0; round < 200; round++) {
+                int n = 2 + rnd.nextInt(7);
+                var heaviest = new LinkedHashMap<Integer, Integer>();
+                var text = new StringBuilder();
+                int m = 0;
+                int loops = 0;
+                for (int i = 0; i < 25; i++) {
+                    int u = rnd.nextInt(n);
+                    int v = rnd.nextInt(n);
+                    int w = 1 + rnd.nextInt(20);
+                    int key = Math.min(u, v) * n + Math.max(u, v);
+                    if (u == v) {
+                        loops++;
+                    } else if (!heaviest.containsKey(key) && heaviest.size() == 12) {
+                        // Small enough for the brute force
+                        continue;
+                    } else {
+                        heaviest.merge(key, w, Math::max);
+                    }
+                    text.append(u).append(' ').append(v).append(' ').append(w).append('\n');
+                    m++;
+                }
+                var multigraph = n + " " + m + "\n" + text;
+                var simple = new StringBuilder(n + " " + heaviest.size() + "\n");
+                heaviest.forEach((key, w) -> simple.append(key / n).append(' ').append(key % n).append(' ')
+                        .append(w).append('\n'));
+                double expected = solve(new GraphReader(null).readGraph(
+                        new ByteArrayInputStream(simple.toString().getBytes())));
+
+                var reader = new GraphReader(null);
+                var graph = reader.readGraph(new ByteArrayInputStream(multigraph.getBytes()));
+                assertEquals(loops, reader.getNormalization().getLoops());
+                assertEquals(m - loops - heaviest.size(), reader.getNormalization().getParallelEdges());
+                assertEquals(2 * heaviest.size(), graph.allEdges().size());
+                graph.solve();
+                assertEquals(expected, graph.getCurrentMatching().stream().mapToDouble(Edge::getWeight).sum(),
+                        1e-9);
+
+                Files.writeString(file, multigraph);
+                var parallel = new GraphReader(null).readGraph(file, 2);
+                parallel.solve();
+                assertEquals(expected, parallel.getCurrentMatching().stream().mapToDouble(Edge::getWeight).sum(),
+                        1e-9);
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package fr.ladybug.test;
+
+import fr.ladybug.Edge;
+import fr.ladybug.GraphReader;
+import fr.ladybug.ParallelGraphParser;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ParallelParserTest {
+    private static final String[] WEIGHT_FORMATS = {"%d", "%d.5", "%d.125", "-%d.75", "%de-2", "+%d", "%d.0000001"};
+
+    /**
+     * @return the edges as from, to and the weight as it is written
+     */
+    ArrayList<String[]> randomEdges(int n, int m, Random rnd) {
+        var edges = new ArrayList<String[]>();
+        for (int i = 0; i < m; i++) {
+            var weight = String.format(WEIGHT_FORMATS[rnd.nextInt(WEIGHT_FORMATS.length)], rnd.nextInt(1000));
+            edges.add(new String[]{String.valueOf(rnd.nextInt(n)), String.valueOf(rnd.nextInt(n)), weight});
+        }
+        return edges;
+    }
+
+    byte[] text(int n, ArrayList<String[]> edges, Random rnd) {
+        var text = new StringBuilder(n + " " + edges.size() + "\n");
+        for (var edge : edges) {
+            // Any blanks between the numbers
+            var blank = rnd.nextBoolean() ? " " : " \t ";
+            text.append(edge[0]).append(blank).append(edge[1]).append(blank).append(edge[2])
+                    .append(rnd.nextInt(4) == 0 ? "\r\n" : "\n");
+        }
+        return text.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Test
+    void sameResultForAnyNumberOfThreads() {
+        var rnd = new Random(0);
+        for (int round = 0; round < 30; round++) {
+            int n = 1 + rnd.nextInt(round < 15 ? 10 : 10000);
+            var edges = randomEdges(n, rnd.nextInt(5000), rnd);
+            var data = text(n, edges, rnd);
+
+            // Stable by the source, so the edges of a vertex keep their order
+            var sorted = new ArrayList<>(edges);
+            sorted.sort(Comparator.comparingInt(edge -> Integer.parseInt(edge[0])));
+            var expectedTargets = sorted.stream().mapToInt(edge -> Integer.parseInt(edge[1])).toArray();
+            var expectedWeights = sorted.stream().mapToDouble(edge -> Double.parseDouble(edge[2])).toArray();
+
+            var reader = new GraphReader(null);
+            reader.readGraph(new ByteArrayInputStream(data));
+            for (int threads : new int[]{1, 2, 3, 8}) {
+                var csr = ParallelGraphParser.parse(data, threads);
+                assertEquals(n, csr.getVertexCount());
+                assertArrayEquals(expectedTargets, csr.getTargets());
+                assertArrayEquals(expectedWeights, csr.getWeights());
+                var sources = csr.getSources();
+                for (int i = 0; i < sorted.size(); i++) {
+                    assertEquals(Integer.parseInt(sorted.get(i)[0]), sources[i]);
+                }
+                assertEquals(reader.getHash(), csr.getHash());
+            }
+        }
+    }
+
+    @Test
+    void sameMatchingAsTheScanner() throws Exception {
+        var rnd = new Random(1);
+        var file = Files.createTempFile("graph", ".grph");
+        try {
+            for (int round = 0; round < 10; round++) {
+                var text = new StringBuilder("200 600\n");
+                var seen = new HashSet<Integer>();
+                while (seen.size() < 600) {
+                    int u = rnd.nextInt(200);
+                    int v = rnd.nextInt(200);
+                    if (u != v && seen.add(Math.min(u, v) * 200 + Math.max(u, v)))
+                        text.append(u).append(' ').append(v).append(' ').append(1 + rnd.nextInt(100)).append('\n');
+                }
+                Files.writeString(file, text);
+
+                var expected = new GraphReader(null).readGraph(new ByteArrayInputStream(Files.readAllBytes(file)));
+                expected.solve();
+                var graph = new GraphReader(null).readGraph(file, 4);
+                graph.solve();
+                assertEquals(expected.getCurrentMatching().stream().mapToDouble(Edge::getWeight).sum(),
+                        graph.getCurrentMatching().stream().mapToDouble(Edge::getWeight).sum(), 1e-9);
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void malformedInput() {
+        assertThrows(IllegalArgumentException.class,
+                () -> ParallelGraphParser.parse("3 2\n0 1 1\n".getBytes(), 2));
+        assertThrows(IllegalArgumentException.class,
+                () -> ParallelGraphParser.parse("3 1\n0 3 1\n".getBytes(), 2));
+        assertThrows(IllegalArgumentException.class,
+                () -> ParallelGraphParser.parse("3 1\n0 1 x\n".getBytes(), 2));
+        assertThrows(IllegalArgumentException.class,
+                () -> ParallelGraphParser.parse("3 1\n0 1\n".getBytes(), 2));
+        assertEquals(0, ParallelGraphParser.parse("0 0\n".getBytes(), 2).getEdgeCount());
+    }
+}
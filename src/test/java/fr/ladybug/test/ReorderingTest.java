@@ -0,0 +1,59 @@
+package fr.ladybug.test;
+
+import fr.ladybug.Graph;
+import fr.ladybug.GraphReader;
+import fr.ladybug.RealVertex;
+import fr.ladybug.VertexReordering;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ReorderingTest {
+
+    double solve(Graph graph) {
+        graph.solve();
+        return graph.getCurrentMatching().stream()
+                .reduce(0., (acc, edge) -> acc + edge.getWeight(), Double::sum);
+    }
+
+    @Test
+    void sameWeight() {
+        var expected = new double[]{11, 11, 11, 15, 17, 23, 48, 44, 67, 47, 146, 151, 139, 241, 145, 297};
+        for (var order : VertexReordering.Order.values()) {
+            for (int i = 0; i < expected.length; i++) {
+                var graph = new GraphReader((i + 1) + "w.grph", order).readGraph(true);
+                assertEquals(expected[i], solve(graph), 1e-6);
+            }
+        }
+    }
+
+    @Test
+    void originalIds() {
+        // A path 0 - 3 - 1 - 4 - 2 with the heaviest edges on its ends
+        var text = "5 4\n0 3 5\n3 1 1\n1 4 1\n4 2 5\n";
+        for (var order : VertexReordering.Order.values()) {
+            RealVertex.global_id = 0;
+            var graph = new GraphReader(null, order)
+                    .readGraph(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)));
+            assertEquals(10, solve(graph), 1e-6);
+            var pairs = graph.getCurrentMatching().stream()
+                    .mapToInt(edge -> Math.min(edge.from().getId(), edge.to().getId()) * 10 +
+                            Math.max(edge.from().getId(), edge.to().getId()))
+                    .sorted()
+                    .toArray();
+            assertArrayEquals(new int[]{3, 24}, pairs);
+        }
+    }
+
+    @Test
+    void reverseCuthillMcKee() {
+        // A star: the search starts from the first leaf, goes to the center and then to the other leaves
+        var order = VertexReordering.Order.REVERSE_CUTHILL_MCKEE;
+        var result = VertexReordering.order(order, 4, new int[]{2, 2, 2}, new int[]{0, 1, 3});
+        assertArrayEquals(new int[]{3, 1, 2, 0}, result);
+    }
+}
@@ -0,0 +1,123 @@
+package fr.ladybug.test;
+
+import fr.ladybug.EdgeNormalizer;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic graph families for the scale tiers, generated straight into edge arrays.
+ * The weights are integers from 1 to 10^6, loops and parallel edges are removed by {@link EdgeNormalizer}.
+ */
+public class ScaleGraphs {
+    private static final int MAX_WEIGHT = 1_000_000;
+
+    public enum Family {
+        // Uniform random pairs, three times as many edges as vertices
+        GNM,
+        // Barabasi-Albert, every new vertex attaches to three ends of the existing edges
+        SCALE_FREE,
+        // Square grid with four neighbours
+        GRID,
+        // Two equal sides, three times as many edges as vertices, all of them across
+        BIPARTITE,
+        // Complete graph on at most 1000 vertices, the other vertices are isolated
+        COMPLETE_DENSE
+    }
+
+    static final int DENSE_VERTICES = 1000;
+
+    private ScaleGraphs() {
+    }
+
+    public static EdgeNormalizer generate(Family family, int n, long seed) {
+        var rnd = new SplittableRandom(seed);
+        int[] from;
+        int[] to;
+        switch (family) {
+            case GNM: {
+                from = new int[3 * n];
+                to = new int[3 * n];
+                for (int i = 0; i < from.length; i++) {
+                    from[i] = rnd.nextInt(n);
+                    to[i] = rnd.nextInt(n);
+                }
+                break;
+            }
+            case SCALE_FREE: {
+                int links = 3;
+                from = new int[links * n];
+                to = new int[links * n];
+                // The ends of the edges so far, a uniform pick is a pick proportional to the degree
+                var ends = new int[2 * links * n];
+                int endCount = 0;
+                int m = 0;
+                for (int v = 1; v < n; v++) {
+                    for (int j = 0; j < links; j++) {
+                        int u = endCount == 0 ? 0 : ends[rnd.nextInt(endCount)];
+                        from[m] = v;
+                        to[m] = u;
+                        m++;
+                        ends[endCount++] = u;
+                    }
+                    for (int j = 0; j < links; j++) {
+                        ends[endCount++] = v;
+                    }
+                }
+                from = Arrays.copyOf(from, m);
+                to = Arrays.copyOf(to, m);
+                break;
+            }
+            case GRID: {
+                int side = (int)Math.sqrt(n);
+                from = new int[2 * side * (side - 1)];
+                to = new int[from.length];
+                int m = 0;
+                for (int row = 0; row < side; row++) {
+                    for (int column = 0; column < side; column++) {
+                        int v = row * side + column;
+                        if (column + 1 < side) {
+                            from[m] = v;
+                            to[m++] = v + 1;
+                        }
+                        if (row + 1 < side) {
+                            from[m] = v;
+                            to[m++] = v + side;
+                        }
+                    }
+                }
+                break;
+            }
+            case BIPARTITE: {
+                int half = n / 2;
+                from = new int[3 * n];
+                to = new int[3 * n];
+                for (int i = 0; i < from.length; i++) {
+                    from[i] = rnd.nextInt(half);
+                    to[i] = half + rnd.nextInt(n - half);
+                }
+                break;
+            }
+            case COMPLETE_DENSE: {
+                int k = Math.min(n, DENSE_VERTICES);
+                from = new int[k * (k - 1) / 2];
+                to = new int[from.length];
+                int m = 0;
+                for (int u = 0; u < k; u++) {
+                    for (int v = u + 1; v < k; v++) {
+                        from[m] = u;
+                        to[m++] = v;
+                    }
+                }
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown family: " + family);
+        }
+        var weight = new double[from.length];
+        for (int i = 0; i < weight.length; i++) {
+            weight[i] = 1 + rnd.nextInt(MAX_WEIGHT);
+        }
+        return EdgeNormalizer.normalize(from, to, weight);
+    }
+}
@@ -0,0 +1,159 @@
+package fr.ladybug.test;
+
+import fr.ladybug.EdgeNormalizer;
+import fr.ladybug.MatchingEngine;
+import fr.ladybug.StreamingMatching;
+import fr.ladybug.test.ScaleGraphs.Family;
+import org.jgrapht.alg.matching.blossom.v5.KolmogorovWeightedMatching;
+import org.jgrapht.alg.matching.blossom.v5.ObjectiveSense;
+import org.jgrapht.graph.DefaultWeightedEdge;
+import org.jgrapht.graph.SimpleWeightedGraph;
+import org.jgrapht.util.SupplierUtil;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Time and memory budgets of the solvers on generated graphs of 10^3 to 10^6 vertices, run by
+ * {@code ./gradlew perfTest}, which {@code ./gradlew check} runs after the unit tests. A budget which is exceeded
+ * fails the perfTest task and so the check.
+ * <p>
+ * The exact solver is quadratic in practice, so it runs up to 3 * 10^4 vertices, 2 * 10^3 for the complete graph,
+ * where Kolmogorov's algorithm of jgrapht checks its weight. The tiers of 10^5 and 10^6 vertices measure only the
+ * one-pass streaming matching, which is checked against its own upper bound; the exact solver has no budget there. The budgets are about three times the times and the
+ * heaps measured on a single core, with at least 16 MB of heap.
+ */
+@Tag("perf")
+public class ScaleTest {
+    private static final long SEED = 42;
+    private static final double STREAM_EPSILON = 0.1;
+
+    static Stream<Arguments> exactTiers() {
+        // Family, vertices, milliseconds, megabytes of peak heap
+        return Stream.of(
+                Arguments.of(Family.GNM, 1_000, 400, 16),
+                Arguments.of(Family.SCALE_FREE, 1_000, 300, 16),
+                Arguments.of(Family.GRID, 1_000, 200, 16),
+                Arguments.of(Family.BIPARTITE, 1_000, 250, 16),
+                Arguments.of(Family.COMPLETE_DENSE, 1_000, 12_000, 64),
+                Arguments.of(Family.COMPLETE_DENSE, 2_000, 6_000, 80),
+                Arguments.of(Family.GNM, 10_000, 5_000, 24),
+                Arguments.of(Family.SCALE_FREE, 10_000, 6_000, 24),
+                Arguments.of(Family.GRID, 10_000, 3_500, 24),
+                Arguments.of(Family.BIPARTITE, 10_000, 6_000, 24),
+                Arguments.of(Family.GNM, 30_000, 72_000, 80),
+                Arguments.of(Family.GRID, 30_000, 48_000, 96)
+        );
+    }
+
+    static Stream<Arguments> streamingTiers() {
+        var tiers = new ArrayList<Arguments>();
+        for (var family : Family.values()) {
+            if (family == Family.COMPLETE_DENSE)
+                continue;
+            tiers.add(Arguments.of(family, 100_000, 150, 48));
+            tiers.add(Arguments.of(family, 1_000_000, 450, 320));
+        }
+        return tiers.stream();
+    }
+
+    /**
+     * Measures the peak of the heap from now on.
+     */
+    private static void resetPeakHeap() {
+        System.gc();
+        for (var pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP)
+                pool.resetPeakUsage();
+        }
+    }
+
+    private static long peakHeapMegabytes() {
+        long bytes = 0;
+        for (var pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP)
+                bytes += pool.getPeakUsage().getUsed();
+        }
+        return bytes >> 20;
+    }
+
+    private static double kolmogorovWeight(int n, EdgeNormalizer edges) {
+        var graph = new SimpleWeightedGraph<Integer, DefaultWeightedEdge>(
+                SupplierUtil.createIntegerSupplier(), SupplierUtil.DEFAULT_WEIGHTED_EDGE_SUPPLIER);
+        for (int v = 0; v < n; v++) {
+            graph.addVertex();
+        }
+        for (int i = 0; i < edges.getFrom().length; i++) {
+            graph.setEdgeWeight(graph.addEdge(edges.getFrom()[i], edges.getTo()[i]), edges.getWeights()[i]);
+        }
+        return new KolmogorovWeightedMatching<>(graph, ObjectiveSense.MAXIMIZE).getMatching().getWeight();
+    }
+
+    private static void checkBudget(String what, long millis, long megabytes, long maxMillis, long maxMegabytes) {
+        System.out.println(String.format("%s: %d ms (budget %d), peak heap %d MB (budget %d)",
+                what, millis, maxMillis, megabytes, maxMegabytes));
+        assertTrue(millis <= maxMillis, what + " took " + millis + " ms, the budget is " + maxMillis + " ms");
+        assertTrue(megabytes <= maxMegabytes,
+                what + " took " + megabytes + " MB of heap, the budget is " + maxMegabytes + " MB");
+    }
+
+    @ParameterizedTest(name = "exact: {0} on {1} vertices")
+    @MethodSource("exactTiers")
+    void exact(Family family, int n, long maxMillis, long maxMegabytes) {
+        var edges = ScaleGraphs.generate(family, n, SEED);
+        resetPeakHeap();
+        long start = System.nanoTime();
+        var engine = new MatchingEngine(n, edges.getFrom(), edges.getTo(), edges.getWeights());
+        engine.initializeVariables();
+        while (engine.stage()) {
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        long megabytes = peakHeapMegabytes();
+
+        for (int v = 0; v < n; v++) {
+            int mate = engine.getMate(v);
+            assertTrue(mate == -1 || engine.getMate(mate) == v);
+        }
+        // Equal to the dual bound, so the matching is optimal, and the same as the one of jgrapht
+        assertEquals(engine.getDualBound(), engine.getMatchingWeight(), 1e-6);
+        assertEquals(kolmogorovWeight(n, edges), engine.getMatchingWeight(), 1e-6);
+        System.out.println(String.format("exact %s on %d vertices: %d edges scanned, %.2f per edge end",
+                family, n, engine.getScannedEdges(), engine.getScannedEdges() / (2. * edges.getFrom().length)));
+        checkBudget("exact " + family + " on " + n + " vertices", millis, megabytes, maxMillis, maxMegabytes);
+    }
+
+    @ParameterizedTest(name = "streaming: {0} on {1} vertices")
+    @MethodSource("streamingTiers")
+    void streaming(Family family, int n, long maxMillis, long maxMegabytes) {
+        var edges = ScaleGraphs.generate(family, n, SEED);
+        var from = edges.getFrom();
+        var to = edges.getTo();
+        var weight = edges.getWeights();
+        resetPeakHeap();
+        long start = System.nanoTime();
+        var matching = new StreamingMatching(n, STREAM_EPSILON);
+        for (int i = 0; i < from.length; i++) {
+            matching.offer(from[i], to[i], weight[i]);
+        }
+        matching.finish(false);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        long megabytes = peakHeapMegabytes();
+
+        for (int v = 0; v < n; v++) {
+            int mate = matching.getMate(v);
+            assertTrue(mate == -1 || matching.getMate(mate) == v);
+        }
+        // Every retained edge adds its gain to the weight, the bound is twice the gains times 1 + epsilon
+        assertTrue(matching.getMatchingWeight() >= matching.getUpperBound() / (2 + 2 * STREAM_EPSILON) - 1e-6);
+        checkBudget("streaming " + family + " on " + n + " vertices", millis, megabytes, maxMillis, maxMegabytes);
+    }
+}
@@ -0,0 +1,82 @@
+package fr.ladybug.test;
+
+import fr.ladybug.Edge;
+import fr.ladybug.Graph;
+import fr.ladybug.RealVertex;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import static fr.ladybug.test.BruteSolver.solve;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ScalingTest {
+
+    Graph randomGraph(int n, int m, int maxWeight, Random rnd) {
+        RealVertex.global_id = 0;
+        var vertices = new ArrayList<RealVertex>();
+        for (int i = 0; i < n; i++) {
+            vertices.add(new RealVertex());
+        }
+        for (int i = 0; i < m; i++) {
+            var from = vertices.get(rnd.nextInt(n));
+            var to = vertices.get(rnd.nextInt(n));
+            if (from == to || from.getEdgeTo(to) != null)
+                continue;
+            connect(from, to, 1 + rnd.nextInt(maxWeight));
+        }
+        return new Graph(vertices);
+    }
+
+    double weight(Graph graph) {
+        return graph.getCurrentMatching().stream().mapToDouble(Edge::getWeight).sum();
+    }
+
+    @Test
+    void random() {
+        var rnd = new Random(0);
+        for (var maxWeight : new int[]{1, 7, 1000, 1 << 30}) {
+            for (int i = 0; i < 300; i++) {
+                var graph = randomGraph(10, 12, maxWeight, rnd);
+                var trueWeight = solve(graph);
+                graph.solveByScaling();
+                assertEquals(trueWeight, weight(graph), 1e-6);
+            }
+        }
+    }
+
+    @Test
+    void largeWeights() {
+        for (int seed = 0; seed < 5; seed++) {
+            var plain = randomGraph(300, 900, 1_000_000_000, new Random(seed));
+            plain.solve();
+            var graph = randomGraph(300, 900, 1_000_000_000, new Random(seed));
+            graph.solveByScaling();
+            assertEquals(weight(plain), weight(graph), 1e-6);
+            assertEquals(weight(graph), graph.getDualBound(), 1e-6);
+        }
+    }
+
+    @Test
+    void fractionalWeights() {
+        var vertices = new ArrayList<RealVertex>();
+        for (int i = 0; i < 3; i++) {
+            vertices.add(new RealVertex());
+        }
+        connect(vertices.get(0), vertices.get(1), 2);
+        connect(vertices.get(1), vertices.get(2), 0.5);
+        var graph = new Graph(vertices);
+        assertThrows(IllegalArgumentException.class, graph::solveByScaling);
+    }
+
+    private static void connect(RealVertex from, RealVertex to, double weight) {
+        var edgeA = new Edge(from, to, weight);
+        var edgeB = new Edge(to, from, weight);
+        edgeA.setRev(edgeB);
+        edgeB.setRev(edgeA);
+        from.addEdge(edgeA);
+        to.addEdge(edgeB);
+    }
+}
@@ -0,0 +1,235 @@
+package fr.ladybug.test;
+
+import fr.ladybug.GraphReader;
+import fr.ladybug.LoadGenerator;
+import fr.ladybug.RealVertex;
+import fr.ladybug.SolverClient;
+import fr.ladybug.SolverServer;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+
+import static fr.ladybug.test.BruteSolver.solve;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ServerTest {
+
+    String randomGraph(int n, int m, Random rnd) {
+        var text = new StringBuilder(n + " " + m + "\n");
+        var seen = new HashSet<Integer>();
+        while (seen.size() < m) {
+            int u = rnd.nextInt(n);
+            int v = rnd.nextInt(n);
+            if (u == v || !seen.add(Math.min(u, v) * n + Math.max(u, v)))
+                continue;
+            text.append(u).append(' ').append(v).append(' ').append(1 + rnd.nextInt(100)).append('\n');
+        }
+        return text.toString();
+    }
+
+    double pairsWeight(String graph, int[] pairs) {
+        var in = graph.split("\\s+");
+        var matched = new HashSet<Integer>();
+        for (var vertex : pairs) {
+            assertTrue(matched.add(vertex));
+        }
+        double result = 0;
+        for (int i = 0; i < pairs.length; i += 2) {
+            boolean found = false;
+            for (int j = 2; j + 2 < in.length; j += 3) {
+                int u = Integer.parseInt(in[j]);
+                int v = Integer.parseInt(in[j + 1]);
+                if (u == pairs[i] && v == pairs[i + 1] || v == pairs[i] && u == pairs[i + 1]) {
+                    result += Double.parseDouble(in[j + 2]);
+                    found = true;
+                    break;
+                }
+            }
+            assertTrue(found);
+        }
+        return result;
+    }
+
+    @Test
+    void textAndBinary() throws Exception {
+        try (var server = new SolverServer(0, 2, 2)) {
+            server.start();
+            var rnd = new Random(0);
+            try (var client = new SolverClient(server.getPort())) {
+                for (int i = 0; i < 100; i++) {
+                    var graph = randomGraph(10, 12, rnd);
+                    RealVertex.global_id = 0;
+                    var trueWeight = solve(new GraphReader(null).readGraph(new ByteArrayInputStream(graph.getBytes())));
+
+                    var text = client.solve(graph);
+                    assertEquals(trueWeight, text.getWeight(), 1e-6);
+                    assertEquals(trueWeight, pairsWeight(graph, text.getPairs()), 1e-6);
+
+                    var in = graph.split("\\s+");
+                    int m = Integer.parseInt(in[1]);
+                    var from = new int[m];
+                    var to = new int[m];
+                    var weight = new double[m];
+                    for (int k = 0; k < m; k++) {
+                        from[k] = Integer.parseInt(in[2 + 3 * k]);
+                        to[k] = Integer.parseInt(in[3 + 3 * k]);
+                        weight[k] = Double.parseDouble(in[4 + 3 * k]);
+                    }
+                    var binary = client.solve(Integer.parseInt(in[0]), from, to, weight);
+                    assertEquals(trueWeight, binary.getWeight(), 1e-6);
+                }
+            }
+            assertEquals(200, server.getSolved());
+        }
+    }
+
+    @Test
+    void errorsKeepTheConnection() throws Exception {
+        try (var server = new SolverServer(0, 1, 1)) {
+            server.start();
+            try (var client = new SolverClient(server.getPort())) {
+                assertThrows(IllegalArgumentException.class, () -> client.solve("3 1\n0 5 1\n"));
+                assertThrows(IllegalArgumentException.class, () -> client.solve("3 2\n0 1"));
+                // The rest of the text after the error is skipped
+                assertThrows(IllegalArgumentException.class, () -> client.solve("3 3\n0 5 1\n0 1 2\n1 2 3\n"));
+                assertEquals(0, client.solve("3 0\n").getWeight());
+                // Loops are dropped and parallel edges collapse into the heaviest
+                assertEquals(2, client.solve("3 2\n1 1 5\n0 1 2\n").getWeight());
+                assertEquals(7, client.solve("3 3\n0 1 2\n1 0 7\n1 2 3\n").getWeight());
+            }
+            assertEquals(3, server.getFailed());
+        }
+    }
+
+    /**
+     * @return the message of the error answered to the request, the server closes the connection after it
+     */
+    String rejected(int port, int format, int first, int second) throws Exception {
+        try (var socket = new Socket(InetAddress.getLoopbackAddress(), port);
+             var out = new DataOutputStream(socket.getOutputStream());
+             var in = new DataInputStream(socket.getInputStream())) {
+            out.writeByte(format);
+            out.writeInt(first);
+            if (format == 'B')
+                out.writeInt(second);
+            out.flush();
+            assertEquals('E', in.readByte());
+            var message = in.readUTF();
+            assertEquals(-1, in.read());
+            return message;
+        }
+    }
+
+    @Test
+    void sizeLimits() throws Exception {
+        try (var server = new SolverServer(0, 1, 1, null, 10, 5)) {
+            server.start();
+            // Only the sizes are sent, nothing is allocated for them
+            assertTrue(rejected(server.getPort(), 'B', 3, -1).contains("negative"));
+            assertTrue(rejected(server.getPort(), 'B', -3, 1).contains("negative"));
+            assertTrue(rejected(server.getPort(), 'B', 3, Integer.MAX_VALUE).contains("limits"));
+            assertTrue(rejected(server.getPort(), 'B', Integer.MAX_VALUE, 1).contains("limits"));
+            assertTrue(rejected(server.getPort(), 'T', -1, 0).contains("range"));
+            assertTrue(rejected(server.getPort(), 'T', Integer.MAX_VALUE, 0).contains("range"));
+            // The whole text was read, so the connection goes on
+            try (var client = new SolverClient(server.getPort())) {
+                assertThrows(IllegalArgumentException.class, () -> client.solve("11 0\n"));
+                assertEquals(3, client.solve("4 3\n0 1 1\n1 2 3\n2 3 1\n").getWeight());
+            }
+            assertEquals(7, server.getFailed());
+            assertEquals(1, server.getSolved());
+        }
+    }
+
+    @Test
+    void heldRequestsAreBounded() throws Exception {
+        // One worker and requests of at most 15 vertices and edges: one request of the largest size holds all
+        try (var server = new SolverServer(0, 1, 2, null, 10, 5)) {
+            server.start();
+            var pool = Executors.newSingleThreadExecutor();
+            try (var socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+                 var out = new DataOutputStream(socket.getOutputStream());
+                 var in = new DataInputStream(socket.getInputStream())) {
+                out.writeByte('B');
+                out.writeInt(10);
+                out.writeInt(5);
+                out.flush();
+                // The first request is allocated and waits for its edges, the second one waits for the first
+                while (server.getHeldItems() < 15) {
+                    Thread.sleep(10);
+                }
+                var second = pool.submit(() -> {
+                    try (var client = new SolverClient(server.getPort())) {
+                        return client.solve("4 3\n0 1 1\n1 2 3\n2 3 1\n").getWeight();
+                    }
+                });
+                Thread.sleep(300);
+                assertFalse(second.isDone());
+                for (int i = 0; i < 5; i++) {
+                    out.writeInt(2 * i);
+                    out.writeInt(2 * i + 1);
+                    out.writeDouble(1);
+                }
+                out.flush();
+                assertEquals('O', in.readByte());
+                assertEquals(5, in.readDouble());
+                assertEquals(3, second.get());
+                assertEquals(0, server.getHeldItems());
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    @Test
+    void moreClientsThanSlots() throws Exception {
+        // One worker and two connections, the other clients wait until they are accepted
+        try (var server = new SolverServer(0, 1, 2)) {
+            server.start();
+            var pool = Executors.newFixedThreadPool(6);
+            try {
+                var tasks = new ArrayList<Callable<Double>>();
+                for (int c = 0; c < 6; c++) {
+                    tasks.add(() -> {
+                        try (var client = new SolverClient(server.getPort())) {
+                            double total = 0;
+                            for (int i = 0; i < 20; i++) {
+                                total += client.solve("4 3\n0 1 1\n1 2 3\n2 3 1\n").getWeight();
+                            }
+                            return total;
+                        }
+                    });
+                }
+                for (var future : pool.invokeAll(tasks)) {
+                    assertEquals(60, future.get());
+                }
+            } finally {
+                pool.shutdown();
+            }
+            assertEquals(6, server.getConnections());
+        }
+    }
+
+    @Test
+    void loadGenerator() throws Exception {
+        try (var server = new SolverServer(0, 2, 2)) {
+            server.start();
+            var report = LoadGenerator.run(server.getPort(), 2, 50, 50, 150, false, 0);
+            assertTrue(report.getPercentile(0.5) <= report.getPercentile(0.99));
+            assertTrue(report.getThroughput() > 0);
+            assertEquals(100, server.getSolved());
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package fr.ladybug.test;
+
+import fr.ladybug.GraphReader;
+import fr.ladybug.RealVertex;
+import fr.ladybug.StreamingMatching;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.HashSet;
+import java.util.Random;
+
+import static fr.ladybug.test.BruteSolver.solve;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StreamingTest {
+
+    String randomStream(int n, int m, Random rnd, int maxWeight) {
+        var text = new StringBuilder(n + " " + m + "\n");
+        var seen = new HashSet<Integer>();
+        while (seen.size() < m) {
+            int u = rnd.nextInt(n);
+            int v = rnd.nextInt(n);
+            if (u == v || !seen.add(Math.min(u, v) * n + Math.max(u, v)))
+                continue;
+            text.append(u).append(' ').append(v).append(' ').append(1 + rnd.nextInt(maxWeight)).append('\n');
+        }
+        return text.toString();
+    }
+
+    StreamingMatching stream(String text, double epsilon, boolean resolve) {
+        return StreamingMatching.read(new ByteArrayInputStream(text.getBytes()), epsilon, resolve);
+    }
+
+    double matchingWeight(StreamingMatching matching, String text) {
+        // Every matched pair must be an edge of the stream, the weight is recomputed from them
+        var in = text.split("\\s+");
+        int n = Integer.parseInt(in[0]);
+        double result = 0;
+        for (int i = 2; i + 2 < in.length; i += 3) {
+            int u = Integer.parseInt(in[i]);
+            int v = Integer.parseInt(in[i + 1]);
+            if (matching.getMate(u) == v)
+                result += Double.parseDouble(in[i + 2]);
+        }
+        for (int v = 0; v < n; v++) {
+            int mate = matching.getMate(v);
+            assertTrue(mate == -1 || matching.getMate(mate) == v);
+        }
+        return result;
+    }
+
+    @Test
+    void approximationBound() {
+        var rnd = new Random(0);
+        for (int i = 0; i < 300; i++) {
+            var text = randomStream(10, 12, rnd, 100);
+            RealVertex.global_id = 0;
+            var trueWeight = solve(new GraphReader(null).readGraph(new ByteArrayInputStream(text.getBytes())));
+            for (var epsilon : new double[]{0.01, 0.1, 1}) {
+                var greedy = stream(text, epsilon, false);
+                var resolved = stream(text, epsilon, true);
+                assertEquals(greedy.getMatchingWeight(), matchingWeight(greedy, text), 1e-6);
+                assertEquals(resolved.getMatchingWeight(), matchingWeight(resolved, text), 1e-6);
+
+                assertTrue((2 + 2 * epsilon) * greedy.getMatchingWeight() >= trueWeight - 1e-6);
+                assertTrue(greedy.getMatchingWeight() <= resolved.getMatchingWeight() + 1e-6);
+                assertTrue(resolved.getMatchingWeight() <= trueWeight + 1e-6);
+                assertTrue(greedy.getUpperBound() >= trueWeight - 1e-6);
+            }
+        }
+    }
+
+    @Test
+    void retainedEdgesAreBounded() {
+        var rnd = new Random(1);
+        int n = 2000;
+        var text = randomStream(n, 40000, rnd, 1000);
+        double epsilon = 0.5;
+        var matching = stream(text, epsilon, false);
+        assertEquals(40000, matching.getStreamedEdges());
+        double perVertex = 2 + Math.log(1000 / epsilon) / Math.log(1 + epsilon);
+        assertTrue(matching.getRetainedEdges() <= n * perVertex / 2);
+        assertTrue(matching.getRetainedEdges() < 40000);
+        assertTrue(matching.getMatchingWeight() * (2 + 2 * epsilon) >= matching.getUpperBound() - 1e-6);
+    }
+
+    @Test
+    void epsilonMustBePositive() {
+        var text = "2 1\n0 1 5\n";
+        assertThrows(IllegalArgumentException.class, () -> stream(text, 0, false));
+        assertThrows(IllegalArgumentException.class, () -> stream(text, -0.5, false));
+        assertThrows(IllegalArgumentException.class, () -> new StreamingMatching(2, 0));
+    }
+}
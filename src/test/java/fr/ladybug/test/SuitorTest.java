@@ -0,0 +1,91 @@
+package fr.ladybug.test;
+
+import fr.ladybug.Edge;
+import fr.ladybug.Graph;
+import fr.ladybug.RealVertex;
+import fr.ladybug.SuitorMatching;
+import org.jgrapht.generate.GnmRandomGraphGenerator;
+import org.jgrapht.graph.DefaultEdge;
+import org.jgrapht.graph.SimpleGraph;
+import org.jgrapht.util.SupplierUtil;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import static fr.ladybug.test.BruteSolver.solve;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SuitorTest {
+
+    org.jgrapht.Graph<Integer, DefaultEdge> randomGraph(int n, int m, int seed) {
+        org.jgrapht.Graph<Integer, DefaultEdge> graph = new SimpleGraph<Integer, DefaultEdge>(
+                SupplierUtil.createIntegerSupplier(),
+                SupplierUtil.createDefaultEdgeSupplier(),
+                false);
+        new GnmRandomGraphGenerator<Integer, DefaultEdge>(n, m, seed, false, false)
+                .generateGraph(graph);
+        return graph;
+    }
+
+    /**
+     * The sequential greedy matching by the same order of the edges, which is the locally dominant one.
+     */
+    HashSet<Edge> greedy(Graph graph) {
+        var edges = graph.allEdges().stream()
+                .filter(edge -> edge.from().getId() < edge.to().getId())
+                .sorted(Comparator.comparingDouble(Edge::getWeight)
+                        .thenComparingInt(edge -> edge.to().getId())
+                        .thenComparingInt(edge -> edge.from().getId())
+                        .reversed())
+                .collect(Collectors.toList());
+        var used = new HashSet<RealVertex>();
+        var result = new HashSet<Edge>();
+        for (var edge : edges) {
+            if (used.contains(edge.from()) || used.contains(edge.to()))
+                continue;
+            used.add(edge.from());
+            used.add(edge.to());
+            result.add(edge);
+        }
+        return result;
+    }
+
+    @Test
+    void halfOfOptimum() {
+        var rnd = new Random(0);
+        for (int i = 0; i < 300; i++) {
+            RealVertex.global_id = 0;
+            var graph = new Graph(randomGraph(12, 12, rnd.nextInt()), 1);
+            var trueWeight = solve(graph);
+            var weight = SuitorMatching.solve(graph).stream().mapToDouble(Edge::getWeight).sum();
+            assertTrue(2 * weight >= trueWeight - 1e-6);
+            assertTrue(weight <= trueWeight + 1e-6);
+        }
+    }
+
+    @Test
+    void locallyDominant() throws Exception {
+        var pool = new ForkJoinPool(8);
+        try {
+            for (int seed = 1; seed <= 10; seed++) {
+                RealVertex.global_id = 0;
+                // Unit weights leave every decision to the ids
+                var graph = new Graph(randomGraph(2000, 20000, seed), seed % 2 == 0 ? 0 : seed);
+                var expected = greedy(graph);
+                for (int run = 0; run < 3; run++) {
+                    List<Edge> matching = pool.submit(() -> SuitorMatching.solve(graph)).get();
+                    assertEquals(expected, new HashSet<>(matching));
+                    assertEquals(expected, new HashSet<>(graph.getCurrentMatching()));
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}